@@ -25,7 +25,6 @@ public class DurationAdapter extends TypeAdapter<Duration> {
             writer.nullValue();
             return;
         }
-        String duration = String.format("%d", value.toMinutes());
-        writer.value(duration);
+        writer.value(Long.toString(value.toMinutes()));
     }
 }
@@ -6,16 +6,20 @@ import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 
 import java.io.IOException;
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
 
 public class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
+    private static final int NANO_DIGITS = 9;
+
     public LocalDateTime read(JsonReader reader) throws IOException {
         if (reader.peek() == JsonToken.NULL) {
             reader.nextNull();
             return null;
         }
         String time = reader.nextString();
-        return LocalDateTime.parse(time);
+        LocalDateTime parsed = parseIsoLocalDateTime(time);
+        return parsed != null ? parsed : LocalDateTime.parse(time);
     }
 
     public void write(JsonWriter writer, LocalDateTime value) throws IOException {
@@ -26,4 +30,58 @@ public class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
         String time = value.toString();
         writer.value(time);
     }
+
+    // Быстрый разбор формата LocalDateTime.toString() (yyyy-MM-ddTHH:mm[:ss[.n]]), иначе null.
+    private static LocalDateTime parseIsoLocalDateTime(String text) {
+        int length = text.length();
+        if (length < 16 || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T'
+                || text.charAt(13) != ':') {
+            return null;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 7);
+        int day = digits(text, 8, 10);
+        int hour = digits(text, 11, 13);
+        int minute = digits(text, 14, 16);
+        int second = 0;
+        int nano = 0;
+        if (length > 16) {
+            if (length < 19 || text.charAt(16) != ':') {
+                return null;
+            }
+            second = digits(text, 17, 19);
+            if (length > 19) {
+                int fractionDigits = length - 20;
+                if (text.charAt(19) != '.' || fractionDigits < 1 || fractionDigits > NANO_DIGITS) {
+                    return null;
+                }
+                nano = digits(text, 20, length);
+                for (int i = fractionDigits; i < NANO_DIGITS; i++) {
+                    nano *= 10;
+                }
+            }
+        }
+        if ((year | month | day | hour | minute | second | nano) < 0) {
+            return null;
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+        } catch (DateTimeException e) {
+            // Поля вне допустимых значений (13-й месяц, 30 февраля) разбирает LocalDateTime.parse и сообщает
+            // о них DateTimeParseException, как и о любом другом неверном формате.
+            return null;
+        }
+    }
+
+    private static int digits(String text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
 }
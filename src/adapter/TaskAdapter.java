@@ -0,0 +1,132 @@
+package adapter;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import model.TaskStatus;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TaskAdapter<T extends Task> extends TypeAdapter<T> {
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    private final Class<T> type;
+    private final DurationAdapter durationAdapter;
+    private final LocalDateTimeAdapter timeAdapter;
+
+    public TaskAdapter(Class<T> type) {
+        this.type = type;
+        this.durationAdapter = new DurationAdapter();
+        this.timeAdapter = new LocalDateTimeAdapter();
+    }
+
+    @Override
+    public void write(JsonWriter writer, T task) throws IOException {
+        if (task == null) {
+            writer.nullValue();
+            return;
+        }
+        writer.beginObject();
+        writer.name("name").value(task.getName());
+        writer.name("description").value(task.getDescription());
+        writer.name("status").value(task.getStatus() == null ? null : task.getStatus().name());
+        writer.name("id").value(task.getId());
+        writer.name("duration");
+        durationAdapter.write(writer, task.getDuration());
+        writer.name("startTime");
+        timeAdapter.write(writer, task.getStartTime());
+        writer.name("endTime");
+        timeAdapter.write(writer, task.getEndTime());
+        switch (task.getTaskType()) {
+            case SUBTASK -> writer.name("epicId").value(((SubTask) task).getEpicId());
+            case EPIC -> {
+                writer.name("subTaskIds").beginArray();
+                for (Integer subTaskId : ((Epic) task).getSubTaskIds()) {
+                    writer.value(subTaskId);
+                }
+                writer.endArray();
+                writer.name("criticalPath");
+                durationAdapter.write(writer, ((Epic) task).getCriticalPath());
+            }
+        }
+        writer.endObject();
+    }
+
+    @Override
+    public T read(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        String name = null;
+        String description = null;
+        TaskStatus status = null;
+        int id = 0;
+        int epicId = 0;
+        Duration duration = null;
+        LocalDateTime startTime = null;
+        LocalDateTime endTime = null;
+        Duration criticalPath = null;
+        List<Integer> subTaskIds = new ArrayList<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (field) {
+                case "name" -> name = reader.nextString();
+                case "description" -> description = reader.nextString();
+                case "status" -> status = parseStatus(reader.nextString());
+                case "id" -> id = reader.nextInt();
+                case "epicId" -> epicId = reader.nextInt();
+                case "duration" -> duration = durationAdapter.read(reader);
+                case "startTime" -> startTime = timeAdapter.read(reader);
+                case "endTime" -> endTime = timeAdapter.read(reader);
+                case "criticalPath" -> criticalPath = durationAdapter.read(reader);
+                case "subTaskIds" -> {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        subTaskIds.add(reader.nextInt());
+                    }
+                    reader.endArray();
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        Task task;
+        if (type == SubTask.class) {
+            task = new SubTask(name, description, id, status, epicId, duration, startTime);
+        } else if (type == Epic.class) {
+            Epic epic = new Epic(name, description, id, status);
+            epic.setDuration(duration);
+            epic.setStartTime(startTime);
+            epic.setEndTime(endTime);
+            epic.setCriticalPath(criticalPath);
+            subTaskIds.forEach(epic::addSubTaskId);
+            task = epic;
+        } else {
+            task = new Task(name, description, status, id, duration, startTime);
+        }
+        return type.cast(task);
+    }
+
+    private static TaskStatus parseStatus(String value) {
+        for (TaskStatus status : STATUSES) {
+            if (status.name().equals(value)) {
+                return status;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,39 @@
+package adapter;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import model.Epic;
+import model.SubTask;
+import model.Task;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+public class TaskAdapterFactory implements TypeAdapterFactory {
+    public static final Type TASK_LIST = TypeToken.getParameterized(List.class, Task.class).getType();
+    public static final Type SUBTASK_LIST = TypeToken.getParameterized(List.class, SubTask.class).getType();
+    public static final Type EPIC_LIST = TypeToken.getParameterized(List.class, Epic.class).getType();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> typeToken) {
+        Class<? super T> rawType = typeToken.getRawType();
+        if (isTaskType(rawType)) {
+            return (TypeAdapter<T>) new TaskAdapter<>((Class<? extends Task>) rawType);
+        }
+        if (rawType == List.class && typeToken.getType() instanceof ParameterizedType listType) {
+            Type elementType = listType.getActualTypeArguments()[0];
+            if (elementType instanceof Class<?> elementClass && isTaskType(elementClass)) {
+                return (TypeAdapter<T>) new TaskListAdapter<>(new TaskAdapter<>((Class<? extends Task>) elementClass));
+            }
+        }
+        return null;
+    }
+
+    private static boolean isTaskType(Class<?> type) {
+        return type == Task.class || type == SubTask.class || type == Epic.class;
+    }
+}
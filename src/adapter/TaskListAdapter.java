@@ -0,0 +1,47 @@
+package adapter;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import model.Task;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TaskListAdapter<T extends Task> extends TypeAdapter<List<T>> {
+    private final TaskAdapter<T> elementAdapter;
+
+    public TaskListAdapter(TaskAdapter<T> elementAdapter) {
+        this.elementAdapter = elementAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter writer, List<T> tasks) throws IOException {
+        if (tasks == null) {
+            writer.nullValue();
+            return;
+        }
+        writer.beginArray();
+        for (T task : tasks) {
+            elementAdapter.write(writer, task);
+        }
+        writer.endArray();
+    }
+
+    @Override
+    public List<T> read(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        List<T> tasks = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            tasks.add(elementAdapter.read(reader));
+        }
+        reader.endArray();
+        return tasks;
+    }
+}
@@ -0,0 +1,139 @@
+package controller;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static java.net.HttpURLConnection.HTTP_ENTITY_TOO_LARGE;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
+
+/*
+ Один экземпляр фильтра подключается ко всем контекстам сервера, поэтому лимиты общие для всех путей.
+ Запрос сверх лимита ждет в очереди не дольше queueTimeout (иначе 503), а если очередь заполнена, сразу получает 429.
+ */
+public class AdmissionFilter extends Filter {
+    public static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private final AdmissionLimits limits;
+    private final Limit reads;
+    private final Limit writes;
+
+    public AdmissionFilter(AdmissionLimits limits) {
+        this.limits = limits;
+        this.reads = new Limit(limits.maxReads(), limits.maxQueued(), limits.queueTimeout().toNanos());
+        this.writes = new Limit(limits.maxWrites(), limits.maxQueued(), limits.queueTimeout().toNanos());
+    }
+
+    private enum Admission {
+        ADMITTED, QUEUE_FULL, TIMED_OUT
+    }
+
+    private static class Limit {
+        private final Semaphore permits;
+        private final int maxQueued;
+        private final long timeoutNanos;
+        private final AtomicInteger queued = new AtomicInteger();
+
+        Limit(int permits, int maxQueued, long timeoutNanos) {
+            this.permits = new Semaphore(permits, true);
+            this.maxQueued = maxQueued;
+            this.timeoutNanos = timeoutNanos;
+        }
+
+        Admission acquire() throws InterruptedException {
+            // tryAcquire() без таймаута обгоняет очередь даже у справедливого семафора.
+            if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                return Admission.ADMITTED;
+            }
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                return Admission.QUEUE_FULL;
+            }
+            try {
+                return permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)
+                        ? Admission.ADMITTED
+                        : Admission.TIMED_OUT;
+            } finally {
+                queued.decrementAndGet();
+            }
+        }
+
+        void release() {
+            permits.release();
+        }
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        if (declaredLength(exchange) > limits.maxBodyBytes()) {
+            reject(exchange, HTTP_ENTITY_TOO_LARGE);
+            return;
+        }
+        Limit limit = HttpMethod.of(exchange.getRequestMethod()) == HttpMethod.GET ? reads : writes;
+        Admission admission;
+        try {
+            admission = limit.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admission = Admission.TIMED_OUT;
+        }
+        if (admission != Admission.ADMITTED) {
+            reject(exchange, admission == Admission.QUEUE_FULL ? HTTP_TOO_MANY_REQUESTS : HTTP_UNAVAILABLE);
+            return;
+        }
+        try {
+            exchange.setStreams(new LimitedInputStream(exchange.getRequestBody(), limits.maxBodyBytes()), null);
+            chain.doFilter(exchange);
+        } finally {
+            limit.release();
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Limits concurrent requests and request body size";
+    }
+
+    // Фильтр с теми же лимитами, который пропускает запросы с подходящим путем без очереди и разрешения.
+    public Filter except(Predicate<String> path) {
+        return new Filter() {
+            @Override
+            public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+                if (path.test(exchange.getRequestURI().getPath())) {
+                    chain.doFilter(exchange);
+                } else {
+                    AdmissionFilter.this.doFilter(exchange, chain);
+                }
+            }
+
+            @Override
+            public String description() {
+                return AdmissionFilter.this.description();
+            }
+        };
+    }
+
+    private static long declaredLength(HttpExchange exchange) {
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (contentLength == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void reject(HttpExchange exchange, int statusCode) throws IOException {
+        if (statusCode != HTTP_ENTITY_TOO_LARGE) {
+            exchange.getResponseHeaders().set("Retry-After", Long.toString(limits.retryAfter().toSeconds()));
+        }
+        exchange.sendResponseHeaders(statusCode, -1);
+        exchange.close();
+    }
+}
@@ -0,0 +1,19 @@
+package controller;
+
+import java.time.Duration;
+
+/*
+ Ограничения на одновременные запросы. Чтение и запись ограничиваются отдельно: запись все равно выполняется под
+ блокировкой менеджера, и длинная очередь из POST не должна отнимать потоки у GET.
+ */
+public record AdmissionLimits(int maxReads, int maxWrites, int maxQueued, Duration queueTimeout, long maxBodyBytes,
+                              Duration retryAfter) {
+    public static final AdmissionLimits DEFAULT = new AdmissionLimits(64, 8, 256, Duration.ofSeconds(2),
+            1024 * 1024, Duration.ofSeconds(1));
+
+    public AdmissionLimits {
+        if (maxReads <= 0 || maxWrites <= 0 || maxQueued < 0 || maxBodyBytes < 0) {
+            throw new IllegalArgumentException("Admission limits must be positive");
+        }
+    }
+}
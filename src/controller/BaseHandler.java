@@ -1,44 +1,122 @@
 package controller;
 
 import com.google.gson.Gson;
+import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import exception.FeedTruncatedException;
 import exception.NotFoundException;
+import exception.NotSupportedException;
+import exception.PayloadTooLargeException;
+import exception.ReadOnlyException;
 import exception.ValidationException;
 import server.BasePath;
 import service.TaskManager;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URLDecoder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
-import java.util.List;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
+import static java.net.HttpURLConnection.HTTP_BAD_METHOD;
 import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
+import static java.net.HttpURLConnection.HTTP_ENTITY_TOO_LARGE;
+import static java.net.HttpURLConnection.HTTP_GONE;
 import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
 import static java.net.HttpURLConnection.HTTP_NOT_ACCEPTABLE;
 import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_NOT_IMPLEMENTED;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
 
 public abstract class BaseHandler implements HttpHandler {
     public static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
+    protected static final String ID = "/{id}";
+    // Версии менеджера начинаются с нуля при каждом запуске, поэтому ETag включает момент старта сервера.
+    private static final String ETAG_EPOCH = Long.toHexString(System.currentTimeMillis());
+    // Короткие ответы сжатием не уменьшить, а CPU на них тратится.
+    private static final int COMPRESSION_THRESHOLD = 1024;
+    private static final String ENCODING_ATTRIBUTE = "controller.encoding";
+    // Путь запроса без префикса /boards/{id}, его выставляет BoardHandler.
+    static final String PATH_ATTRIBUTE = "controller.path";
+    private static final CompressionMetrics COMPRESSION_METRICS = new CompressionMetrics();
     protected final TaskManager taskManager;
     protected final Gson gson;
+    private final Map<BasePath, CachedResponse> responseCache = new ConcurrentHashMap<>();
+    private final Router<Endpoint> router = new Router<>();
+
+    private record CachedResponse(long version, String body) {
+    }
 
     public BaseHandler(TaskManager taskManager, Gson gson) {
         this.taskManager = taskManager;
         this.gson = gson;
     }
 
-    abstract String prepareResponse(HttpExchange exchange) throws IOException;
+    @FunctionalInterface
+    protected interface Action {
+        // Тело ответа или null, если клиенту нужно ответить 304 Not Modified.
+        String handle(HttpExchange exchange, int id) throws IOException;
+    }
+
+    private record Endpoint(int successStatus, Action action, boolean locked) {
+    }
+
+    protected void route(HttpMethod method, String pattern, int successStatus, Action action) {
+        router.route(method, pattern, new Endpoint(successStatus, action, true));
+    }
+
+    // Обработчик не трогает менеджер или обращается только к его потокобезопасным частям.
+    protected void routeUnlocked(HttpMethod method, String pattern, int successStatus, Action action) {
+        router.route(method, pattern, new Endpoint(successStatus, action, false));
+    }
+
+    // Списки читаются без блокировки, если менеджер отдает их из неизменяемого снимка.
+    protected void routeSnapshotRead(HttpMethod method, String pattern, int successStatus, Action action) {
+        router.route(method, pattern, new Endpoint(successStatus, action, !taskManager.hasSnapshotReads()));
+    }
+
+    String prepareResponse(HttpExchange exchange) throws IOException {
+        HttpMethod method = HttpMethod.of(exchange.getRequestMethod());
+        String path = getPath(exchange);
+        Router.Match<Endpoint> match = router.match(method, path);
+        String response = "";
+        int statusCode;
+        if (match == null) {
+            statusCode = router.isPathKnown(path) ? HTTP_BAD_METHOD : HTTP_NOT_FOUND;
+        } else {
+            response = invoke(match.endpoint(), exchange, match.id());
+            statusCode = match.endpoint().successStatus();
+            if (response == null) {
+                response = "";
+                statusCode = HTTP_NOT_MODIFIED;
+            }
+        }
+        // Потоковые ответы отправляют заголовки сами.
+        if (exchange.getResponseCode() == -1) {
+            sendResponseHeaders(exchange, statusCode, response);
+        }
+        return response;
+    }
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         try {
+            // Медленный клиент не должен держать блокировку менеджера, пока присылает тело запроса.
+            exchange.setStreams(new ByteArrayInputStream(exchange.getRequestBody().readAllBytes()), null);
             String response = prepareResponse(exchange);
-            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=" + DEFAULT_CHARSET);
             try (OutputStream os = exchange.getResponseBody()) {
-                os.write(response.getBytes());
+                writeBody(exchange, os, response);
             }
         } catch (Exception e) {
             errorHandle(exchange, e);
@@ -47,38 +125,132 @@ public abstract class BaseHandler implements HttpHandler {
         }
     }
 
+    // Менеджер задач не потокобезопасен, поэтому запросы к нему выполняются по одному.
+    private String invoke(Endpoint endpoint, HttpExchange exchange, int id) throws IOException {
+        if (!endpoint.locked() || taskManager.isThreadSafe()) {
+            return endpoint.action().handle(exchange, id);
+        }
+        synchronized (taskManager) {
+            return endpoint.action().handle(exchange, id);
+        }
+    }
+
     protected void errorHandle(HttpExchange exchange, Exception exception) throws IOException {
         int responseCode;
         responseCode = switch (exception) {
             case ValidationException validationException -> HTTP_NOT_ACCEPTABLE;
             case NotFoundException notFoundException -> HTTP_NOT_FOUND;
+            case FeedTruncatedException feedTruncatedException -> HTTP_GONE;
+            case PayloadTooLargeException payloadTooLargeException -> HTTP_ENTITY_TOO_LARGE;
+            case ReadOnlyException readOnlyException -> HTTP_BAD_METHOD;
+            case NotSupportedException notSupportedException -> HTTP_NOT_IMPLEMENTED;
             case NullPointerException nullPointerException -> HTTP_BAD_REQUEST;
+            case NumberFormatException numberFormatException -> HTTP_BAD_REQUEST;
+            case DateTimeParseException dateTimeParseException -> HTTP_BAD_REQUEST;
+            case RejectedExecutionException rejectedExecutionException -> HTTP_UNAVAILABLE;
             default -> HTTP_INTERNAL_ERROR;
         };
         writeResponse(exchange, responseCode, gson.toJson(exception.getMessage()));
 
     }
 
-    protected List<String> getPath(HttpExchange exchange) {
-        return Arrays.stream(exchange
-                        .getRequestURI()
-                        .getPath()
-                        .trim()
-                        .split("/"))
-                .filter(text -> !text.isBlank())
-                .toList();
+    /*
+     Ответ на GET коллекции с заголовком ETag. Если клиент прислал тот же ETag в If-None-Match, возвращается null
+     и обработчик отвечает 304 без тела. Иначе тело берется из кэша, пока версия коллекции не изменилась.
+     */
+    protected String getCachedResponse(HttpExchange exchange, BasePath base, long version, Supplier<String> body) {
+        String etag = "\"" + ETAG_EPOCH + "-" + version + "\"";
+        exchange.getResponseHeaders().set("ETag", etag);
+        if (matchesEtag(exchange.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+            return null;
+        }
+        CachedResponse cached = responseCache.get(base);
+        if (cached == null || cached.version() != version) {
+            cached = new CachedResponse(version, body.get());
+            responseCache.put(base, cached);
+        }
+        return cached.body();
+    }
+
+    public static CompressionMetrics getCompressionMetrics() {
+        return COMPRESSION_METRICS;
+    }
+
+    protected String getContentType() {
+        return "application/json; charset=" + DEFAULT_CHARSET;
+    }
+
+    /*
+     Ответ от порога COMPRESSION_THRESHOLD сжимается кодировкой из Accept-Encoding.
+     Длина сжатого тела заранее неизвестна, поэтому такой ответ отправляется частями (chunked).
+     */
+    protected void sendResponseHeaders(HttpExchange exchange, int statusCode, String response) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", getContentType());
+        if (statusCode == HTTP_NOT_MODIFIED) {
+            exchange.sendResponseHeaders(statusCode, -1);
+            return;
+        }
+        headers.set("Vary", "Accept-Encoding");
+        ContentEncoding encoding = response.length() < COMPRESSION_THRESHOLD
+                ? ContentEncoding.IDENTITY
+                : ContentEncoding.negotiate(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+        if (encoding == ContentEncoding.IDENTITY) {
+            exchange.sendResponseHeaders(statusCode, response.length());
+            return;
+        }
+        headers.set("Content-Encoding", encoding.getValue());
+        exchange.setAttribute(ENCODING_ATTRIBUTE, encoding);
+        exchange.sendResponseHeaders(statusCode, 0);
     }
 
-    protected int getId(List<String> path) {
-        return Integer.parseInt(path.get(1));
+    private void writeBody(HttpExchange exchange, OutputStream os, String response) throws IOException {
+        ContentEncoding encoding = (ContentEncoding) exchange.getAttribute(ENCODING_ATTRIBUTE);
+        if (encoding == null) {
+            os.write(response.getBytes(DEFAULT_CHARSET));
+            return;
+        }
+        long start = CompressionMetrics.now();
+        CountingOutputStream compressed = new CountingOutputStream(os);
+        CountingOutputStream uncompressed = new CountingOutputStream(encoding.wrap(compressed));
+        try (Writer writer = new OutputStreamWriter(uncompressed, DEFAULT_CHARSET)) {
+            writer.write(response);
+        }
+        COMPRESSION_METRICS.record(uncompressed.getCount(), compressed.getCount(), CompressionMetrics.now() - start);
+    }
+
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    protected boolean isValidBasePath(List<String> path, BasePath base) {
-        return (path.size() == 1) && (path.getLast().equals(base.getValue()));
+    private static String getPath(HttpExchange exchange) {
+        Object path = exchange.getAttribute(PATH_ATTRIBUTE);
+        return path != null ? (String) path : exchange.getRequestURI().getPath();
     }
 
-    protected boolean isValidIdPath(List<String> path, BasePath base) {
-        return (path.size()) == 2 && (path.getFirst().equals(base.getValue()));
+    protected Map<String, String> getQuery(HttpExchange exchange) {
+        Map<String, String> query = new HashMap<>();
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                query.put(URLDecoder.decode(parameter.substring(0, separator), DEFAULT_CHARSET),
+                        URLDecoder.decode(parameter.substring(separator + 1), DEFAULT_CHARSET));
+            }
+        }
+        return query;
     }
 
     private void writeResponse(HttpExchange exchange, int responseCode, String responseText) throws IOException {
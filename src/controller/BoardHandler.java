@@ -0,0 +1,149 @@
+package controller;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import exception.ManagerLoadException;
+import server.BasePath;
+import service.BoardRegistry;
+import service.TaskManager;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.net.HttpURLConnection.HTTP_CONFLICT;
+import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_NO_CONTENT;
+
+/*
+ Запросы /boards/{boardId}/<путь> передаются обработчикам доски boardId с путем без префикса.
+ Набор обработчиков создается при первом запросе к доске и удаляется, когда реестр выгружает доску.
+ Слушатель выгрузки вызывается уже после нее, и доска к этому времени может быть загружена заново,
+ поэтому набор привязан к своему менеджеру и пересоздается, если менеджер доски уже другой.
+ POST /boards/{boardId}/detach сохраняет и выгружает доску перед переносом ее файла в другой раздел.
+ */
+public class BoardHandler implements HttpHandler {
+    public static final String DETACH = "/detach";
+    private final BoardRegistry registry;
+    private final Gson gson;
+    private final Map<Integer, BoardHandlers> handlers = new ConcurrentHashMap<>();
+
+    private record BoardHandlers(TaskManager manager, Map<BasePath, HttpHandler> handlers) {
+    }
+
+    public BoardHandler(BoardRegistry registry, Gson gson) {
+        this.registry = registry;
+        this.gson = gson;
+        registry.addEvictionListener(handlers::remove);
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        int start = BasePath.BOARDS.getRoot().length() + 1;
+        int end = path.indexOf('/', start);
+        HttpHandler handler = null;
+        if (end > start) {
+            String rest = path.substring(end);
+            BasePath base = findBase(rest);
+            int boardId = parseBoardId(path, start, end);
+            if (rest.equals(DETACH) && boardId >= 0 && HttpMethod.of(exchange.getRequestMethod()) == HttpMethod.POST) {
+                detach(exchange, boardId);
+                return;
+            }
+            if (base != null && boardId >= 0) {
+                BoardRegistry.Lease lease = acquire(exchange, boardId);
+                if (lease == null) {
+                    return;
+                }
+                try (lease) {
+                    exchange.setAttribute(BaseHandler.PATH_ATTRIBUTE, rest);
+                    handler = getHandlers(boardId, lease.getManager()).get(base);
+                    if (handler != null) {
+                        handler.handle(exchange);
+                    }
+                }
+            }
+        }
+        if (handler == null) {
+            exchange.sendResponseHeaders(HTTP_NOT_FOUND, -1);
+            exchange.close();
+        }
+    }
+
+    // Подписчик ленты изменений доски держит соединение долго, поэтому лимиты запросов к нему не применяются.
+    public static boolean isChangeFeed(String path) {
+        int start = BasePath.BOARDS.getRoot().length() + 1;
+        int end = path.indexOf('/', start);
+        return end > start && findBase(path.substring(end)) == BasePath.CHANGES;
+    }
+
+    private BoardRegistry.Lease acquire(HttpExchange exchange, int boardId) throws IOException {
+        try {
+            return registry.acquire(boardId);
+        } catch (ManagerLoadException e) {
+            exchange.sendResponseHeaders(HTTP_INTERNAL_ERROR, -1);
+            exchange.close();
+            return null;
+        }
+    }
+
+    private void detach(HttpExchange exchange, int boardId) throws IOException {
+        int statusCode = HTTP_NO_CONTENT;
+        try {
+            registry.detach(boardId);
+        } catch (IllegalStateException e) {
+            statusCode = HTTP_CONFLICT;
+        } catch (RuntimeException e) {
+            statusCode = HTTP_INTERNAL_ERROR;
+        }
+        exchange.sendResponseHeaders(statusCode, -1);
+        exchange.close();
+    }
+
+    private Map<BasePath, HttpHandler> getHandlers(int boardId, TaskManager manager) {
+        return handlers.compute(boardId, (id, cached) -> cached != null && cached.manager() == manager
+                ? cached
+                : new BoardHandlers(manager, createHandlers(manager))).handlers();
+    }
+
+    private Map<BasePath, HttpHandler> createHandlers(TaskManager manager) {
+        Map<BasePath, HttpHandler> boardHandlers = new EnumMap<>(BasePath.class);
+        boardHandlers.put(BasePath.TASK, new TaskHandler(manager, gson));
+        boardHandlers.put(BasePath.SUBTASK, new SubTaskHandler(manager, gson));
+        boardHandlers.put(BasePath.EPIC, new EpicHandler(manager, gson));
+        boardHandlers.put(BasePath.HISTORY, new HistoryHandler(manager, gson));
+        boardHandlers.put(BasePath.PRIORITY, new PriorityHandler(manager, gson));
+        boardHandlers.put(BasePath.CHANGES, new ChangeFeedHandler(manager, gson));
+        boardHandlers.put(BasePath.SYNC, new SyncHandler(manager, gson));
+        boardHandlers.put(BasePath.CALENDAR, new CalendarHandler(manager, gson));
+        boardHandlers.put(BasePath.SEARCH, new SearchHandler(manager, gson));
+        boardHandlers.put(BasePath.DEPENDENCIES, new DependencyHandler(manager, gson));
+        return boardHandlers;
+    }
+
+    private static BasePath findBase(String path) {
+        for (BasePath base : BasePath.values()) {
+            String root = base.getRoot();
+            if (path.startsWith(root) && (path.length() == root.length() || path.charAt(root.length()) == '/')) {
+                return base;
+            }
+        }
+        return null;
+    }
+
+    private static int parseBoardId(String path, int start, int end) {
+        if (end - start > 9) {
+            return -1;
+        }
+        for (int i = start; i < end; i++) {
+            if (!Character.isDigit(path.charAt(i))) {
+                return -1;
+            }
+        }
+        return Integer.parseInt(path, start, end, 10);
+    }
+}
@@ -0,0 +1,47 @@
+package controller;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import exception.ValidationException;
+import service.TaskManager;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import static adapter.TaskAdapterFactory.TASK_LIST;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static server.BasePath.CALENDAR;
+
+/*
+ GET /calendar?from=&to= - загрузка каждого дня из [from, to): число задач и занятые ими минуты.
+ GET /calendar/tasks?date= - задачи этого дня по времени начала.
+ Даты в формате yyyy-MM-dd, по умолчанию неделя начиная с сегодняшнего дня.
+ */
+public final class CalendarHandler extends BaseHandler {
+    public static final String TASKS = "/tasks";
+    private static final int DEFAULT_DAYS = 7;
+    private static final int MAX_DAYS = 366;
+
+    public CalendarHandler(TaskManager taskManager, Gson gson) {
+        super(taskManager, gson);
+        routeSnapshotRead(HttpMethod.GET, CALENDAR.getRoot(), HTTP_OK, this::handleGetRequest);
+        routeSnapshotRead(HttpMethod.GET, CALENDAR.getRoot() + TASKS, HTTP_OK, this::handleGetTasksRequest);
+    }
+
+    private String handleGetRequest(HttpExchange exchange, int id) {
+        Map<String, String> query = getQuery(exchange);
+        LocalDate from = query.containsKey("from") ? LocalDate.parse(query.get("from")) : LocalDate.now();
+        LocalDate to = query.containsKey("to") ? LocalDate.parse(query.get("to")) : from.plusDays(DEFAULT_DAYS);
+        if (ChronoUnit.DAYS.between(from, to) > MAX_DAYS) {
+            throw new ValidationException("Calendar range cannot be longer than " + MAX_DAYS + " days.");
+        }
+        return gson.toJson(taskManager.getCalendar(from, to));
+    }
+
+    private String handleGetTasksRequest(HttpExchange exchange, int id) {
+        String date = getQuery(exchange).get("date");
+        return gson.toJson(taskManager.getTasksOfDay(date == null ? LocalDate.now() : LocalDate.parse(date)),
+                TASK_LIST);
+    }
+}
@@ -0,0 +1,98 @@
+package controller;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import exception.FeedTruncatedException;
+import service.ChangeFeed;
+import service.TaskManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.net.HttpURLConnection.HTTP_OK;
+import static server.BasePath.CHANGES;
+
+/*
+ Лента изменений: GET /changes?since=N&wait=ms отвечает событиями с номером больше N,
+ при пустой ленте ждет новые события до wait миллисекунд (long-poll).
+ С заголовком Accept: text/event-stream события отправляются потоком (SSE), продолжение - по Last-Event-ID.
+ */
+public final class ChangeFeedHandler extends BaseHandler {
+    private static final String EVENT_STREAM = "text/event-stream";
+    private static final long MAX_WAIT_MILLIS = 30_000;
+    private static final long HEARTBEAT_SECONDS = 15;
+
+    private record ChangeBatch(long lastSequence, List<ChangeFeed.Event> events) {
+    }
+
+    public ChangeFeedHandler(TaskManager taskManager, Gson gson) {
+        super(taskManager, gson);
+        // Лента потокобезопасна, ожидание не должно блокировать запросы к менеджеру.
+        routeUnlocked(HttpMethod.GET, CHANGES.getRoot(), HTTP_OK, this::handleGetRequest);
+    }
+
+    private String handleGetRequest(HttpExchange exchange, int id) throws IOException {
+        Map<String, String> query = getQuery(exchange);
+        String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+        long since = Long.parseLong(lastEventId != null ? lastEventId : query.getOrDefault("since", "0"));
+        if (isEventStream(exchange)) {
+            streamEvents(exchange, since);
+            return "";
+        }
+        long wait = Math.min(Long.parseLong(query.getOrDefault("wait", "0")), MAX_WAIT_MILLIS);
+        ChangeFeed feed = taskManager.getChangeFeed();
+        List<ChangeFeed.Event> events = await(feed, since, wait);
+        return gson.toJson(new ChangeBatch(feed.getLastSequence(), events));
+    }
+
+    private void streamEvents(HttpExchange exchange, long since) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", EVENT_STREAM + "; charset=" + DEFAULT_CHARSET);
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(HTTP_OK, 0);
+        OutputStream os = exchange.getResponseBody();
+        ChangeFeed feed = taskManager.getChangeFeed();
+        long last = since;
+        try {
+            while (true) {
+                StringBuilder chunk = new StringBuilder();
+                try {
+                    List<ChangeFeed.Event> events = feed.awaitSince(last, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+                    if (events.isEmpty()) {
+                        chunk.append(": heartbeat\n\n");
+                    }
+                    for (ChangeFeed.Event event : events) {
+                        chunk.append("id: ").append(event.sequence()).append('\n')
+                                .append("event: ").append(event.change().name().toLowerCase()).append('\n')
+                                .append("data: ").append(gson.toJson(event)).append("\n\n");
+                        last = event.sequence();
+                    }
+                } catch (FeedTruncatedException e) {
+                    // Клиент отстал больше, чем помещается в кольцо: сообщаем и закрываем поток.
+                    os.write(("event: reset\ndata: " + gson.toJson(e.getMessage()) + "\n\n").getBytes(DEFAULT_CHARSET));
+                    return;
+                }
+                os.write(chunk.toString().getBytes(DEFAULT_CHARSET));
+                os.flush();
+            }
+        } catch (IOException | InterruptedException e) {
+            // Клиент отключился или сервер останавливается.
+        }
+    }
+
+    private static List<ChangeFeed.Event> await(ChangeFeed feed, long since, long wait) {
+        try {
+            return feed.awaitSince(since, wait, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return feed.readSince(since);
+        }
+    }
+
+    private static boolean isEventStream(HttpExchange exchange) {
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        return accept != null && accept.contains(EVENT_STREAM);
+    }
+}
@@ -0,0 +1,82 @@
+package controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+public enum ContentEncoding {
+    GZIP("gzip"), DEFLATE("deflate"), IDENTITY("identity");
+    private static final int BUFFER_SIZE = 8192;
+    private final String value;
+
+    ContentEncoding(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public OutputStream wrap(OutputStream out) throws IOException {
+        return switch (this) {
+            case GZIP -> new GZIPOutputStream(out, BUFFER_SIZE);
+            case DEFLATE -> new DeflaterOutputStream(out, new Deflater(), BUFFER_SIZE);
+            case IDENTITY -> out;
+        };
+    }
+
+    /*
+     Разбор Accept-Encoding: "gzip, deflate;q=0.5, br". Кодировки с q=0 запрещены, "*" относится только
+     к кодировкам, не названным явно (RFC 9110), при равном q предпочитается gzip. Если ни одна не подходит,
+     ответ отправляется без сжатия.
+     */
+    public static ContentEncoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return IDENTITY;
+        }
+        ContentEncoding[] candidates = {GZIP, DEFLATE};
+        double[] qualities = new double[candidates.length];
+        boolean[] listed = new boolean[candidates.length];
+        double wildcardQuality = 0;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String name = tokens[0].trim();
+            double quality = parseQuality(tokens);
+            if (name.equals("*")) {
+                wildcardQuality = quality;
+            }
+            for (int i = 0; i < candidates.length; i++) {
+                if (name.equalsIgnoreCase(candidates[i].value)) {
+                    qualities[i] = quality;
+                    listed[i] = true;
+                }
+            }
+        }
+        ContentEncoding best = IDENTITY;
+        double bestQuality = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            double quality = listed[i] ? qualities[i] : wildcardQuality;
+            if (quality > bestQuality) {
+                best = candidates[i];
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    private static double parseQuality(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            String parameter = tokens[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
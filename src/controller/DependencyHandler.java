@@ -0,0 +1,42 @@
+package controller;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import service.TaskManager;
+
+import static java.net.HttpURLConnection.HTTP_CREATED;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static server.BasePath.DEPENDENCIES;
+
+/*
+ GET /dependencies/{id} - id задач, после которых идет задача id.
+ POST /dependencies/{id}?dependsOn=N - задача id идет после задачи N, 406 если зависимость замыкает цикл.
+ Время начала задач при этом не проверяется. Менеджер без зависимостей отвечает 501.
+ DELETE /dependencies/{id}?dependsOn=N - снимает зависимость.
+ */
+public final class DependencyHandler extends BaseHandler {
+    public DependencyHandler(TaskManager taskManager, Gson gson) {
+        super(taskManager, gson);
+        route(HttpMethod.GET, DEPENDENCIES.getRoot() + ID, HTTP_OK, this::handleGetRequest);
+        route(HttpMethod.POST, DEPENDENCIES.getRoot() + ID, HTTP_CREATED, this::handlePostRequest);
+        route(HttpMethod.DELETE, DEPENDENCIES.getRoot() + ID, HTTP_OK, this::handleDeleteRequest);
+    }
+
+    private String handleGetRequest(HttpExchange exchange, int id) {
+        return gson.toJson(taskManager.getDependencies(id));
+    }
+
+    private String handlePostRequest(HttpExchange exchange, int id) {
+        taskManager.addDependency(id, getDependsOn(exchange));
+        return gson.toJson(taskManager.getDependencies(id));
+    }
+
+    private String handleDeleteRequest(HttpExchange exchange, int id) {
+        taskManager.removeDependency(id, getDependsOn(exchange));
+        return "";
+    }
+
+    private int getDependsOn(HttpExchange exchange) {
+        return Integer.parseInt(getQuery(exchange).get("dependsOn"));
+    }
+}
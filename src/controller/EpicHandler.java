@@ -4,69 +4,54 @@ import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import model.Epic;
 import model.SubTask;
+import model.TaskType;
 import service.TaskManager;
+import service.TaskView;
 
 import java.io.IOException;
 import java.util.List;
 
+import static adapter.TaskAdapterFactory.EPIC_LIST;
+import static adapter.TaskAdapterFactory.SUBTASK_LIST;
 import static java.net.HttpURLConnection.HTTP_CREATED;
-import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
 import static java.net.HttpURLConnection.HTTP_OK;
 import static server.BasePath.EPIC;
 import static server.BasePath.SUBTASK;
 
-public class EpicHandler extends BaseHandler {
+public final class EpicHandler extends BaseHandler {
+    public static final String ORDER = "/order";
 
     public EpicHandler(TaskManager taskManager, Gson gson) {
         super(taskManager, gson);
+        routeSnapshotRead(HttpMethod.GET, EPIC.getRoot(), HTTP_OK, this::handleGetAllRequest);
+        route(HttpMethod.GET, EPIC.getRoot() + ID, HTTP_OK, this::handleGetRequest);
+        route(HttpMethod.GET, EPIC.getRoot() + ID + SUBTASK.getRoot(), HTTP_OK, this::handleGetSubTasksRequest);
+        route(HttpMethod.GET, EPIC.getRoot() + ID + ORDER, HTTP_OK, this::handleGetOrderRequest);
+        route(HttpMethod.POST, EPIC.getRoot(), HTTP_CREATED, this::handlePostRequest);
+        route(HttpMethod.DELETE, EPIC.getRoot() + ID, HTTP_OK, this::handleDeleteRequest);
     }
 
-    @Override
-    String prepareResponse(HttpExchange exchange) throws IOException {
-        HttpMethod method = HttpMethod.valueOf(exchange.getRequestMethod());
-        String response = "";
-        int statusCode = HTTP_INTERNAL_ERROR;
-        List<String> path = getPath(exchange);
-        switch (method) {
-            case GET -> {
-                response = handleGetRequest(path);
-                statusCode = HTTP_OK;
-            }
-            case POST -> {
-                if (isValidBasePath(path, EPIC)) {
-                    response = handlePostRequest(exchange);
-                    statusCode = HTTP_CREATED;
-                }
-            }
-            case DELETE -> {
-                if (isValidIdPath(path, EPIC)) {
-                    handleDeleteRequest(path);
-                    statusCode = HTTP_OK;
-                }
-            }
-        }
-        exchange.sendResponseHeaders(statusCode, response.length());
-        return response;
+    private String handleGetAllRequest(HttpExchange exchange, int id) {
+        TaskView view = taskManager.getReadView();
+        return getCachedResponse(exchange, EPIC, view.getVersion(TaskType.EPIC),
+                () -> gson.toJson(gson.toJson(view.getEpics(), EPIC_LIST)));
     }
 
-    private String handleGetRequest(List<String> path) {
-        String result = "";
-        if (isValidBasePath(path, EPIC)) {
-            String jsonString = gson.toJson(taskManager.getEpics());
-            result = gson.toJson(jsonString);
-        } else if (isValidIdPath(path, EPIC)) {
-            int id = getId(path);
-            Epic epic = taskManager.getEpic(id);
-            result = gson.toJson(epic);
-        } else if (isValidSubTaskPath(path)) {
-            int id = getId(path);
-            List<SubTask> subtasksId = taskManager.getSubtasksOfEpic(id);
-            result = gson.toJson(subtasksId);
-        }
-        return result;
+    private String handleGetRequest(HttpExchange exchange, int id) {
+        return gson.toJson(taskManager.getEpic(id));
     }
 
-    private String handlePostRequest(HttpExchange exchange) throws IOException {
+    private String handleGetSubTasksRequest(HttpExchange exchange, int id) {
+        List<SubTask> subtasksId = taskManager.getSubtasksOfEpic(id);
+        return gson.toJson(subtasksId, SUBTASK_LIST);
+    }
+
+    // Подзадачи в порядке зависимостей: каждая идет после тех, от которых зависит.
+    private String handleGetOrderRequest(HttpExchange exchange, int id) {
+        return gson.toJson(taskManager.getSubtasksOfEpicInOrder(id), SUBTASK_LIST);
+    }
+
+    private String handlePostRequest(HttpExchange exchange, int id) throws IOException {
         String bodyRequest = new String(exchange.getRequestBody().readAllBytes(), DEFAULT_CHARSET);
         Epic epic = gson.fromJson(bodyRequest, Epic.class);
         int epicId = taskManager.createEpic(epic);
@@ -74,13 +59,8 @@ public class EpicHandler extends BaseHandler {
         return gson.toJson(epic);
     }
 
-    private void handleDeleteRequest(List<String> path) {
-        int id = getId(path);
+    private String handleDeleteRequest(HttpExchange exchange, int id) {
         taskManager.deleteEpic(id);
-    }
-
-    private boolean isValidSubTaskPath(List<String> path) {
-        return (path.size() == 3) && (path.getFirst().equals(EPIC.getValue())) &&
-                path.getLast().equals(SUBTASK.getValue());
+        return "";
     }
 }
@@ -2,34 +2,20 @@ package controller;
 
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
-import server.BasePath;
 import service.TaskManager;
 
-import java.io.IOException;
-import java.util.List;
-
-import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
+import static adapter.TaskAdapterFactory.TASK_LIST;
 import static java.net.HttpURLConnection.HTTP_OK;
+import static server.BasePath.HISTORY;
 
-public class HistoryHandler extends BaseHandler {
+public final class HistoryHandler extends BaseHandler {
     public HistoryHandler(TaskManager taskManager, Gson gson) {
         super(taskManager, gson);
+        route(HttpMethod.GET, HISTORY.getRoot(), HTTP_OK, this::handleGetRequest);
     }
 
-    @Override
-    String prepareResponse(HttpExchange exchange) throws IOException {
-        HttpMethod method = HttpMethod.valueOf(exchange.getRequestMethod());
-        String response = "";
-        int statusCode = HTTP_INTERNAL_ERROR;
-        List<String> path = getPath(exchange);
-        if (method == HttpMethod.GET) {
-            if (isValidBasePath(path, BasePath.HISTORY)) {
-                String jsonString = gson.toJson(taskManager.getHistory());
-                response = gson.toJson(jsonString);
-            }
-            statusCode = HTTP_OK;
-        }
-        exchange.sendResponseHeaders(statusCode, response.length());
-        return response;
+    private String handleGetRequest(HttpExchange exchange, int id) {
+        String jsonString = gson.toJson(taskManager.getHistory(), TASK_LIST);
+        return gson.toJson(jsonString);
     }
 }
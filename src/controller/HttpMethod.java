@@ -1,5 +1,15 @@
 package controller;
 
 public enum HttpMethod {
-    GET, POST, DELETE
+    GET, POST, DELETE;
+
+    // В отличие от valueOf не бросает исключение и не создает его для неизвестного метода.
+    public static HttpMethod of(String method) {
+        return switch (method) {
+            case "GET" -> GET;
+            case "POST" -> POST;
+            case "DELETE" -> DELETE;
+            default -> null;
+        };
+    }
 }
@@ -0,0 +1,32 @@
+package controller;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import server.BasePath;
+
+import java.io.IOException;
+
+public class MetricsFilter extends Filter {
+    private final RequestMetrics metrics;
+    private final BasePath base;
+
+    public MetricsFilter(RequestMetrics metrics, BasePath base) {
+        this.metrics = metrics;
+        this.base = base;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            metrics.record(base, exchange.getRequestMethod(), exchange.getResponseCode(), System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Records request count and latency for " + base.getRoot();
+    }
+}
@@ -0,0 +1,33 @@
+package controller;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import metrics.OperationMetrics;
+import service.TaskManager;
+
+import static java.net.HttpURLConnection.HTTP_OK;
+import static server.BasePath.METRICS;
+
+public final class MetricsHandler extends BaseHandler {
+    private final RequestMetrics metrics;
+    private final OperationMetrics operationMetrics;
+
+    public MetricsHandler(TaskManager taskManager, Gson gson, RequestMetrics metrics,
+                          OperationMetrics operationMetrics) {
+        super(taskManager, gson);
+        this.metrics = metrics;
+        this.operationMetrics = operationMetrics;
+        // Метрики не читают менеджер, поэтому не ждут его блокировку.
+        routeUnlocked(HttpMethod.GET, METRICS.getRoot(), HTTP_OK, this::handleGetRequest);
+    }
+
+    @Override
+    protected String getContentType() {
+        return "text/plain; version=0.0.4; charset=" + DEFAULT_CHARSET;
+    }
+
+    private String handleGetRequest(HttpExchange exchange, int id) {
+        String response = metrics.scrape(getCompressionMetrics());
+        return operationMetrics.isEnabled() ? response + operationMetrics.scrape() : response;
+    }
+}
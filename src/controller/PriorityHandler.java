@@ -2,34 +2,44 @@ package controller;
 
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
-import server.BasePath;
+import model.TaskType;
 import service.TaskManager;
+import service.TaskView;
 
-import java.io.IOException;
-import java.util.List;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
 
-import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
+import static adapter.TaskAdapterFactory.TASK_LIST;
 import static java.net.HttpURLConnection.HTTP_OK;
+import static server.BasePath.PRIORITY;
+
+public final class PriorityHandler extends BaseHandler {
+    public static final String FREE = "/free";
+    private static final int DEFAULT_FREE_SLOTS = 10;
+    private static final int MAX_FREE_SLOTS = 100;
 
-public class PriorityHandler extends BaseHandler {
     public PriorityHandler(TaskManager taskManager, Gson gson) {
         super(taskManager, gson);
+        routeSnapshotRead(HttpMethod.GET, PRIORITY.getRoot(), HTTP_OK, this::handleGetRequest);
+        routeSnapshotRead(HttpMethod.GET, PRIORITY.getRoot() + FREE, HTTP_OK, this::handleGetFreeRequest);
+    }
+
+    // GET /prioritized/free?duration=<минуты>&from=&to=&limit= - самые ранние окна, куда помещается задача.
+    private String handleGetFreeRequest(HttpExchange exchange, int id) {
+        Map<String, String> query = getQuery(exchange);
+        Duration duration = Duration.ofMinutes(Long.parseLong(query.get("duration")));
+        LocalDateTime from = query.containsKey("from") ? LocalDateTime.parse(query.get("from")) : LocalDateTime.now();
+        LocalDateTime to = query.containsKey("to") ? LocalDateTime.parse(query.get("to")) : null;
+        int limit = Math.min(Integer.parseInt(query.getOrDefault("limit", String.valueOf(DEFAULT_FREE_SLOTS))),
+                MAX_FREE_SLOTS);
+        return gson.toJson(taskManager.findFreeSlots(duration, from, to, limit));
     }
 
-    @Override
-    String prepareResponse(HttpExchange exchange) throws IOException {
-        HttpMethod method = HttpMethod.valueOf(exchange.getRequestMethod());
-        String response = "";
-        int statusCode = HTTP_INTERNAL_ERROR;
-        List<String> path = getPath(exchange);
-        if (method == HttpMethod.GET) {
-            if (isValidBasePath(path, BasePath.PRIORITY)) {
-                String jsonString = gson.toJson(taskManager.getPrioritizedTasks());
-                response = gson.toJson(jsonString);
-            }
-            statusCode = HTTP_OK;
-        }
-        exchange.sendResponseHeaders(statusCode, response.length());
-        return response;
+    private String handleGetRequest(HttpExchange exchange, int id) {
+        TaskView view = taskManager.getReadView();
+        long version = Math.max(view.getVersion(TaskType.TASK), view.getVersion(TaskType.SUBTASK));
+        return getCachedResponse(exchange, PRIORITY, version,
+                () -> gson.toJson(gson.toJson(view.getPrioritizedTasks(), TASK_LIST)));
     }
 }
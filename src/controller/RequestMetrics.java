@@ -0,0 +1,84 @@
+package controller;
+
+import metrics.LatencyHistogram;
+import server.BasePath;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class RequestMetrics {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::base)
+            .thenComparing(Key::method)
+            .thenComparingInt(Key::status);
+    private final Map<Key, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    private record Key(BasePath base, String method, int status) {
+    }
+
+    public void record(BasePath base, String method, int status, long nanos) {
+        histograms.computeIfAbsent(new Key(base, normalizeMethod(method), status), key -> new LatencyHistogram())
+                .record(nanos);
+    }
+
+    public long getCount(BasePath base, HttpMethod method, int status) {
+        LatencyHistogram histogram = histograms.get(new Key(base, method.name(), status));
+        return histogram == null ? 0 : histogram.getCount();
+    }
+
+    // Текстовый формат экспозиции Prometheus.
+    public String scrape(CompressionMetrics compression) {
+        StringBuilder text = new StringBuilder();
+        text.append("# TYPE http_requests_total counter\n");
+        histograms.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(KEY_ORDER))
+                .forEach(entry -> text.append("http_requests_total").append(labels(entry.getKey(), null))
+                        .append(' ').append(entry.getValue().getCount()).append('\n'));
+        text.append("# TYPE http_request_duration_seconds summary\n");
+        histograms.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(KEY_ORDER))
+                .forEach(entry -> {
+                    Key key = entry.getKey();
+                    LatencyHistogram histogram = entry.getValue();
+                    for (double quantile : QUANTILES) {
+                        text.append("http_request_duration_seconds").append(labels(key, quantile)).append(' ')
+                                .append(seconds(histogram.getValueAtPercentile(quantile * 100))).append('\n');
+                    }
+                    text.append("http_request_duration_seconds_sum").append(labels(key, null)).append(' ')
+                            .append(seconds(histogram.getSum())).append('\n');
+                    text.append("http_request_duration_seconds_count").append(labels(key, null)).append(' ')
+                            .append(histogram.getCount()).append('\n');
+                });
+        text.append("# TYPE http_compressed_responses_total counter\n")
+                .append("http_compressed_responses_total ").append(compression.getCompressedResponses()).append('\n')
+                .append("# TYPE http_compression_input_bytes_total counter\n")
+                .append("http_compression_input_bytes_total ").append(compression.getUncompressedBytes()).append('\n')
+                .append("# TYPE http_compression_output_bytes_total counter\n")
+                .append("http_compression_output_bytes_total ").append(compression.getCompressedBytes()).append('\n')
+                .append("# TYPE http_compression_cpu_seconds_total counter\n")
+                .append("http_compression_cpu_seconds_total ").append(seconds(compression.getCpuNanos())).append('\n');
+        return text.toString();
+    }
+
+    private static String labels(Key key, Double quantile) {
+        String labels = "{path=\"" + key.base().getRoot() + "\",method=\"" + key.method() + "\",status=\""
+                + key.status() + "\"";
+        return quantile == null ? labels + "}" : labels + ",quantile=\"" + quantile + "\"}";
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / NANOS_PER_SECOND);
+    }
+
+    // Произвольные методы из запроса не должны раздувать число серий.
+    private static String normalizeMethod(String method) {
+        for (HttpMethod known : HttpMethod.values()) {
+            if (known.name().equals(method)) {
+                return method;
+            }
+        }
+        return "OTHER";
+    }
+}
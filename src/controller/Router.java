@@ -0,0 +1,132 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ Маршрутизатор: дерево по сегментам пути, построенное один раз при создании обработчика.
+ Сегмент шаблона "{id}" принимает целое число, которое разбирается прямо из строки пути.
+ Сопоставление идет по исходной строке без split, промежуточных списков и подстрок.
+ */
+public class Router<T> {
+    private static final String ID = "{id}";
+    private final Node<T> root = new Node<>();
+
+    public record Match<T>(T endpoint, int id) {
+    }
+
+    private static final class Node<T> {
+        private String[] literals = new String[0];
+        private final List<Node<T>> literalChildren = new ArrayList<>();
+        private Node<T> idChild;
+        private Map<HttpMethod, T> endpoints;
+    }
+
+    public Router<T> route(HttpMethod method, String pattern, T endpoint) {
+        Node<T> node = root;
+        for (String segment : pattern.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            node = segment.equals(ID) ? idChild(node) : literalChild(node, segment);
+        }
+        if (node.endpoints == null) {
+            node.endpoints = new EnumMap<>(HttpMethod.class);
+        }
+        if (node.endpoints.putIfAbsent(method, endpoint) != null) {
+            throw new IllegalArgumentException("Route " + method + " " + pattern + " is already registered");
+        }
+        return this;
+    }
+
+    // null, если путь или метод не зарегистрированы.
+    public Match<T> match(HttpMethod method, String path) {
+        Node<T> node = root;
+        int id = 0;
+        int length = path.length();
+        int position = 0;
+        while (position < length) {
+            if (path.charAt(position) == '/') {
+                position++;
+                continue;
+            }
+            int end = path.indexOf('/', position);
+            if (end < 0) {
+                end = length;
+            }
+            Node<T> next = findLiteral(node, path, position, end);
+            if (next == null && node.idChild != null && isInteger(path, position, end)) {
+                id = Integer.parseInt(path, position, end, 10);
+                next = node.idChild;
+            }
+            if (next == null) {
+                return null;
+            }
+            node = next;
+            position = end;
+        }
+        if (node.endpoints == null || method == null) {
+            return null;
+        }
+        T endpoint = node.endpoints.get(method);
+        return endpoint == null ? null : new Match<>(endpoint, id);
+    }
+
+    public boolean isPathKnown(String path) {
+        for (HttpMethod method : HttpMethod.values()) {
+            if (match(method, path) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> Node<T> findLiteral(Node<T> node, String path, int start, int end) {
+        String[] literals = node.literals;
+        for (int i = 0; i < literals.length; i++) {
+            String literal = literals[i];
+            if (literal.length() == end - start && path.regionMatches(start, literal, 0, literal.length())) {
+                return node.literalChildren.get(i);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isInteger(String path, int start, int end) {
+        int digitsStart = start < end && path.charAt(start) == '-' ? start + 1 : start;
+        // Не больше 10 цифр, переполнение int отсекает Integer.parseInt.
+        if (digitsStart == end || end - digitsStart > 10) {
+            return false;
+        }
+        for (int i = digitsStart; i < end; i++) {
+            char c = path.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <T> Node<T> idChild(Node<T> node) {
+        if (node.idChild == null) {
+            node.idChild = new Node<>();
+        }
+        return node.idChild;
+    }
+
+    private static <T> Node<T> literalChild(Node<T> node, String segment) {
+        for (int i = 0; i < node.literals.length; i++) {
+            if (node.literals[i].equals(segment)) {
+                return node.literalChildren.get(i);
+            }
+        }
+        Node<T> child = new Node<>();
+        node.literals = Arrays.copyOf(node.literals, node.literals.length + 1);
+        node.literals[node.literals.length - 1] = segment;
+        node.literalChildren.add(child);
+        return child;
+    }
+}
@@ -0,0 +1,32 @@
+package controller;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import service.TaskManager;
+
+import java.util.Map;
+
+import static adapter.TaskAdapterFactory.TASK_LIST;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static server.BasePath.SEARCH;
+
+/*
+ GET /search?q=<запрос>&limit= - задачи, подзадачи и эпики, в названии или описании которых есть все слова
+ запроса, от лучших совпадений к худшим. Последнее слово ищется как начало слова, если после него нет пробела.
+ */
+public final class SearchHandler extends BaseHandler {
+    private static final int DEFAULT_RESULTS = 20;
+    private static final int MAX_RESULTS = 100;
+
+    public SearchHandler(TaskManager taskManager, Gson gson) {
+        super(taskManager, gson);
+        routeSnapshotRead(HttpMethod.GET, SEARCH.getRoot(), HTTP_OK, this::handleGetRequest);
+    }
+
+    private String handleGetRequest(HttpExchange exchange, int id) {
+        Map<String, String> query = getQuery(exchange);
+        int limit = Math.max(0, Math.min(Integer.parseInt(query.getOrDefault("limit",
+                String.valueOf(DEFAULT_RESULTS))), MAX_RESULTS));
+        return gson.toJson(taskManager.search(query.get("q"), limit), TASK_LIST);
+    }
+}
@@ -4,55 +4,32 @@ import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import exception.NotFoundException;
 import model.SubTask;
+import model.TaskType;
 import service.TaskManager;
+import service.TaskView;
 
 import java.io.IOException;
-import java.util.List;
 
+import static adapter.TaskAdapterFactory.SUBTASK_LIST;
 import static java.net.HttpURLConnection.HTTP_CREATED;
-import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
 import static java.net.HttpURLConnection.HTTP_OK;
 import static server.BasePath.SUBTASK;
 
-public class SubTaskHandler extends BaseHandler {
+public final class SubTaskHandler extends BaseHandler {
     public SubTaskHandler(TaskManager taskManager, Gson gson) {
         super(taskManager, gson);
+        routeSnapshotRead(HttpMethod.GET, SUBTASK.getRoot(), HTTP_OK, this::handleGetAllRequest);
+        route(HttpMethod.GET, SUBTASK.getRoot() + ID, HTTP_OK, this::handleGetRequest);
+        route(HttpMethod.POST, SUBTASK.getRoot(), HTTP_CREATED, this::handlePostRequest);
+        route(HttpMethod.DELETE, SUBTASK.getRoot() + ID, HTTP_OK, this::handleDeleteRequest);
     }
 
-    @Override
-    String prepareResponse(HttpExchange exchange) throws IOException {
-        HttpMethod method = HttpMethod.valueOf(exchange.getRequestMethod());
-        String response = "";
-        int statusCode = HTTP_INTERNAL_ERROR;
-        List<String> path = getPath(exchange);
-        switch (method) {
-            case GET -> {
-                response = handleGetRequest(path);
-                statusCode = HTTP_OK;
-            }
-            case POST -> {
-                if (isValidBasePath(path, SUBTASK)) {
-                    response = handlePostRequest(exchange);
-                    statusCode = HTTP_CREATED;
-                }
-            }
-            case DELETE -> {
-                if (isValidIdPath(path, SUBTASK)) {
-                    handleDeleteRequest(path);
-                    statusCode = HTTP_OK;
-                }
-            }
-        }
-        exchange.sendResponseHeaders(statusCode, response.length());
-        return response;
-    }
-
-    private void handleDeleteRequest(List<String> path) {
-        int id = getId(path);
+    private String handleDeleteRequest(HttpExchange exchange, int id) {
         taskManager.deleteSubTask(id);
+        return "";
     }
 
-    private String handlePostRequest(HttpExchange exchange) throws IOException {
+    private String handlePostRequest(HttpExchange exchange, int id) throws IOException {
         String bodyRequest = new String(exchange.getRequestBody().readAllBytes(), DEFAULT_CHARSET);
         SubTask subTask = gson.fromJson(bodyRequest, SubTask.class);
         try {
@@ -65,16 +42,13 @@ public class SubTaskHandler extends BaseHandler {
         return gson.toJson(subTask);
     }
 
-    private String handleGetRequest(List<String> path) {
-        String result = "";
-        if (isValidBasePath(path, SUBTASK)) {
-            String jsonString = gson.toJson(taskManager.getSubTasks());
-            result = gson.toJson(jsonString);
-        } else if (isValidIdPath(path, SUBTASK)) {
-            int id = getId(path);
-            SubTask subTask = taskManager.getSubTask(id);
-            result = gson.toJson(subTask);
-        }
-        return result;
+    private String handleGetAllRequest(HttpExchange exchange, int id) {
+        TaskView view = taskManager.getReadView();
+        return getCachedResponse(exchange, SUBTASK, view.getVersion(TaskType.SUBTASK),
+                () -> gson.toJson(gson.toJson(view.getSubTasks(), SUBTASK_LIST)));
+    }
+
+    private String handleGetRequest(HttpExchange exchange, int id) {
+        return gson.toJson(taskManager.getSubTask(id));
     }
 }
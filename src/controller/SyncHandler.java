@@ -0,0 +1,24 @@
+package controller;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import service.TaskManager;
+
+import static java.net.HttpURLConnection.HTTP_OK;
+import static server.BasePath.SYNC;
+
+/*
+ GET /sync?since=N возвращает задачи, подзадачи и эпики, измененные после версии N, и удаленные после нее id.
+ Клиент сохраняет поле version ответа и передает его в since при следующей синхронизации.
+ */
+public final class SyncHandler extends BaseHandler {
+    public SyncHandler(TaskManager taskManager, Gson gson) {
+        super(taskManager, gson);
+        route(HttpMethod.GET, SYNC.getRoot(), HTTP_OK, this::handleGetRequest);
+    }
+
+    private String handleGetRequest(HttpExchange exchange, int id) {
+        long since = Long.parseLong(getQuery(exchange).getOrDefault("since", "0"));
+        return gson.toJson(taskManager.getChangesSince(since));
+    }
+}
@@ -4,55 +4,32 @@ import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import exception.NotFoundException;
 import model.Task;
+import model.TaskType;
 import service.TaskManager;
+import service.TaskView;
 
 import java.io.IOException;
-import java.util.List;
 
+import static adapter.TaskAdapterFactory.TASK_LIST;
 import static java.net.HttpURLConnection.HTTP_CREATED;
-import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
 import static java.net.HttpURLConnection.HTTP_OK;
 import static server.BasePath.TASK;
 
-public class TaskHandler extends BaseHandler {
+public final class TaskHandler extends BaseHandler {
     public TaskHandler(TaskManager taskManager, Gson gson) {
         super(taskManager, gson);
+        routeSnapshotRead(HttpMethod.GET, TASK.getRoot(), HTTP_OK, this::handleGetAllRequest);
+        route(HttpMethod.GET, TASK.getRoot() + ID, HTTP_OK, this::handleGetRequest);
+        route(HttpMethod.POST, TASK.getRoot(), HTTP_CREATED, this::handlePostRequest);
+        route(HttpMethod.DELETE, TASK.getRoot() + ID, HTTP_OK, this::handleDeleteRequest);
     }
 
-    @Override
-    String prepareResponse(HttpExchange exchange) throws IOException {
-        HttpMethod method = HttpMethod.valueOf(exchange.getRequestMethod());
-        String response = "";
-        int statusCode = HTTP_INTERNAL_ERROR;
-        List<String> path = getPath(exchange);
-        switch (method) {
-            case GET -> {
-                response = handleGetRequest(path);
-                statusCode = HTTP_OK;
-            }
-            case POST -> {
-                if (isValidBasePath(path, TASK)) {
-                    response = handlePostRequest(exchange);
-                    statusCode = HTTP_CREATED;
-                }
-            }
-            case DELETE -> {
-                if (isValidIdPath(path, TASK)) {
-                    handleDeleteRequest(path);
-                    statusCode = HTTP_OK;
-                }
-            }
-        }
-        exchange.sendResponseHeaders(statusCode, response.length());
-        return response;
-    }
-
-    private void handleDeleteRequest(List<String> path) {
-        int id = getId(path);
+    private String handleDeleteRequest(HttpExchange exchange, int id) {
         taskManager.deleteTask(id);
+        return "";
     }
 
-    private String handlePostRequest(HttpExchange exchange) throws IOException {
+    private String handlePostRequest(HttpExchange exchange, int id) throws IOException {
         String bodyRequest = new String(exchange.getRequestBody().readAllBytes(), DEFAULT_CHARSET);
         Task task = gson.fromJson(bodyRequest, Task.class);
         try {
@@ -65,16 +42,13 @@ public class TaskHandler extends BaseHandler {
         return gson.toJson(task);
     }
 
-    private String handleGetRequest(List<String> path) {
-        String result = "";
-        if (isValidBasePath(path, TASK)) {
-            String jsonString = gson.toJson(taskManager.getTasks());
-            result = gson.toJson(jsonString);
-        } else if (isValidIdPath(path, TASK)) {
-            int id = getId(path);
-            Task task = taskManager.getTask(id);
-            result = gson.toJson(task);
-        }
-        return result;
+    private String handleGetAllRequest(HttpExchange exchange, int id) {
+        TaskView view = taskManager.getReadView();
+        return getCachedResponse(exchange, TASK, view.getVersion(TaskType.TASK),
+                () -> gson.toJson(gson.toJson(view.getTasks(), TASK_LIST)));
+    }
+
+    private String handleGetRequest(HttpExchange exchange, int id) {
+        return gson.toJson(taskManager.getTask(id));
     }
 }
@@ -3,7 +3,17 @@ package converter;
 import model.Task;
 
 public interface Converter<T extends Task> {
-    String toString(T task);
+    void write(T task, CsvWriter writer);
 
-    T fromString(String line);
+    T read(CsvReader reader);
+
+    default String toString(T task) {
+        CsvWriter writer = new CsvWriter();
+        write(task, writer);
+        return writer.toString();
+    }
+
+    default T fromString(String line) {
+        return read(new CsvReader().reset(line));
+    }
 }
@@ -0,0 +1,79 @@
+package converter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/*
+ Читает строки как BufferedReader, но запоминает, каким переводом строки закончилась последняя из них:
+ поле в кавычках, продолженное на следующей строке файла, должно получить исходный перевод строки, а не "\n".
+ */
+public class CsvLineReader implements Closeable {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private String terminator = "";
+
+    public CsvLineReader(Reader in) {
+        this.in = in;
+    }
+
+    // Строка без перевода строки или null в конце файла, как у BufferedReader.readLine.
+    public String readLine() throws IOException {
+        StringBuilder line = null;
+        while (true) {
+            if (position >= limit && !fill()) {
+                terminator = "";
+                return line == null ? null : line.toString();
+            }
+            int start = position;
+            while (position < limit) {
+                char c = buffer[position];
+                if (c == '\n' || c == '\r') {
+                    String text = line == null
+                            ? new String(buffer, start, position - start)
+                            : line.append(buffer, start, position - start).toString();
+                    position++;
+                    terminator = c == '\r' && skipLineFeed() ? "\r\n" : String.valueOf(c);
+                    return text;
+                }
+                position++;
+            }
+            if (line == null) {
+                line = new StringBuilder(position - start + 16);
+            }
+            line.append(buffer, start, position - start);
+        }
+    }
+
+    // Перевод строки, которым закончилась последняя прочитанная строка; пустой, если она была последней в файле.
+    public String getTerminator() {
+        return terminator;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private boolean skipLineFeed() throws IOException {
+        if (position >= limit && !fill()) {
+            return false;
+        }
+        if (buffer[position] != '\n') {
+            return false;
+        }
+        position++;
+        return true;
+    }
+
+    private boolean fill() throws IOException {
+        int read = in.read(buffer, 0, buffer.length);
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+}
@@ -0,0 +1,139 @@
+package converter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+public class CsvReader {
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private static final String NULL = "null";
+
+    private final StringBuilder unquoted = new StringBuilder();
+    private CharSequence line;
+    private int position;
+
+    public CsvReader reset(CharSequence line) {
+        this.line = line;
+        this.position = 0;
+        return this;
+    }
+
+    public boolean hasNext() {
+        return position <= line.length();
+    }
+
+    public void skip() {
+        if (line.length() > position && line.charAt(position) == QUOTE) {
+            nextString();
+        } else {
+            position = fieldEnd() + 1;
+        }
+    }
+
+    public int nextInt() {
+        int end = fieldEnd();
+        int value = Integer.parseInt(line, position, end, 10);
+        position = end + 1;
+        return value;
+    }
+
+    public <E extends Enum<E>> E nextEnum(E[] values) {
+        int end = fieldEnd();
+        for (E value : values) {
+            if (fieldEquals(end, value.name())) {
+                position = end + 1;
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Unknown value " + line.subSequence(position, end));
+    }
+
+    public String nextString() {
+        if (position >= line.length() || line.charAt(position) != QUOTE) {
+            int end = fieldEnd();
+            String value = line.subSequence(position, end).toString();
+            position = end + 1;
+            return value;
+        }
+        unquoted.setLength(0);
+        int current = position + 1;
+        while (true) {
+            if (current >= line.length()) {
+                throw new IllegalArgumentException("Unterminated quoted field in " + line);
+            }
+            char c = line.charAt(current++);
+            if (c != QUOTE) {
+                unquoted.append(c);
+            } else if (current < line.length() && line.charAt(current) == QUOTE) {
+                unquoted.append(QUOTE);
+                current++;
+            } else {
+                break;
+            }
+        }
+        position = current + 1;
+        return unquoted.toString();
+    }
+
+    public Duration nextDuration() {
+        int end = fieldEnd();
+        Duration value = fieldEquals(end, NULL) ? null : Duration.parse(line.subSequence(position, end));
+        position = end + 1;
+        return value;
+    }
+
+    public LocalDateTime nextDateTime() {
+        int end = fieldEnd();
+        LocalDateTime value = fieldEquals(end, NULL) ? null : LocalDateTime.parse(line.subSequence(position, end));
+        position = end + 1;
+        return value;
+    }
+
+    /*
+     Квотированное поле может содержать перевод строки, тогда запись продолжается на следующей строке файла.
+     По RFC 4180 кавычка открывает поле только в его начале: в поле без кавычек она обычный символ, как в файлах,
+     записанных до появления экранирования. open - было ли поле в кавычках открыто в начале строки.
+     */
+    public static boolean isQuoteOpen(CharSequence text, boolean open) {
+        boolean fieldStart = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (open) {
+                if (c == QUOTE) {
+                    if (i + 1 < text.length() && text.charAt(i + 1) == QUOTE) {
+                        i++;
+                    } else {
+                        open = false;
+                        fieldStart = false;
+                    }
+                }
+            } else if (c == SEPARATOR) {
+                fieldStart = true;
+            } else {
+                open = fieldStart && c == QUOTE;
+                fieldStart = false;
+            }
+        }
+        return open;
+    }
+
+    private int fieldEnd() {
+        int end = position;
+        while (end < line.length() && line.charAt(end) != SEPARATOR) {
+            end++;
+        }
+        return end;
+    }
+
+    private boolean fieldEquals(int end, String value) {
+        if (end - position != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (line.charAt(position + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
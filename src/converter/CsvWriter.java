@@ -0,0 +1,77 @@
+package converter;
+
+public class CsvWriter {
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+
+    private final StringBuilder row = new StringBuilder();
+    private boolean firstField = true;
+
+    public CsvWriter reset() {
+        row.setLength(0);
+        firstField = true;
+        return this;
+    }
+
+    public CsvWriter append(int value) {
+        separate();
+        row.append(value);
+        return this;
+    }
+
+    public CsvWriter append(Enum<?> value) {
+        separate();
+        row.append(value == null ? null : value.name());
+        return this;
+    }
+
+    public CsvWriter append(Object value) {
+        separate();
+        row.append(value);
+        return this;
+    }
+
+    public CsvWriter append(String value) {
+        separate();
+        if (value == null || !needsQuotes(value)) {
+            row.append(value);
+            return this;
+        }
+        row.append(QUOTE);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == QUOTE) {
+                row.append(QUOTE);
+            }
+            row.append(c);
+        }
+        row.append(QUOTE);
+        return this;
+    }
+
+    public CharSequence row() {
+        return row;
+    }
+
+    @Override
+    public String toString() {
+        return row.toString();
+    }
+
+    private void separate() {
+        if (!firstField) {
+            row.append(SEPARATOR);
+        }
+        firstField = false;
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == SEPARATOR || c == QUOTE || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
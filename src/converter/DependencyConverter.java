@@ -0,0 +1,25 @@
+package converter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Зависимости в файле - одна строка пар "dependsOn,taskId" подряд.
+public class DependencyConverter {
+
+    public static String toString(List<int[]> edges) {
+        CsvWriter writer = new CsvWriter();
+        edges.forEach(edge -> writer.append(edge[0]).append(edge[1]));
+        return writer.toString();
+    }
+
+    public static List<int[]> fromString(String text) {
+        List<int[]> edges = new ArrayList<>();
+        if (text != null && !text.isEmpty()) {
+            CsvReader reader = new CsvReader().reset(text);
+            while (reader.hasNext()) {
+                edges.add(new int[]{reader.nextInt(), reader.nextInt()});
+            }
+        }
+        return edges;
+    }
+}
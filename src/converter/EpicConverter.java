@@ -4,27 +4,26 @@ import model.Epic;
 import model.TaskStatus;
 
 public class EpicConverter implements Converter<Epic> {
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
 
     @Override
-    public String toString(Epic epic) {
-        return String.format("%s,%s,%s,%s,%s,%s,%s",
-                epic.getId(),
-                epic.getTaskType(),
-                epic.getName(),
-                epic.getStatus(),
-                epic.getDescription(),
-                epic.getDuration(),
-                epic.getStartTime()
-        );
+    public void write(Epic epic, CsvWriter writer) {
+        writer.append(epic.getId())
+                .append(epic.getTaskType())
+                .append(epic.getName())
+                .append(epic.getStatus())
+                .append(epic.getDescription())
+                .append(epic.getDuration())
+                .append(epic.getStartTime());
     }
 
     @Override
-    public Epic fromString(String line) {
-        String[] columns = line.split(",");
-        int id = Integer.parseInt(columns[0]);
-        String name = columns[2];
-        TaskStatus status = TaskStatus.valueOf(columns[3]);
-        String description = columns[4];
+    public Epic read(CsvReader reader) {
+        int id = reader.nextInt();
+        reader.skip();
+        String name = reader.nextString();
+        TaskStatus status = reader.nextEnum(STATUSES);
+        String description = reader.nextString();
         return new Epic(name, description, id, status);
     }
 }
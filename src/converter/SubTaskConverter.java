@@ -7,32 +7,30 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 
 public class SubTaskConverter implements Converter<SubTask> {
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
 
     @Override
-    public String toString(SubTask subTask) {
-        return String.format("%s,%s,%s,%s,%s,%s,%s,%s",
-                subTask.getId(),
-                subTask.getTaskType(),
-                subTask.getName(),
-                subTask.getStatus(),
-                subTask.getDescription(),
-                subTask.getEpicId(),
-                subTask.getDuration(),
-                subTask.getStartTime()
-        );
+    public void write(SubTask subTask, CsvWriter writer) {
+        writer.append(subTask.getId())
+                .append(subTask.getTaskType())
+                .append(subTask.getName())
+                .append(subTask.getStatus())
+                .append(subTask.getDescription())
+                .append(subTask.getEpicId())
+                .append(subTask.getDuration())
+                .append(subTask.getStartTime());
     }
 
     @Override
-    public SubTask fromString(String line) {
-        String[] columns = line.split(",");
-        int id = Integer.parseInt(columns[0]);
-        String name = columns[2];
-        TaskStatus status = TaskStatus.valueOf(columns[3]);
-        String description = columns[4];
-        int epicId = Integer.parseInt(columns[5]);
-        Duration duration = Duration.parse(columns[6]);
-        LocalDateTime startTime = LocalDateTime.parse(columns[7]);
+    public SubTask read(CsvReader reader) {
+        int id = reader.nextInt();
+        reader.skip();
+        String name = reader.nextString();
+        TaskStatus status = reader.nextEnum(STATUSES);
+        String description = reader.nextString();
+        int epicId = reader.nextInt();
+        Duration duration = reader.nextDuration();
+        LocalDateTime startTime = reader.nextDateTime();
         return new SubTask(name, description, id, status, epicId, duration, startTime);
     }
 }
-
@@ -7,29 +7,28 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 
 public class TaskConverter implements Converter<Task> {
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
 
     @Override
-    public String toString(Task task) {
-        return String.format("%s,%s,%s,%s,%s,%s,%s",
-                task.getId(),
-                task.getTaskType(),
-                task.getName(),
-                task.getStatus(),
-                task.getDescription(),
-                task.getDuration(),
-                task.getStartTime()
-        );
+    public void write(Task task, CsvWriter writer) {
+        writer.append(task.getId())
+                .append(task.getTaskType())
+                .append(task.getName())
+                .append(task.getStatus())
+                .append(task.getDescription())
+                .append(task.getDuration())
+                .append(task.getStartTime());
     }
 
     @Override
-    public Task fromString(String line) {
-        String[] columns = line.split(",");
-        int id = Integer.parseInt(columns[0]);
-        String name = columns[2];
-        TaskStatus status = TaskStatus.valueOf(columns[3]);
-        String description = columns[4];
-        Duration duration = Duration.parse(columns[5]);
-        LocalDateTime startTime = LocalDateTime.parse(columns[6]);
+    public Task read(CsvReader reader) {
+        int id = reader.nextInt();
+        reader.skip();
+        String name = reader.nextString();
+        TaskStatus status = reader.nextEnum(STATUSES);
+        String description = reader.nextString();
+        Duration duration = reader.nextDuration();
+        LocalDateTime startTime = reader.nextDateTime();
         return new Task(name, description, status, id, duration, startTime);
     }
 }
@@ -0,0 +1,7 @@
+package exception;
+
+public class FeedTruncatedException extends RuntimeException {
+    public FeedTruncatedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package exception;
+
+public class NotSupportedException extends RuntimeException {
+    public NotSupportedException(String message) {
+        super(message);
+    }
+}
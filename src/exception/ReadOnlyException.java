@@ -0,0 +1,7 @@
+package exception;
+
+public class ReadOnlyException extends RuntimeException {
+    public ReadOnlyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,144 @@
+package metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ Реестр таймеров, счетчиков и показателей для внутренних операций менеджера.
+ Таймеры и счетчики создаются один раз и хранятся в полях, горячий путь не ищет их по имени.
+ У выключенного реестра (DISABLED) методы ничего не делают и даже не читают часы.
+ */
+public class OperationMetrics {
+    public static final OperationMetrics DISABLED = new OperationMetrics(false);
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private final boolean enabled;
+    private final Map<Series, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<Series, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<Series, Gauge> gauges = new ConcurrentHashMap<>();
+
+    private record Series(String name, String labels) {
+        String format(String extraLabel) {
+            if (labels.isEmpty() && extraLabel == null) {
+                return name;
+            }
+            String all = labels.isEmpty() ? extraLabel : extraLabel == null ? labels : labels + "," + extraLabel;
+            return name + "{" + all + "}";
+        }
+    }
+
+    public OperationMetrics() {
+        this(true);
+    }
+
+    private OperationMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Timer timer(String name, String labels) {
+        return timers.computeIfAbsent(new Series(name, labels), series -> new Timer());
+    }
+
+    public Counter counter(String name, String labels) {
+        return counters.computeIfAbsent(new Series(name, labels), series -> new Counter());
+    }
+
+    public Gauge gauge(String name, String labels) {
+        return gauges.computeIfAbsent(new Series(name, labels), series -> new Gauge());
+    }
+
+    // Текстовый формат экспозиции Prometheus, серии отсортированы по имени.
+    public String scrape() {
+        StringBuilder text = new StringBuilder();
+        new TreeMap<>(group(timers)).forEach((name, series) -> {
+            text.append("# TYPE ").append(name).append(" summary\n");
+            series.forEach((key, timer) -> {
+                LatencyHistogram histogram = timer.histogram;
+                for (double quantile : QUANTILES) {
+                    text.append(key.format("quantile=\"" + quantile + "\"")).append(' ')
+                            .append(histogram.getValueAtPercentile(quantile * 100) / NANOS_PER_SECOND).append('\n');
+                }
+                text.append(new Series(name + "_sum", key.labels()).format(null)).append(' ')
+                        .append(histogram.getSum() / NANOS_PER_SECOND).append('\n');
+                text.append(new Series(name + "_count", key.labels()).format(null)).append(' ')
+                        .append(histogram.getCount()).append('\n');
+            });
+        });
+        new TreeMap<>(group(counters)).forEach((name, series) -> {
+            text.append("# TYPE ").append(name).append(" counter\n");
+            series.forEach((key, counter) -> text.append(key.format(null)).append(' ')
+                    .append(counter.get()).append('\n'));
+        });
+        new TreeMap<>(group(gauges)).forEach((name, series) -> {
+            text.append("# TYPE ").append(name).append(" gauge\n");
+            series.forEach((key, gauge) -> text.append(key.format(null)).append(' ')
+                    .append(gauge.get()).append('\n'));
+        });
+        return text.toString();
+    }
+
+    private static <T> Map<String, Map<Series, T>> group(Map<Series, T> metrics) {
+        Map<String, Map<Series, T>> byName = new TreeMap<>();
+        metrics.forEach((series, metric) -> byName
+                .computeIfAbsent(series.name(), name -> new TreeMap<>((first, second) ->
+                        first.labels().compareTo(second.labels())))
+                .put(series, metric));
+        return byName;
+    }
+
+    public final class Timer {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        public long start() {
+            return enabled ? System.nanoTime() : 0;
+        }
+
+        public long stop(long start) {
+            if (!enabled) {
+                return 0;
+            }
+            long elapsed = System.nanoTime() - start;
+            histogram.record(elapsed);
+            return elapsed;
+        }
+
+        public long getCount() {
+            return histogram.getCount();
+        }
+    }
+
+    public final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void add(long amount) {
+            if (enabled) {
+                value.add(amount);
+            }
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    public final class Gauge {
+        private final AtomicLong bits = new AtomicLong(Double.doubleToLongBits(0));
+
+        public void set(double value) {
+            if (enabled) {
+                bits.set(Double.doubleToLongBits(value));
+            }
+        }
+
+        public double get() {
+            return Double.longBitsToDouble(bits.get());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package model;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+/*
+ Загрузка одного дня: сколько задач идут в этот день и сколько времени они в нем занимают. Задача, которая
+ переходит через полночь, учитывается в обоих днях, каждый получает свою часть ее длительности.
+ */
+public record CalendarDay(LocalDate date, int countOfTasks, Duration scheduled) {
+}
@@ -0,0 +1,7 @@
+package model;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -8,6 +8,8 @@ import java.util.List;
 public class Epic extends Task {
 
     protected ArrayList<Integer> subTaskIds;
+    // Самая длинная цепочка зависимых подзадач эпика, null у эпика без подзадач.
+    protected Duration criticalPath;
 
     public Epic(String name, String description, int id) {
         super(name, description, TaskStatus.NEW, id, Duration.ZERO, null);
@@ -19,6 +21,15 @@ public class Epic extends Task {
         subTaskIds = new ArrayList<>();
     }
 
+    // Копия эпика со своим списком подзадач.
+    public Epic(Epic epic) {
+        super(epic.name, epic.description, epic.status, epic.id, epic.getDuration(), epic.getStartTime());
+        endSecond = epic.endSecond;
+        endNano = epic.endNano;
+        subTaskIds = new ArrayList<>(epic.subTaskIds);
+        criticalPath = epic.criticalPath;
+    }
+
     public void addSubTaskId(Integer subTaskId) {
         subTaskIds.add(subTaskId);
     }
@@ -42,16 +53,24 @@ public class Epic extends Task {
 
     @Override
     public void setDuration(Duration duration) {
-        this.duration = duration;
+        storeDuration(duration);
     }
 
     @Override
     public void setStartTime(LocalDateTime startTime) {
-        this.startTime = startTime;
+        storeStartTime(startTime);
     }
 
     public void setEndTime(LocalDateTime time) {
-        this.endTime = time;
+        storeEndTime(time);
+    }
+
+    public Duration getCriticalPath() {
+        return criticalPath;
+    }
+
+    public void setCriticalPath(Duration criticalPath) {
+        this.criticalPath = criticalPath;
     }
 
     @Override
@@ -63,9 +82,10 @@ public class Epic extends Task {
                 ", id=" + id +
                 ", type=" + getTaskType() +
                 ", subTasksId=" + subTaskIds +
-                ", duration=" + duration +
-                ", startTime=" + startTime +
+                ", duration=" + getDuration() +
+                ", startTime=" + getStartTime() +
                 ", endTime=" + getEndTime() +
+                ", criticalPath=" + criticalPath +
                 '}';
     }
 }
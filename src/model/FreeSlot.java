@@ -0,0 +1,11 @@
+package model;
+
+import java.time.LocalDateTime;
+
+/*
+ Свободное окно в расписании. Задача помещается в него, если начинается не раньше start и заканчивается
+ не позже end. Концы окна не совпадают с соседними задачами: касание по времени тоже считается пересечением.
+ У последнего окна без верхней границы end равен null.
+ */
+public record FreeSlot(LocalDateTime start, LocalDateTime end) {
+}
@@ -36,9 +36,9 @@ public class SubTask extends Task {
                 ", id=" + id +
                 ", type=" + getTaskType() +
                 ", epicId=" + epicId +
-                ", duration=" + duration +
-                ", startTime=" + startTime +
-                ", endTime=" + endTime +
+                ", duration=" + getDuration() +
+                ", startTime=" + getStartTime() +
+                ", endTime=" + getEndTime() +
                 '}';
     }
 
@@ -2,37 +2,31 @@ package model;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.Objects;
-import java.util.Optional;
 
 public class Task {
+    // Время хранится как секунды эпохи и наносекунды на шкале UTC, LocalDateTime и Duration собираются по запросу.
+    public static final long NO_TIME = Long.MIN_VALUE;
+    private static final int NANOS_PER_SECOND = 1_000_000_000;
 
     protected String name;
     protected String description;
     protected TaskStatus status;
     protected int id;
-    protected Duration duration;
-    protected LocalDateTime startTime;
-    protected LocalDateTime endTime;
+    protected long durationSecond;
+    protected int durationNano;
+    protected long startSecond;
+    protected int startNano;
+    protected long endSecond;
+    protected int endNano;
 
     public Task(String name, String description, int id) {
-        this.name = name;
-        this.description = description;
-        this.status = TaskStatus.NEW;
-        this.id = id;
-        this.duration = Duration.ZERO;
-        this.startTime = LocalDateTime.now();
-        this.endTime = this.startTime.plus(this.duration);
+        this(name, description, TaskStatus.NEW, id, Duration.ZERO, LocalDateTime.now());
     }
 
     public Task(String name, String description, int id, TaskStatus status) {
-        this.name = name;
-        this.description = description;
-        this.id = id;
-        this.status = status;
-        this.duration = Duration.ZERO;
-        this.startTime = LocalDateTime.now();
-        this.endTime = this.startTime.plus(this.duration);
+        this(name, description, status, id, Duration.ZERO, LocalDateTime.now());
     }
 
     public Task(String name, String description, TaskStatus status, int id, Duration duration,
@@ -41,11 +35,9 @@ public class Task {
         this.description = description;
         this.status = status;
         this.id = id;
-        this.duration = duration;
-        this.startTime = startTime;
-        this.endTime = Optional.ofNullable(startTime)
-                .map(time -> time.plus(duration))
-                .orElse(null);
+        storeDuration(duration);
+        storeStartTime(startTime);
+        recalculateEndTime();
     }
 
     public TaskType getTaskType() {
@@ -85,29 +77,104 @@ public class Task {
     }
 
     public Duration getDuration() {
-        return duration;
+        if (durationSecond == NO_TIME) {
+            return null;
+        }
+        return Duration.ofSeconds(durationSecond, durationNano);
     }
 
     public void setDuration(Duration duration) {
-        this.duration = duration;
-        endTime = Optional.ofNullable(startTime)
-                .map(time -> time.plus(duration))
-                .orElse(null);
+        storeDuration(duration);
+        recalculateEndTime();
     }
 
     public LocalDateTime getStartTime() {
-        return startTime;
+        return toLocalDateTime(startSecond, startNano);
     }
 
     public void setStartTime(LocalDateTime startTime) {
-        this.startTime = startTime;
-        endTime = Optional.ofNullable(startTime)
-                .map(time -> time.plus(duration))
-                .orElse(null);
+        storeStartTime(startTime);
+        recalculateEndTime();
     }
 
     public LocalDateTime getEndTime() {
-        return endTime;
+        return toLocalDateTime(endSecond, endNano);
+    }
+
+    public boolean hasStartTime() {
+        return startSecond != NO_TIME;
+    }
+
+    public long getStartSecond() {
+        return startSecond;
+    }
+
+    public int getStartNano() {
+        return startNano;
+    }
+
+    public long getDurationSecond() {
+        return durationSecond;
+    }
+
+    public int getDurationNano() {
+        return durationNano;
+    }
+
+    public long getEndSecond() {
+        return endSecond;
+    }
+
+    public int getEndNano() {
+        return endNano;
+    }
+
+    protected final void storeDuration(Duration duration) {
+        if (duration == null) {
+            durationSecond = NO_TIME;
+            durationNano = 0;
+        } else {
+            durationSecond = duration.getSeconds();
+            durationNano = duration.getNano();
+        }
+    }
+
+    protected final void storeStartTime(LocalDateTime startTime) {
+        if (startTime == null) {
+            startSecond = NO_TIME;
+            startNano = 0;
+        } else {
+            startSecond = startTime.toEpochSecond(ZoneOffset.UTC);
+            startNano = startTime.getNano();
+        }
+    }
+
+    protected final void storeEndTime(LocalDateTime endTime) {
+        if (endTime == null) {
+            endSecond = NO_TIME;
+            endNano = 0;
+        } else {
+            endSecond = endTime.toEpochSecond(ZoneOffset.UTC);
+            endNano = endTime.getNano();
+        }
+    }
+
+    private void recalculateEndTime() {
+        if (startSecond == NO_TIME || durationSecond == NO_TIME) {
+            endSecond = NO_TIME;
+            endNano = 0;
+            return;
+        }
+        int nano = startNano + durationNano;
+        endSecond = startSecond + durationSecond + nano / NANOS_PER_SECOND;
+        endNano = nano % NANOS_PER_SECOND;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochSecond, int nano) {
+        if (epochSecond == NO_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
     }
 
     @Override
@@ -130,9 +197,9 @@ public class Task {
                 ", description='" + description + '\'' +
                 ", status=" + status +
                 ", id=" + id +
-                ", duration=" + duration +
-                ", startTime=" + startTime +
-                ", endTime=" + endTime +
+                ", duration=" + getDuration() +
+                ", startTime=" + getStartTime() +
+                ", endTime=" + getEndTime() +
                 '}';
     }
 }
@@ -3,7 +3,10 @@ package server;
 public enum BasePath {
     TASK("/tasks", "tasks"), SUBTASK("/subtasks", "subtasks"),
     EPIC("/epics", "epics"), HISTORY("/history", "history"),
-    PRIORITY("/prioritized", "prioritized");
+    PRIORITY("/prioritized", "prioritized"), CHANGES("/changes", "changes"),
+    SYNC("/sync", "sync"), METRICS("/metrics", "metrics"),
+    BOARDS("/boards", "boards"), CALENDAR("/calendar", "calendar"),
+    SEARCH("/search", "search"), DEPENDENCIES("/dependencies", "dependencies");
     private final String root;
     private final String value;
 
@@ -1,37 +1,97 @@
 package server;
 
 import adapter.DurationAdapter;
+import adapter.LocalDateAdapter;
 import adapter.LocalDateTimeAdapter;
+import adapter.TaskAdapterFactory;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
+import controller.AdmissionFilter;
+import controller.AdmissionLimits;
+import controller.BoardHandler;
+import controller.CalendarHandler;
+import controller.ChangeFeedHandler;
+import controller.DependencyHandler;
 import controller.EpicHandler;
 import controller.HistoryHandler;
+import controller.MetricsFilter;
+import controller.MetricsHandler;
 import controller.PriorityHandler;
+import controller.SearchHandler;
+import controller.RequestMetrics;
 import controller.SubTaskHandler;
+import controller.SyncHandler;
 import controller.TaskHandler;
+import metrics.OperationMetrics;
+import service.BoardRegistry;
 import service.TaskManager;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class HttpTaskServer {
     private static final int PORT = 8080;
     private final HttpServer httpServer;
+    private final ExecutorService executor;
     private final TaskManager manager;
     private final Gson gson;
+    private final RequestMetrics metrics;
+    private final AdmissionFilter admission;
 
     public HttpTaskServer(TaskManager manager) throws IOException {
+        this(manager, OperationMetrics.DISABLED);
+    }
+
+    public HttpTaskServer(TaskManager manager, OperationMetrics operationMetrics) throws IOException {
+        this(manager, operationMetrics, AdmissionLimits.DEFAULT);
+    }
+
+    public HttpTaskServer(TaskManager manager, OperationMetrics operationMetrics, AdmissionLimits limits)
+            throws IOException {
+        this(manager, operationMetrics, limits, null);
+    }
+
+    // С реестром досок сервер дополнительно обслуживает /boards/{id}/... для каждой доски команды.
+    public HttpTaskServer(TaskManager manager, OperationMetrics operationMetrics, AdmissionLimits limits,
+                          BoardRegistry boards) throws IOException {
+        this(PORT, manager, operationMetrics, limits, boards);
+    }
+
+    // Порт задается явно, когда на одной машине работают несколько разделов (PartitionServer).
+    public HttpTaskServer(int port, TaskManager manager, OperationMetrics operationMetrics, AdmissionLimits limits,
+                          BoardRegistry boards) throws IOException {
         this.manager = manager;
         this.gson = getGson();
-        this.httpServer = HttpServer.create(new InetSocketAddress("localhost", PORT), 0);
-        httpServer.createContext(BasePath.TASK.getRoot(), new TaskHandler(this.manager, this.gson));
-        httpServer.createContext(BasePath.SUBTASK.getRoot(), new SubTaskHandler(this.manager, this.gson));
-        httpServer.createContext(BasePath.EPIC.getRoot(), new EpicHandler(this.manager, this.gson));
-        httpServer.createContext(BasePath.HISTORY.getRoot(), new HistoryHandler(this.manager, this.gson));
-        httpServer.createContext(BasePath.PRIORITY.getRoot(), new PriorityHandler(this.manager, this.gson));
+        this.httpServer = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        this.metrics = new RequestMetrics();
+        this.admission = new AdmissionFilter(limits);
+        createContext(BasePath.TASK, new TaskHandler(this.manager, this.gson));
+        createContext(BasePath.SUBTASK, new SubTaskHandler(this.manager, this.gson));
+        createContext(BasePath.EPIC, new EpicHandler(this.manager, this.gson));
+        createContext(BasePath.HISTORY, new HistoryHandler(this.manager, this.gson));
+        createContext(BasePath.PRIORITY, new PriorityHandler(this.manager, this.gson));
+        createContext(BasePath.CHANGES, new ChangeFeedHandler(this.manager, this.gson));
+        createContext(BasePath.SYNC, new SyncHandler(this.manager, this.gson));
+        createContext(BasePath.CALENDAR, new CalendarHandler(this.manager, this.gson));
+        createContext(BasePath.SEARCH, new SearchHandler(this.manager, this.gson));
+        createContext(BasePath.DEPENDENCIES, new DependencyHandler(this.manager, this.gson));
+        createContext(BasePath.METRICS, new MetricsHandler(this.manager, this.gson, this.metrics,
+                operationMetrics));
+        if (boards != null) {
+            createContext(BasePath.BOARDS, new BoardHandler(boards, this.gson));
+        }
+        // Подписчики ленты изменений держат соединение открытым, поэтому каждый запрос получает свой поток.
+        this.executor = Executors.newCachedThreadPool();
+        httpServer.setExecutor(executor);
     }
 
     public static Gson getGson() {
@@ -39,15 +99,33 @@ public class HttpTaskServer {
                 .serializeNulls()
                 .registerTypeAdapter(Duration.class, new DurationAdapter())
                 .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+                .registerTypeAdapterFactory(new TaskAdapterFactory())
                 .create();
     }
 
+    public RequestMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void createContext(BasePath base, HttpHandler handler) {
+        List<Filter> filters = httpServer.createContext(base.getRoot(), handler).getFilters();
+        filters.add(new MetricsFilter(metrics, base));
+        // Подписчики ленты изменений висят на соединении долго, а метрики нужны именно под перегрузкой.
+        if (base == BasePath.BOARDS) {
+            filters.add(admission.except(BoardHandler::isChangeFeed));
+        } else if (base != BasePath.CHANGES && base != BasePath.METRICS) {
+            filters.add(admission);
+        }
+    }
+
     public void start() {
         httpServer.start();
     }
 
     public void stop() {
         httpServer.stop(0);
+        executor.shutdownNow();
     }
 
 }
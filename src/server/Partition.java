@@ -0,0 +1,8 @@
+package server;
+
+import java.io.File;
+import java.net.URI;
+
+// Процесс HttpTaskServer с реестром досок: адрес и каталог, в котором лежат файлы его досок.
+public record Partition(int index, URI uri, File directory) {
+}
@@ -0,0 +1,86 @@
+package server;
+
+import service.BoardRegistry;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ Распределение досок по разделам. Хеш номера доски делится на равные непрерывные диапазоны, по одному на раздел.
+ Перенесенные доски живут не в своем диапазоне: их владелец определяется по тому, в каком каталоге лежит файл
+ доски. Поэтому при создании карта просматривает каталоги разделов и после перезапуска маршрутизатора
+ переносы не теряются.
+ */
+public final class PartitionMap {
+    private final List<Partition> partitions;
+    private final Map<Integer, Partition> moved = new ConcurrentHashMap<>();
+
+    public PartitionMap(List<Partition> partitions) {
+        if (partitions.isEmpty()) {
+            throw new IllegalArgumentException("At least one partition is required");
+        }
+        this.partitions = List.copyOf(partitions);
+        for (Partition partition : this.partitions) {
+            scan(partition);
+        }
+    }
+
+    public List<Partition> getPartitions() {
+        return partitions;
+    }
+
+    public Partition getPartition(int index) {
+        if (index < 0 || index >= partitions.size()) {
+            throw new IllegalArgumentException("Unknown partition: " + index);
+        }
+        return partitions.get(index);
+    }
+
+    public Partition getOwner(int boardId) {
+        Partition partition = moved.get(boardId);
+        return partition != null ? partition : getHome(boardId);
+    }
+
+    // Раздел, диапазону которого принадлежит хеш доски.
+    public Partition getHome(int boardId) {
+        return partitions.get((int) ((long) hash(boardId) * partitions.size() >>> 31));
+    }
+
+    public void assign(int boardId, Partition partition) {
+        if (getHome(boardId).equals(partition)) {
+            moved.remove(boardId);
+        } else {
+            moved.put(boardId, partition);
+        }
+    }
+
+    public Map<Integer, Partition> getMovedBoards() {
+        return Map.copyOf(moved);
+    }
+
+    // Перемешивание из MurmurHash3: соседние номера досок попадают в разные диапазоны.
+    static int hash(int boardId) {
+        int hash = boardId;
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash & Integer.MAX_VALUE;
+    }
+
+    private void scan(Partition partition) {
+        String[] fileNames = partition.directory().list();
+        if (fileNames == null) {
+            return;
+        }
+        for (String fileName : fileNames) {
+            int boardId = BoardRegistry.parseFileName(fileName);
+            if (boardId >= 0 && new File(partition.directory(), fileName).length() > 0) {
+                assign(boardId, partition);
+            }
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import controller.BoardHandler;
+import metrics.OperationMetrics;
+import service.BoardRegistry;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static java.net.HttpURLConnection.HTTP_BAD_GATEWAY;
+import static java.net.HttpURLConnection.HTTP_BAD_METHOD;
+import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
+import static java.net.HttpURLConnection.HTTP_CONFLICT;
+import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
+import static java.net.HttpURLConnection.HTTP_NO_CONTENT;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
+
+/*
+ Входная точка для нескольких процессов HttpTaskServer на одной машине. Запрос /boards/{boardId}/... уходит
+ разделу, который владеет доской, через общий HttpClient: он держит пул постоянных соединений к разделам.
+ Ответ раздела передается клиенту потоком, поэтому подписка на ленту изменений тоже работает через маршрутизатор.
+
+ POST /partitions/move?board=&to= переносит доску: новые запросы к ней ждут, начатые ответы доотдаются,
+ раздел-источник сохраняет и выгружает доску, ее файл переезжает в каталог нового раздела.
+ Нагрузка по разделам отдается в /metrics.
+ */
+public final class PartitionRouter {
+    public static final String MOVE_PATH = "/partitions/move";
+    private static final int LOCK_STRIPES = 64;
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(2);
+    private static final Duration MOVE_TIMEOUT = Duration.ofSeconds(5);
+    // Заголовки одного соединения и те, что HttpClient выставляет сам.
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "content-length", "expect", "host",
+            "keep-alive", "proxy-connection", "te", "trailer", "transfer-encoding", "upgrade");
+    private final HttpServer httpServer;
+    private final ExecutorService executor;
+    private final HttpClient client;
+    private final PartitionMap partitionMap;
+    private final OperationMetrics metrics;
+    private final PartitionLoad[] loads;
+    private final OperationMetrics.Counter moves;
+    private final ReadWriteLock[] boardLocks = new ReadWriteLock[LOCK_STRIPES];
+    // Ответы разделов, которые еще передаются клиентам, по доскам. Защищено своим монитором.
+    private final Map<Integer, OpenResponses> openResponses = new HashMap<>();
+
+    private static class OpenResponses {
+        private int count;
+        private int eventStreams;
+    }
+
+    private class PartitionLoad {
+        private final OperationMetrics.Timer requests;
+        private final OperationMetrics.Counter errors;
+        private final OperationMetrics.Gauge inFlightGauge;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        PartitionLoad(Partition partition) {
+            String labels = "partition=\"" + partition.index() + "\"";
+            this.requests = metrics.timer("router_partition_request_seconds", labels);
+            this.errors = metrics.counter("router_partition_errors_total", labels);
+            this.inFlightGauge = metrics.gauge("router_partition_in_flight", labels);
+        }
+
+        void begin() {
+            inFlightGauge.set(inFlight.incrementAndGet());
+        }
+
+        void end() {
+            inFlightGauge.set(inFlight.decrementAndGet());
+        }
+    }
+
+    public PartitionRouter(int port, PartitionMap partitionMap, OperationMetrics metrics) throws IOException {
+        this.partitionMap = partitionMap;
+        this.metrics = metrics;
+        this.loads = new PartitionLoad[partitionMap.getPartitions().size()];
+        for (Partition partition : partitionMap.getPartitions()) {
+            loads[partition.index()] = new PartitionLoad(partition);
+        }
+        this.moves = metrics.counter("router_board_moves_total", "");
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            boardLocks[i] = new ReentrantReadWriteLock();
+        }
+        this.executor = Executors.newCachedThreadPool();
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(CONNECT_TIMEOUT)
+                .executor(executor)
+                .build();
+        this.httpServer = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        httpServer.createContext(BasePath.BOARDS.getRoot(), this::forward);
+        httpServer.createContext(MOVE_PATH, this::handleMove);
+        httpServer.createContext(BasePath.METRICS.getRoot(), this::handleMetrics);
+        httpServer.setExecutor(executor);
+    }
+
+    public void start() {
+        httpServer.start();
+    }
+
+    public void stop() {
+        httpServer.stop(0);
+        client.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    public PartitionMap getPartitionMap() {
+        return partitionMap;
+    }
+
+    /*
+     Пока идет перенос, новые запросы к доске ждут на блокировке и потом уходят уже новому владельцу.
+     Блокировка держится только до открытия запроса к разделу, поэтому перенос сначала ждет, пока доотдаются
+     начатые ответы, но не дольше MOVE_TIMEOUT. Открытую подписку на ленту изменений ждать бессмысленно:
+     такой перенос отклоняется сразу.
+     */
+    public void moveBoard(int boardId, int targetIndex) throws IOException, InterruptedException {
+        Partition target = partitionMap.getPartition(targetIndex);
+        long deadline = System.nanoTime() + MOVE_TIMEOUT.toNanos();
+        Lock lock = getBoardLock(boardId).writeLock();
+        if (!lock.tryLock(MOVE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("Board " + boardId + " is busy");
+        }
+        try {
+            Partition source = partitionMap.getOwner(boardId);
+            if (source.equals(target)) {
+                return;
+            }
+            drain(boardId, deadline);
+            detach(source, boardId);
+            Path sourceFile = source.directory().toPath().resolve(BoardRegistry.getFileName(boardId));
+            if (Files.exists(sourceFile)) {
+                Files.move(sourceFile, target.directory().toPath().resolve(BoardRegistry.getFileName(boardId)),
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+            partitionMap.assign(boardId, target);
+            moves.add(1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drain(int boardId, long deadline) throws InterruptedException {
+        synchronized (openResponses) {
+            while (true) {
+                OpenResponses open = openResponses.get(boardId);
+                if (open == null) {
+                    return;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (open.eventStreams > 0 || remaining <= 0) {
+                    throw new IllegalStateException("Board " + boardId + " is busy");
+                }
+                TimeUnit.NANOSECONDS.timedWait(openResponses, remaining);
+            }
+        }
+    }
+
+    private void detach(Partition partition, int boardId) throws IOException, InterruptedException {
+        URI uri = partition.uri().resolve(BasePath.BOARDS.getRoot() + "/" + boardId + BoardHandler.DETACH);
+        HttpRequest request = HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.noBody()).build();
+        int statusCode = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (statusCode == HTTP_CONFLICT) {
+            throw new IllegalStateException("Board " + boardId + " is in use on partition " + partition.index());
+        }
+        if (statusCode != HTTP_NO_CONTENT) {
+            throw new IOException("Partition " + partition.index() + " failed to detach board " + boardId
+                    + ": " + statusCode);
+        }
+    }
+
+    private void forward(HttpExchange exchange) throws IOException {
+        int boardId = parseBoardId(exchange.getRequestURI().getPath());
+        if (boardId < 0) {
+            sendEmpty(exchange, HTTP_NOT_FOUND);
+            return;
+        }
+        Lock lock = getBoardLock(boardId).readLock();
+        lock.lock();
+        boolean locked = true;
+        try {
+            Partition partition = partitionMap.getOwner(boardId);
+            PartitionLoad load = loads[partition.index()];
+            load.begin();
+            long start = load.requests.start();
+            try {
+                HttpResponse<InputStream> response = send(exchange, partition, load);
+                if (response == null) {
+                    return;
+                }
+                boolean eventStream = response.headers().firstValue("content-type")
+                        .filter(type -> type.startsWith("text/event-stream")).isPresent();
+                opened(boardId, eventStream);
+                lock.unlock();
+                locked = false;
+                try {
+                    relay(exchange, response, load);
+                } finally {
+                    closed(boardId, eventStream);
+                }
+            } finally {
+                load.requests.stop(start);
+                load.end();
+            }
+        } finally {
+            if (locked) {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Открывает запрос к разделу. null, если раздел недоступен: клиенту тогда уже отправлена ошибка.
+    private HttpResponse<InputStream> send(HttpExchange exchange, Partition partition, PartitionLoad load)
+            throws IOException {
+        try {
+            HttpRequest request = toPartitionRequest(exchange, partition);
+            return client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException e) {
+            load.errors.add(1);
+            sendEmpty(exchange, HTTP_BAD_GATEWAY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendEmpty(exchange, HTTP_UNAVAILABLE);
+        }
+        return null;
+    }
+
+    private void relay(HttpExchange exchange, HttpResponse<InputStream> response, PartitionLoad load)
+            throws IOException {
+        if (response.statusCode() >= HTTP_INTERNAL_ERROR) {
+            load.errors.add(1);
+        }
+        response.headers().map().forEach((name, values) -> {
+            if (!name.startsWith(":") && !HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                exchange.getResponseHeaders().put(name, values);
+            }
+        });
+        try (InputStream body = response.body()) {
+            OptionalLong length = response.headers().firstValueAsLong("content-length");
+            boolean empty = response.statusCode() == HTTP_NO_CONTENT || response.statusCode() == HTTP_NOT_MODIFIED
+                    || length.isPresent() && length.getAsLong() == 0;
+            // 0 у HttpServer означает передачу частями, когда длина ответа раздела неизвестна.
+            exchange.sendResponseHeaders(response.statusCode(), empty ? -1 : length.orElse(0));
+            if (!empty) {
+                copy(body, exchange.getResponseBody());
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void opened(int boardId, boolean eventStream) {
+        synchronized (openResponses) {
+            OpenResponses open = openResponses.computeIfAbsent(boardId, id -> new OpenResponses());
+            open.count++;
+            if (eventStream) {
+                open.eventStreams++;
+            }
+        }
+    }
+
+    private void closed(int boardId, boolean eventStream) {
+        synchronized (openResponses) {
+            OpenResponses open = openResponses.get(boardId);
+            open.count--;
+            if (eventStream) {
+                open.eventStreams--;
+            }
+            if (open.count == 0) {
+                openResponses.remove(boardId);
+                openResponses.notifyAll();
+            }
+        }
+    }
+
+    private HttpRequest toPartitionRequest(HttpExchange exchange, Partition partition) {
+        URI requestUri = exchange.getRequestURI();
+        String query = requestUri.getRawQuery();
+        String target = requestUri.getRawPath() + (query == null ? "" : "?" + query);
+        HttpRequest.Builder request = HttpRequest.newBuilder(partition.uri().resolve(target));
+        exchange.getRequestHeaders().forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                values.forEach(value -> request.header(name, value));
+            }
+        });
+        // Тело не буферизуется: его длину и ограничения проверяет раздел.
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        String transferEncoding = exchange.getRequestHeaders().getFirst("Transfer-Encoding");
+        HttpRequest.BodyPublisher body;
+        if (contentLength != null) {
+            body = HttpRequest.BodyPublishers.fromPublisher(
+                    HttpRequest.BodyPublishers.ofInputStream(exchange::getRequestBody), Long.parseLong(contentLength));
+        } else if (transferEncoding != null) {
+            body = HttpRequest.BodyPublishers.ofInputStream(exchange::getRequestBody);
+        } else {
+            body = HttpRequest.BodyPublishers.noBody();
+        }
+        return request.method(exchange.getRequestMethod(), body).build();
+    }
+
+    // События ленты изменений отправляются сразу, не дожидаясь заполнения буфера.
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+            if (in.available() == 0) {
+                out.flush();
+            }
+        }
+    }
+
+    private void handleMove(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            sendEmpty(exchange, HTTP_BAD_METHOD);
+            return;
+        }
+        int statusCode = HTTP_NO_CONTENT;
+        try {
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            moveBoard(Integer.parseInt(query.get("board")), Integer.parseInt(query.get("to")));
+        } catch (IllegalArgumentException e) {
+            statusCode = HTTP_BAD_REQUEST;
+        } catch (IllegalStateException e) {
+            statusCode = HTTP_CONFLICT;
+        } catch (IOException e) {
+            statusCode = HTTP_BAD_GATEWAY;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            statusCode = HTTP_UNAVAILABLE;
+        }
+        sendEmpty(exchange, statusCode);
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        byte[] response = metrics.scrape().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(HTTP_OK, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private ReadWriteLock getBoardLock(int boardId) {
+        return boardLocks[Math.floorMod(boardId, LOCK_STRIPES)];
+    }
+
+    private static int parseBoardId(String path) {
+        int start = BasePath.BOARDS.getRoot().length() + 1;
+        int end = path.indexOf('/', start);
+        if (end < 0 || end == start || end - start > 9 || path.charAt(start - 1) != '/') {
+            return -1;
+        }
+        for (int i = start; i < end; i++) {
+            if (!Character.isDigit(path.charAt(i))) {
+                return -1;
+            }
+        }
+        return Integer.parseInt(path, start, end, 10);
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        if (query == null) {
+            return Map.of();
+        }
+        Map<String, String> parameters = new HashMap<>();
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                parameters.put(parameter.substring(0, separator), parameter.substring(separator + 1));
+            }
+        }
+        return parameters;
+    }
+
+    private static void sendEmpty(HttpExchange exchange, int statusCode) throws IOException {
+        exchange.sendResponseHeaders(statusCode, -1);
+        exchange.close();
+    }
+
+    /*
+     Запуск: java server.PartitionRouter <port> <partitionPort>:<directory> [<partitionPort>:<directory> ...]
+     Порядок разделов задает их номера и диапазоны хешей, поэтому он должен совпадать между перезапусками.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: PartitionRouter <port> <partitionPort>:<directory> ...");
+            return;
+        }
+        List<Partition> partitions = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            int separator = args[i].indexOf(':');
+            URI uri = URI.create("http://localhost:" + args[i].substring(0, separator));
+            partitions.add(new Partition(i - 1, uri, new File(args[i].substring(separator + 1))));
+        }
+        new PartitionRouter(Integer.parseInt(args[0]), new PartitionMap(partitions), new OperationMetrics()).start();
+    }
+}
@@ -0,0 +1,38 @@
+package server;
+
+import controller.AdmissionLimits;
+import metrics.OperationMetrics;
+import service.BoardRegistry;
+import service.Managers;
+
+import java.io.File;
+import java.io.IOException;
+
+/*
+ Один раздел: HttpTaskServer с реестром досок из своего каталога. Обычно несколько таких процессов запускают
+ на разных портах, а перед ними ставят PartitionRouter.
+ Запуск: java server.PartitionServer <port> <directory> [memoryBudgetMegabytes]
+ */
+public class PartitionServer {
+    private static final long DEFAULT_MEMORY_BUDGET_MEGABYTES = 256;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: PartitionServer <port> <directory> [memoryBudgetMegabytes]");
+            return;
+        }
+        File directory = new File(args[1]);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory " + directory);
+        }
+        long budgetMegabytes = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_MEMORY_BUDGET_MEGABYTES;
+        BoardRegistry boards = new BoardRegistry(directory, budgetMegabytes * 1024 * 1024);
+        HttpTaskServer server = new HttpTaskServer(Integer.parseInt(args[0]), Managers.getDefault(),
+                new OperationMetrics(), AdmissionLimits.DEFAULT, boards);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            boards.flushAll();
+        }));
+        server.start();
+    }
+}
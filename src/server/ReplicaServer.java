@@ -0,0 +1,37 @@
+package server;
+
+import controller.AdmissionLimits;
+import metrics.OperationMetrics;
+import service.ReplicaTaskManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+
+/*
+ Процесс-реплика: читает файл основного сервера на том же диске и обслуживает запросы на чтение.
+ Изменяющие запросы получают 405, отставание видно в /metrics как replica_lag_seconds.
+ Запуск: java server.ReplicaServer <port> <primaryFile> [pollIntervalMillis]
+ */
+public class ReplicaServer {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ReplicaServer <port> <primaryFile> [pollIntervalMillis]");
+            return;
+        }
+        Duration interval = args.length > 2
+                ? Duration.ofMillis(Long.parseLong(args[2]))
+                : ReplicaTaskManager.DEFAULT_POLL_INTERVAL;
+        OperationMetrics metrics = new OperationMetrics();
+        ReplicaTaskManager replica = new ReplicaTaskManager(new File(args[1]), metrics);
+        HttpTaskServer server = new HttpTaskServer(Integer.parseInt(args[0]), replica, metrics,
+                AdmissionLimits.DEFAULT, null);
+        replica.start(interval);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            replica.close();
+        }));
+        server.start();
+    }
+}
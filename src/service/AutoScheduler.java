@@ -0,0 +1,128 @@
+package service;
+
+import exception.ValidationException;
+import model.FreeSlot;
+import model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/*
+ Автопланировщик: расставляет задачи без времени начала по свободным окнам расписания. Первыми ставятся
+ задачи с более ранним сроком, при равных сроках - с большим приоритетом, дальше - в порядке запроса. Каждая
+ задача занимает начало самого раннего окна, в которое помещается. Окна хранятся в дереве отрезков по
+ максимальной длине, поэтому такое окно находится за O(log g), а задача сдвигает начало окна и не добавляет
+ новых окон: вся пачка из m задач планируется за O(m log g).
+ */
+public class AutoScheduler {
+    private static final Comparator<Request> ORDER = Comparator
+            .comparing(Request::deadline, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Comparator.comparingInt(Request::priority).reversed());
+
+    // Задача с длительностью, необязательным сроком окончания (deadline) и приоритетом: больше - важнее.
+    public record Request(Task task, int priority, LocalDateTime deadline) {
+        public Request(Task task) {
+            this(task, 0, null);
+        }
+    }
+
+    /*
+     gaps - свободные окна по возрастанию, как их отдает findFreeSlots. Задачам выставляется время начала,
+     только если место нашлось для всех, иначе бросается ValidationException и задачи не меняются.
+     */
+    public static void plan(List<FreeSlot> gaps, List<Request> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        if (gaps.isEmpty()) {
+            throw new ValidationException("There is no free time in the schedule.");
+        }
+        LocalDateTime origin = gaps.getFirst().start();
+        GapTree tree = new GapTree(gaps, origin);
+        Integer[] order = new Integer[requests.size()];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparing(requests::get, ORDER));
+        long[] starts = new long[requests.size()];
+        List<Task> unplaced = new ArrayList<>();
+        for (int index : order) {
+            Request request = requests.get(index);
+            Duration duration = request.task().getDuration();
+            if (duration == null || duration.isNegative()) {
+                throw new ValidationException("Task " + request.task().getName() + " has no duration.");
+            }
+            long length = duration.toNanos();
+            int gap = tree.findFirstFitting(length);
+            if (gap < 0 || request.deadline() != null
+                    && origin.plusNanos(tree.getStart(gap) + length).isAfter(request.deadline())) {
+                unplaced.add(request.task());
+                continue;
+            }
+            starts[index] = tree.getStart(gap);
+            // Интервалы задач замкнуты, следующая задача может начаться только через наносекунду.
+            tree.occupy(gap, starts[index] + length + 1);
+        }
+        if (!unplaced.isEmpty()) {
+            throw new ValidationException("There is no free time before the deadline for tasks: "
+                    + unplaced.stream().map(Task::getName).collect(Collectors.joining(", ")));
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            requests.get(i).task().setStartTime(origin.plusNanos(starts[i]));
+        }
+    }
+
+    // Окна в наносекундах от начала первого окна. Узел дерева хранит наибольшую длину окна в своем отрезке.
+    private static class GapTree {
+        private final long[] starts;
+        private final long[] ends;
+        private final long[] maxLength;
+        private final int leaves;
+
+        GapTree(List<FreeSlot> gaps, LocalDateTime origin) {
+            int countOfGaps = gaps.size();
+            this.leaves = Integer.highestOneBit(Math.max(1, countOfGaps - 1)) << 1;
+            this.starts = new long[countOfGaps];
+            this.ends = new long[countOfGaps];
+            this.maxLength = new long[2 * leaves];
+            Arrays.fill(maxLength, -1);
+            for (int i = 0; i < countOfGaps; i++) {
+                FreeSlot gap = gaps.get(i);
+                starts[i] = Duration.between(origin, gap.start()).toNanos();
+                ends[i] = gap.end() == null ? Long.MAX_VALUE : Duration.between(origin, gap.end()).toNanos();
+                maxLength[leaves + i] = ends[i] - starts[i];
+            }
+            for (int node = leaves - 1; node > 0; node--) {
+                maxLength[node] = Math.max(maxLength[2 * node], maxLength[2 * node + 1]);
+            }
+        }
+
+        // Самое раннее окно, где поместится задача длиной length, или -1.
+        int findFirstFitting(long length) {
+            if (maxLength[1] < length) {
+                return -1;
+            }
+            int node = 1;
+            while (node < leaves) {
+                node = maxLength[2 * node] >= length ? 2 * node : 2 * node + 1;
+            }
+            return node - leaves;
+        }
+
+        long getStart(int gap) {
+            return starts[gap];
+        }
+
+        void occupy(int gap, long newStart) {
+            starts[gap] = newStart;
+            int node = leaves + gap;
+            maxLength[node] = newStart > ends[gap] ? -1 : ends[gap] - newStart;
+            for (node >>= 1; node > 0; node >>= 1) {
+                maxLength[node] = Math.max(maxLength[2 * node], maxLength[2 * node + 1]);
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package service;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
+
+/*
+ Доски команд: у каждой свой FileBackedTaskManager в файле board-<id>.csv. Доска загружается при первом
+ обращении и остается в памяти, пока оценка занятой памяти не превысит бюджет. Тогда выгружаются давно не
+ использованные доски, которые сейчас никто не держит (Lease), предварительно сохранив их в файл.
+ Загрузка и сохранение идут вне монитора реестра: пока доска загружается, в реестре лежит ее заготовка,
+ и остальные обращения к ней ждут ту же загрузку, а обращения к другим доскам не ждут вовсе.
+ */
+public class BoardRegistry {
+    // Грубая оценка памяти на задачу: объект, строки, узлы хранилищ и индекса приоритетов.
+    public static final long ESTIMATED_BYTES_PER_TASK = 1024;
+    private static final String FILE_PREFIX = "board-";
+    private static final String FILE_SUFFIX = ".csv";
+    private final File directory;
+    private final long memoryBudgetBytes;
+    private final LinkedHashMap<Integer, Board> boards = new LinkedHashMap<>(16, 0.75f, true);
+    private final List<IntConsumer> evictionListeners = new CopyOnWriteArrayList<>();
+
+    private static class Board {
+        private final CompletableFuture<FileBackedTaskManager> manager = new CompletableFuture<>();
+        private int leases;
+        // Растет при каждом обращении: по нему выгрузка узнает, что доску взяли, пока она сохранялась.
+        private long acquisitions;
+    }
+
+    public final class Lease implements AutoCloseable {
+        private final int boardId;
+        private final Board board;
+        private final FileBackedTaskManager manager;
+        private boolean released;
+
+        private Lease(int boardId, Board board, FileBackedTaskManager manager) {
+            this.boardId = boardId;
+            this.board = board;
+            this.manager = manager;
+        }
+
+        public int getBoardId() {
+            return boardId;
+        }
+
+        public FileBackedTaskManager getManager() {
+            return manager;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(board);
+            }
+        }
+    }
+
+    public BoardRegistry(File directory, long memoryBudgetBytes) {
+        this.directory = directory;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+    }
+
+    // Пока Lease не закрыт, доска не выгружается.
+    public Lease acquire(int boardId) {
+        if (boardId < 0) {
+            throw new IllegalArgumentException("Board id cannot be negative: " + boardId);
+        }
+        Board board;
+        boolean loading = false;
+        synchronized (this) {
+            board = boards.get(boardId);
+            if (board == null) {
+                board = new Board();
+                boards.put(boardId, board);
+                loading = true;
+            }
+            board.leases++;
+            board.acquisitions++;
+        }
+        if (loading) {
+            try {
+                board.manager.complete(load(getFile(boardId)));
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    boards.remove(boardId, board);
+                }
+                board.manager.completeExceptionally(e);
+            }
+        }
+        FileBackedTaskManager manager;
+        try {
+            manager = board.manager.join();
+        } catch (CompletionException e) {
+            synchronized (this) {
+                board.leases--;
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        evictColdBoards();
+        return new Lease(boardId, board, manager);
+    }
+
+    public void addEvictionListener(IntConsumer listener) {
+        evictionListeners.add(listener);
+    }
+
+    public synchronized Set<Integer> getResidentBoards() {
+        return Set.copyOf(boards.keySet());
+    }
+
+    public synchronized long getResidentBytes() {
+        long residentBytes = 0;
+        for (Board board : boards.values()) {
+            residentBytes += estimateBytes(board);
+        }
+        return residentBytes;
+    }
+
+    public File getFile(int boardId) {
+        return new File(directory, getFileName(boardId));
+    }
+
+    public static String getFileName(int boardId) {
+        return FILE_PREFIX + boardId + FILE_SUFFIX;
+    }
+
+    // Номер доски по имени ее файла или -1, если это не файл доски.
+    public static int parseFileName(String fileName) {
+        if (!fileName.startsWith(FILE_PREFIX) || !fileName.endsWith(FILE_SUFFIX)) {
+            return -1;
+        }
+        String boardId = fileName.substring(FILE_PREFIX.length(), fileName.length() - FILE_SUFFIX.length());
+        if (boardId.isEmpty() || boardId.length() > 9 || !boardId.chars().allMatch(Character::isDigit)) {
+            return -1;
+        }
+        return Integer.parseInt(boardId);
+    }
+
+    public void flushAll() {
+        List<Board> resident;
+        synchronized (this) {
+            resident = List.copyOf(boards.values());
+        }
+        for (Board board : resident) {
+            FileBackedTaskManager manager = board.manager.getNow(null);
+            if (manager != null) {
+                flush(manager);
+            }
+        }
+    }
+
+    /*
+     Сохраняет доску в файл и выгружает ее, чтобы файл можно было передать другому процессу. Доску, которую
+     сейчас кто-то держит, отдать нельзя. Следующее обращение снова загрузит ее из файла, если он на месте.
+     */
+    public void detach(int boardId) {
+        while (true) {
+            Board board;
+            synchronized (this) {
+                board = boards.get(boardId);
+                if (board == null) {
+                    return;
+                }
+                if (board.leases > 0) {
+                    throw new IllegalStateException("Board " + boardId + " is in use");
+                }
+            }
+            // Доску могли взять и отпустить, пока она сохранялась: тогда ее изменения нужно сохранить еще раз.
+            if (unload(boardId, board)) {
+                return;
+            }
+        }
+    }
+
+    private void release(Board board) {
+        synchronized (this) {
+            board.leases--;
+        }
+        evictColdBoards();
+    }
+
+    // Обход в порядке доступа: первыми идут самые давно использованные доски.
+    private void evictColdBoards() {
+        List<Map.Entry<Integer, Board>> cold = new ArrayList<>();
+        synchronized (this) {
+            long residentBytes = getResidentBytes();
+            Iterator<Map.Entry<Integer, Board>> iterator = boards.entrySet().iterator();
+            while (residentBytes > memoryBudgetBytes && iterator.hasNext()) {
+                Map.Entry<Integer, Board> entry = iterator.next();
+                Board board = entry.getValue();
+                if (board.leases == 0) {
+                    residentBytes -= estimateBytes(board);
+                    cold.add(Map.entry(entry.getKey(), board));
+                }
+            }
+        }
+        cold.forEach(entry -> unload(entry.getKey(), entry.getValue()));
+    }
+
+    // Сохраняет доску вне монитора и выгружает ее, только если за это время ее никто не брал.
+    private boolean unload(int boardId, Board board) {
+        long acquisitions;
+        synchronized (this) {
+            acquisitions = board.acquisitions;
+        }
+        flush(board.manager.join());
+        synchronized (this) {
+            if (board.leases > 0 || board.acquisitions != acquisitions || !boards.remove(boardId, board)) {
+                return false;
+            }
+        }
+        evictionListeners.forEach(listener -> listener.accept(boardId));
+        return true;
+    }
+
+    private static FileBackedTaskManager load(File file) {
+        return file.length() > 0 ? FileBackedTaskManager.loadFromFile(file) : new FileBackedTaskManager(file);
+    }
+
+    private static void flush(FileBackedTaskManager manager) {
+        synchronized (manager) {
+            manager.flush();
+        }
+    }
+
+    // Загружающаяся доска еще не занимает памяти.
+    private static long estimateBytes(Board board) {
+        TaskManager manager = board.manager.getNow(null);
+        if (manager == null) {
+            return 0;
+        }
+        long countOfTasks = manager.getTasks().size() + manager.getSubTasks().size() + manager.getEpics().size();
+        return countOfTasks * ESTIMATED_BYTES_PER_TASK;
+    }
+}
@@ -0,0 +1,107 @@
+package service;
+
+import exception.FeedTruncatedException;
+import model.ChangeType;
+import model.TaskType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ Кольцевой буфер последних изменений. Каждое событие получает номер на единицу больше предыдущего,
+ клиент запоминает номер последнего полученного события и продолжает с него.
+ Запись не берет блокировку: номер выдает AtomicLong, а ячейка кольца перезаписывается целиком.
+ Блокировка нужна только для того, чтобы разбудить читателей, ожидающих новых событий.
+ */
+public class ChangeFeed {
+    public static final int DEFAULT_CAPACITY = 4096;
+    private final AtomicReferenceArray<Event> ring;
+    private final AtomicLong lastSequence = new AtomicLong();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+
+    public record Event(long sequence, ChangeType change, TaskType type, int id) {
+    }
+
+    public ChangeFeed(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.ring = new AtomicReferenceArray<>(capacity);
+    }
+
+    public long publish(ChangeType change, TaskType type, int id) {
+        long sequence = lastSequence.incrementAndGet();
+        ring.set(slot(sequence), new Event(sequence, change, type, id));
+        if (waiters.get() > 0) {
+            lock.lock();
+            try {
+                published.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return sequence;
+    }
+
+    public long getLastSequence() {
+        return lastSequence.get();
+    }
+
+    // События с номером больше since. Если часть из них уже вытеснена из кольца, клиенту нужна полная загрузка.
+    public List<Event> readSince(long since) {
+        long last = lastSequence.get();
+        long oldest = Math.max(1, last - ring.length() + 1);
+        if (since + 1 < oldest) {
+            throw truncated(since, oldest);
+        }
+        List<Event> events = new ArrayList<>((int) Math.max(0, last - since));
+        for (long sequence = since + 1; sequence <= last; sequence++) {
+            Event event = ring.get(slot(sequence));
+            if (event == null || event.sequence() < sequence) {
+                // Номер уже выдан, но событие еще не записано в ячейку.
+                break;
+            }
+            if (event.sequence() > sequence) {
+                throw truncated(since, event.sequence() - ring.length() + 1);
+            }
+            events.add(event);
+        }
+        return events;
+    }
+
+    public List<Event> awaitSince(long since, long timeout, TimeUnit unit) throws InterruptedException {
+        List<Event> events = readSince(since);
+        if (!events.isEmpty()) {
+            return events;
+        }
+        long remaining = unit.toNanos(timeout);
+        waiters.incrementAndGet();
+        lock.lock();
+        try {
+            while (lastSequence.get() <= since && remaining > 0) {
+                remaining = published.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+            waiters.decrementAndGet();
+        }
+        return readSince(since);
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % ring.length());
+    }
+
+    private static FeedTruncatedException truncated(long since, long oldest) {
+        return new FeedTruncatedException("Changes after " + since + " are no longer available, oldest is "
+                + oldest + ".");
+    }
+}
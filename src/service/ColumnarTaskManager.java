@@ -0,0 +1,131 @@
+package service;
+
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public class ColumnarTaskManager extends InMemoryManager {
+    private final ColumnarTaskStore columns;
+
+    public ColumnarTaskManager(HistoryManager historyManager) {
+        super(historyManager);
+        this.columns = new ColumnarTaskStore();
+    }
+
+    @Override
+    public int createTask(Task task) {
+        int newTaskId = super.createTask(task);
+        columns.put(task);
+        return newTaskId;
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        super.updateTask(task);
+        columns.put(task);
+    }
+
+    @Override
+    public void deleteTasks() {
+        super.deleteTasks();
+        columns.removeAll(TaskType.TASK);
+    }
+
+    @Override
+    public void deleteTask(int taskId) {
+        super.deleteTask(taskId);
+        columns.remove(taskId);
+    }
+
+    @Override
+    public int createSubTask(SubTask subTask) {
+        int newSubTaskId = super.createSubTask(subTask);
+        columns.put(subTask);
+        return newSubTaskId;
+    }
+
+    @Override
+    public void updateSubTask(SubTask subTask) {
+        super.updateSubTask(subTask);
+        columns.put(subTask);
+    }
+
+    @Override
+    public void deleteSubTask(int subTaskId) {
+        super.deleteSubTask(subTaskId);
+        columns.remove(subTaskId);
+    }
+
+    @Override
+    public void deleteSubTasks() {
+        super.deleteSubTasks();
+        columns.removeAll(TaskType.SUBTASK);
+    }
+
+    @Override
+    public int createEpic(Epic epic) {
+        int newEpicId = super.createEpic(epic);
+        columns.put(epic);
+        return newEpicId;
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        super.updateEpic(epic);
+        columns.put(epicStorage.get(epic.getId()));
+    }
+
+    @Override
+    public void deleteEpics() {
+        super.deleteEpics();
+        columns.removeAll(TaskType.SUBTASK);
+        columns.removeAll(TaskType.EPIC);
+    }
+
+    @Override
+    public void deleteEpic(int epicId) {
+        Epic epic = epicStorage.get(epicId);
+        List<Integer> subTaskIds = epic == null ? List.of() : List.copyOf(epic.getSubTaskIds());
+        super.deleteEpic(epicId);
+        subTaskIds.forEach(columns::remove);
+        columns.remove(epicId);
+    }
+
+    @Override
+    public List<Integer> importTasks(List<? extends Task> tasks) {
+        List<Integer> newIds = super.importTasks(tasks);
+        tasks.forEach(columns::put);
+        return newIds;
+    }
+
+    @Override
+    protected void updateEpicStatus(int epicId) {
+        super.updateEpicStatus(epicId);
+        columns.put(epicStorage.get(epicId));
+    }
+
+    @Override
+    protected void updateEpicTime(int epicId) {
+        super.updateEpicTime(epicId);
+        columns.put(epicStorage.get(epicId));
+    }
+
+    public Map<TaskStatus, Long> getStatusCounts(TaskType type) {
+        return columns.countByStatus(type);
+    }
+
+    public Map<Integer, Duration> getScheduledDurationByEpic() {
+        return columns.scheduledDurationByEpic();
+    }
+
+    public long[] getScheduledSecondsPerDay(LocalDate from, LocalDate to) {
+        return columns.scheduledSecondsPerDay(from, to);
+    }
+}
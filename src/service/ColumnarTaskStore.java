@@ -0,0 +1,159 @@
+package service;
+
+import model.SubTask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static model.Task.NO_TIME;
+
+public class ColumnarTaskStore {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final long SECONDS_PER_DAY = 86_400;
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private final Map<Integer, Integer> rowById;
+    private int size;
+    private int[] ids;
+    private byte[] types;
+    private byte[] statuses;
+    private int[] epicIds;
+    private long[] starts;
+    private long[] durations;
+
+    public ColumnarTaskStore() {
+        this.rowById = new HashMap<>();
+        this.ids = new int[INITIAL_CAPACITY];
+        this.types = new byte[INITIAL_CAPACITY];
+        this.statuses = new byte[INITIAL_CAPACITY];
+        this.epicIds = new int[INITIAL_CAPACITY];
+        this.starts = new long[INITIAL_CAPACITY];
+        this.durations = new long[INITIAL_CAPACITY];
+    }
+
+    public void put(Task task) {
+        int taskId = task.getId();
+        Integer row = rowById.get(taskId);
+        if (row == null) {
+            ensureCapacity(size + 1);
+            row = size++;
+            rowById.put(taskId, row);
+        }
+        ids[row] = taskId;
+        types[row] = (byte) task.getTaskType().ordinal();
+        statuses[row] = (byte) (task.getStatus() == null ? TaskStatus.NEW : task.getStatus()).ordinal();
+        epicIds[row] = task.getTaskType() == TaskType.SUBTASK ? ((SubTask) task).getEpicId() : 0;
+        starts[row] = task.getStartSecond();
+        durations[row] = task.getDurationSecond() == NO_TIME ? 0 : task.getDurationSecond();
+    }
+
+    public void remove(int taskId) {
+        Integer row = rowById.remove(taskId);
+        if (row == null) {
+            return;
+        }
+        int last = --size;
+        if (row != last) {
+            ids[row] = ids[last];
+            types[row] = types[last];
+            statuses[row] = statuses[last];
+            epicIds[row] = epicIds[last];
+            starts[row] = starts[last];
+            durations[row] = durations[last];
+            rowById.put(ids[row], row);
+        }
+    }
+
+    public void removeAll(TaskType type) {
+        byte typeOrdinal = (byte) type.ordinal();
+        for (int row = size - 1; row >= 0; row--) {
+            if (types[row] == typeOrdinal) {
+                remove(ids[row]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Map<TaskStatus, Long> countByStatus(TaskType type) {
+        long[] counts = new long[STATUSES.length];
+        byte typeOrdinal = (byte) type.ordinal();
+        for (int row = 0; row < size; row++) {
+            counts[statuses[row]] += types[row] == typeOrdinal ? 1 : 0;
+        }
+        Map<TaskStatus, Long> result = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : STATUSES) {
+            result.put(status, counts[status.ordinal()]);
+        }
+        return result;
+    }
+
+    // Totals are indexed by the epic's row, so the buffer follows the live row count rather than the largest id.
+    public Map<Integer, Duration> scheduledDurationByEpic() {
+        long[] totals = new long[size];
+        byte subTaskOrdinal = (byte) TaskType.SUBTASK.ordinal();
+        for (int row = 0; row < size; row++) {
+            if (types[row] == subTaskOrdinal) {
+                Integer epicRow = rowById.get(epicIds[row]);
+                if (epicRow != null) {
+                    totals[epicRow] += durations[row];
+                }
+            }
+        }
+        Map<Integer, Duration> result = new LinkedHashMap<>();
+        byte epicOrdinal = (byte) TaskType.EPIC.ordinal();
+        for (int row = 0; row < size; row++) {
+            if (types[row] == epicOrdinal) {
+                result.put(ids[row], Duration.ofSeconds(totals[row]));
+            }
+        }
+        return result;
+    }
+
+    // Epics are skipped: their interval is a rollup of subtasks which are already counted.
+    public long[] scheduledSecondsPerDay(LocalDate from, LocalDate to) {
+        long firstDay = from.toEpochDay();
+        int days = (int) (to.toEpochDay() - firstDay);
+        long[] result = new long[Math.max(days, 0)];
+        long rangeStart = firstDay * SECONDS_PER_DAY;
+        long rangeEnd = rangeStart + result.length * SECONDS_PER_DAY;
+        byte epicOrdinal = (byte) TaskType.EPIC.ordinal();
+        for (int row = 0; row < size; row++) {
+            if (types[row] == epicOrdinal || starts[row] == NO_TIME) {
+                continue;
+            }
+            long start = Math.max(starts[row], rangeStart);
+            long end = Math.min(starts[row] + durations[row], rangeEnd);
+            while (start < end) {
+                int day = (int) ((start - rangeStart) / SECONDS_PER_DAY);
+                long dayEnd = Math.min(rangeStart + (day + 1) * SECONDS_PER_DAY, end);
+                result[day] += dayEnd - start;
+                start = dayEnd;
+            }
+        }
+        return result;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        types = Arrays.copyOf(types, newCapacity);
+        statuses = Arrays.copyOf(statuses, newCapacity);
+        epicIds = Arrays.copyOf(epicIds, newCapacity);
+        starts = Arrays.copyOf(starts, newCapacity);
+        durations = Arrays.copyOf(durations, newCapacity);
+    }
+}
@@ -0,0 +1,229 @@
+package service;
+
+import exception.ValidationException;
+import model.SubTask;
+import model.Task;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+/*
+ Граф зависимостей между задачами: ребро dependsOn -> task значит, что task идет после dependsOn. Время начала
+ задач граф не проверяет: порядок нужен для сортировки подзадач и критического пути эпика.
+ Топологический порядок поддерживается на месте (алгоритм Пирса-Келли): новое ребро, идущее против порядка,
+ переставляет только задачи между его концами, которые достижимы от них, а найденный при этом путь обратно
+ означает цикл, и ребро не добавляется. Для каждой задачи хранится длина самой длинной цепочки зависимостей
+ внутри ее эпика, которая на ней заканчивается. После изменения она пересчитывается только у зависящих задач
+ и только пока меняется. Задачи без зависимостей в граф не попадают.
+ */
+public class DependencyGraph {
+    private final IntFunction<Task> tasks;
+    private final Map<Integer, Set<Integer>> successors = new HashMap<>();
+    private final Map<Integer, Set<Integer>> predecessors = new HashMap<>();
+    private final Map<Integer, Integer> order = new HashMap<>();
+    private final Map<Integer, Duration> longestChains = new HashMap<>();
+    private int nextOrder;
+
+    // tasks - задача или подзадача по id, null для удаленной.
+    public DependencyGraph(IntFunction<Task> tasks) {
+        this.tasks = tasks;
+    }
+
+    /*
+     Добавляет ребро dependsOn -> taskId и возвращает задачи, у которых изменилась длина цепочки.
+     ValidationException, если ребро замыкает цикл: граф при этом не меняется.
+     */
+    public Set<Integer> addEdge(int dependsOn, int taskId) {
+        if (dependsOn == taskId) {
+            throw new ValidationException("Task " + taskId + " cannot depend on itself.");
+        }
+        if (successors.getOrDefault(dependsOn, Set.of()).contains(taskId)) {
+            return Set.of();
+        }
+        addNode(dependsOn);
+        addNode(taskId);
+        int lowerBound = order.get(taskId);
+        int upperBound = order.get(dependsOn);
+        if (lowerBound < upperBound) {
+            List<Integer> forward = collect(taskId, successors, node -> order.get(node) <= upperBound, dependsOn);
+            if (forward == null) {
+                removeIfIsolated(dependsOn);
+                removeIfIsolated(taskId);
+                throw new ValidationException("Dependency " + dependsOn + " -> " + taskId + " creates a cycle.");
+            }
+            List<Integer> backward = collect(dependsOn, predecessors, node -> order.get(node) >= lowerBound, null);
+            reorder(backward, forward);
+        }
+        successors.get(dependsOn).add(taskId);
+        predecessors.get(taskId).add(dependsOn);
+        return propagate(List.of(taskId));
+    }
+
+    public Set<Integer> removeEdge(int dependsOn, int taskId) {
+        if (!successors.getOrDefault(dependsOn, Set.of()).remove(taskId)) {
+            return Set.of();
+        }
+        predecessors.get(taskId).remove(dependsOn);
+        Set<Integer> changed = propagate(List.of(taskId));
+        removeIfIsolated(dependsOn);
+        removeIfIsolated(taskId);
+        return changed;
+    }
+
+    // Удаляет задачу со всеми ее ребрами, цепочки пересчитываются у задач, которые от нее зависели.
+    public Set<Integer> removeNode(int taskId) {
+        if (!order.containsKey(taskId)) {
+            return Set.of();
+        }
+        Set<Integer> following = successors.remove(taskId);
+        Set<Integer> previous = predecessors.remove(taskId);
+        following.forEach(node -> predecessors.get(node).remove(taskId));
+        previous.forEach(node -> successors.get(node).remove(taskId));
+        order.remove(taskId);
+        longestChains.remove(taskId);
+        Set<Integer> changed = propagate(following);
+        following.forEach(this::removeIfIsolated);
+        previous.forEach(this::removeIfIsolated);
+        return changed;
+    }
+
+    // Длительность или эпик задачи изменились.
+    public Set<Integer> refresh(int taskId) {
+        return order.containsKey(taskId) ? propagate(List.of(taskId)) : Set.of();
+    }
+
+    public List<Integer> getDependencies(int taskId) {
+        return List.copyOf(predecessors.getOrDefault(taskId, Set.of()));
+    }
+
+    // Все ребра как пары {dependsOn, taskId}.
+    public List<int[]> getEdges() {
+        List<int[]> edges = new ArrayList<>();
+        successors.forEach((from, to) -> to.forEach(node -> edges.add(new int[]{from, node})));
+        return edges;
+    }
+
+    // Задачи в порядке зависимостей. Задачи без зависимостей идут первыми, по id.
+    public <T extends Task> List<T> sort(Collection<T> tasks) {
+        return tasks.stream()
+                .sorted(Comparator.<T>comparingInt(task -> order.getOrDefault(task.getId(), -1))
+                        .thenComparingInt(Task::getId))
+                .toList();
+    }
+
+    // Длительность самой длинной цепочки зависимостей внутри эпика, которая заканчивается задачей.
+    public Duration getLongestChain(Task task) {
+        Duration longest = longestChains.get(task.getId());
+        return longest != null ? longest : durationOf(task);
+    }
+
+    private void addNode(int taskId) {
+        if (!order.containsKey(taskId)) {
+            Task task = tasks.apply(taskId);
+            order.put(taskId, nextOrder++);
+            successors.put(taskId, new LinkedHashSet<>());
+            predecessors.put(taskId, new LinkedHashSet<>());
+            longestChains.put(taskId, task == null ? Duration.ZERO : durationOf(task));
+        }
+    }
+
+    private void removeIfIsolated(int taskId) {
+        if (order.containsKey(taskId) && successors.get(taskId).isEmpty() && predecessors.get(taskId).isEmpty()) {
+            successors.remove(taskId);
+            predecessors.remove(taskId);
+            order.remove(taskId);
+            longestChains.remove(taskId);
+        }
+    }
+
+    // Обход от start по edges в пределах фильтра. Если встретился stop - путь замыкает цикл, результат null.
+    private List<Integer> collect(int start, Map<Integer, Set<Integer>> edges, IntPredicate inBounds, Integer stop) {
+        List<Integer> visited = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(start);
+        seen.add(start);
+        while (!stack.isEmpty()) {
+            int node = stack.pop();
+            visited.add(node);
+            for (int next : edges.get(node)) {
+                if (stop != null && next == stop) {
+                    return null;
+                }
+                if (inBounds.test(next) && seen.add(next)) {
+                    stack.push(next);
+                }
+            }
+        }
+        return visited;
+    }
+
+    // Задачи, от которых зависит новое ребро, встают перед зависящими, занимая те же номера порядка.
+    private void reorder(List<Integer> backward, List<Integer> forward) {
+        Comparator<Integer> byOrder = Comparator.comparingInt(order::get);
+        backward.sort(byOrder);
+        forward.sort(byOrder);
+        List<Integer> nodes = new ArrayList<>(backward);
+        nodes.addAll(forward);
+        List<Integer> positions = nodes.stream().map(order::get).sorted().toList();
+        for (int i = 0; i < nodes.size(); i++) {
+            order.put(nodes.get(i), positions.get(i));
+        }
+    }
+
+    // Пересчет цепочек в топологическом порядке, начиная с start и дальше только там, где значение изменилось.
+    private Set<Integer> propagate(Collection<Integer> start) {
+        PriorityQueue<Integer> queue = new PriorityQueue<>(Comparator.comparingInt(order::get));
+        Set<Integer> queued = new HashSet<>();
+        start.stream().filter(order::containsKey).filter(queued::add).forEach(queue::add);
+        Set<Integer> changed = new HashSet<>();
+        while (!queue.isEmpty()) {
+            int taskId = queue.poll();
+            queued.remove(taskId);
+            Task task = tasks.apply(taskId);
+            if (task == null) {
+                continue;
+            }
+            Duration longest = Duration.ZERO;
+            for (int dependsOn : predecessors.get(taskId)) {
+                Task previous = tasks.apply(dependsOn);
+                if (previous != null && epicOf(previous) == epicOf(task)) {
+                    Duration chain = getLongestChain(previous);
+                    longest = chain.compareTo(longest) > 0 ? chain : longest;
+                }
+            }
+            longest = longest.plus(durationOf(task));
+            if (longest.equals(longestChains.put(taskId, longest))) {
+                continue;
+            }
+            changed.add(taskId);
+            for (int next : successors.get(taskId)) {
+                if (queued.add(next)) {
+                    queue.add(next);
+                }
+            }
+        }
+        return changed;
+    }
+
+    private static int epicOf(Task task) {
+        return task instanceof SubTask subTask ? subTask.getEpicId() : 0;
+    }
+
+    private static Duration durationOf(Task task) {
+        return task.getDuration() == null ? Duration.ZERO : task.getDuration();
+    }
+}
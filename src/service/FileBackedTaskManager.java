@@ -1,26 +1,36 @@
 package service;
 
 import converter.Converter;
+import converter.CsvLineReader;
+import converter.CsvReader;
+import converter.CsvWriter;
+import converter.DependencyConverter;
 import converter.EpicConverter;
 import converter.HistoryConverter;
 import converter.SubTaskConverter;
 import converter.TaskConverter;
 import exception.ManagerLoadException;
 import exception.ManagerSaveException;
+import metrics.OperationMetrics;
 import model.Epic;
 import model.SubTask;
 import model.Task;
 import model.TaskType;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static model.TaskType.EPIC;
 import static model.TaskType.SUBTASK;
@@ -28,23 +38,59 @@ import static model.TaskType.TASK;
 
 public class FileBackedTaskManager extends InMemoryManager {
     private final File file;
-    private final Map<TaskType, Converter> converters;
+    private OperationMetrics metrics;
+    private OperationMetrics.Timer saveTimer;
+    private OperationMetrics.Counter savedBytes;
+    private OperationMetrics.Timer loadTimer;
+    private OperationMetrics.Counter loadedRows;
+    private OperationMetrics.Gauge loadRowsPerSecond;
+    private boolean unsaved;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final TaskConverter TASK_CONVERTER = new TaskConverter();
+    private static final SubTaskConverter SUBTASK_CONVERTER = new SubTaskConverter();
+    private static final EpicConverter EPIC_CONVERTER = new EpicConverter();
+    private static final Map<TaskType, Converter<? extends Task>> CONVERTERS = Map.of(TASK, TASK_CONVERTER,
+            SUBTASK, SUBTASK_CONVERTER, EPIC, EPIC_CONVERTER);
+    // Читатель хранит позицию в строке, поэтому у каждого потока fork/join свой экземпляр.
+    private static final ThreadLocal<CsvReader> READERS = ThreadLocal.withInitial(CsvReader::new);
+    // На меньшем объеме раздача работы потокам fork/join обходится дороже, чем экономит.
+    private static final int PARALLEL_LOAD_THRESHOLD = 4096;
+    private static final String TEMP_SUFFIX = ".tmp";
     private static final String FILE_HEADER = "id,type,name,status,description,epic,duration,startTime"
             + System.lineSeparator();
 
     public FileBackedTaskManager(File file) {
         super(Managers.getDefaultHistory());
         this.file = file;
-        this.converters = Map.of(TASK, new TaskConverter(), TaskType.SUBTASK, new SubTaskConverter(),
-                TaskType.EPIC, new EpicConverter());
+        registerFileMetrics(OperationMetrics.DISABLED);
     }
 
     public static FileBackedTaskManager loadFromFile(File file) {
+        return loadFromFile(file, OperationMetrics.DISABLED);
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, OperationMetrics metrics) {
         FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        manager.setMetrics(metrics);
         manager.loadFromFile();
         return manager;
     }
 
+    @Override
+    public void setMetrics(OperationMetrics metrics) {
+        super.setMetrics(metrics);
+        registerFileMetrics(metrics);
+    }
+
+    private void registerFileMetrics(OperationMetrics metrics) {
+        this.metrics = metrics;
+        this.saveTimer = metrics.timer("file_save_seconds", "");
+        this.savedBytes = metrics.counter("file_save_bytes_total", "");
+        this.loadTimer = metrics.timer("file_load_seconds", "");
+        this.loadedRows = metrics.counter("file_load_rows_total", "");
+        this.loadRowsPerSecond = metrics.gauge("file_load_rows_per_second", "");
+    }
+
     @Override
     public int createTask(Task task) {
         int newTask = super.createTask(task);
@@ -142,63 +188,119 @@ public class FileBackedTaskManager extends InMemoryManager {
         save();
     }
 
+    @Override
+    public List<Integer> importTasks(List<? extends Task> tasks) {
+        List<Integer> newIds = super.importTasks(tasks);
+        save();
+        return newIds;
+    }
+
+    @Override
+    public void addDependency(int taskId, int dependsOnId) {
+        super.addDependency(taskId, dependsOnId);
+        save();
+    }
+
+    @Override
+    public void removeDependency(int taskId, int dependsOnId) {
+        super.removeDependency(taskId, dependsOnId);
+        save();
+    }
+
+    public void flush() {
+        save();
+    }
+
+    // Файл перезаписывается целиком, поэтому пачка операций сохраняется один раз в конце.
+    @Override
+    public void runBatch(Runnable batch) {
+        try {
+            super.runBatch(batch);
+        } finally {
+            if (unsaved && !isInBatch()) {
+                save();
+            }
+        }
+    }
+
+    /*
+     Файл пишется рядом во временный и подменяется переименованием, поэтому читатель файла (реплика, перенос
+     доски) видит либо прежнюю, либо новую версию целиком.
+     */
     private void save() {
-        try (final BufferedWriter writer = new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8))) {
+        if (isInBatch()) {
+            unsaved = true;
+            return;
+        }
+        unsaved = false;
+        long start = saveTimer.start();
+        File tempFile = new File(file.getPath() + TEMP_SUFFIX);
+        try (final BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile, StandardCharsets.UTF_8))) {
             writer.write(FILE_HEADER);
-
-            getTasks().stream()
-                    .map(task -> converters.get(TASK).toString(task))
-                    .forEach(str -> writeWithNewLine(writer, str));
-            getEpics().stream()
-                    .map(epic -> converters.get(EPIC).toString(epic))
-                    .forEach(str -> writeWithNewLine(writer, str));
-            getSubTasks().stream()
-                    .map(subTask -> converters.get(SUBTASK).toString(subTask))
-                    .forEach(str -> writeWithNewLine(writer, str));
+            CsvWriter row = new CsvWriter();
+            for (Task task : taskStorage.values()) {
+                writeRow(writer, row, TASK_CONVERTER, task);
+            }
+            for (Epic epic : epicStorage.values()) {
+                writeRow(writer, row, EPIC_CONVERTER, epic);
+            }
+            for (SubTask subTask : subTaskStorage.values()) {
+                writeRow(writer, row, SUBTASK_CONVERTER, subTask);
+            }
 
             writer.newLine();
             writer.write(HistoryConverter.toString(getHistory()));
             writer.newLine();
+            writer.write(DependencyConverter.toString(dependencies.getEdges()));
+            writer.newLine();
         } catch (IOException | NullPointerException | IllegalArgumentException exception) {
             throw new ManagerSaveException("Error while saving tasks to file", exception);
         }
-    }
-
-    private void writeWithNewLine(BufferedWriter writer, String str) {
         try {
-            writer.write(str);
-            writer.newLine();
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
         } catch (IOException exception) {
-            throw new ManagerSaveException("Error while saving tasks= " + str + " to file", exception);
+            throw new ManagerSaveException("Error while saving tasks to file", exception);
+        }
+        saveTimer.stop(start);
+        if (metrics.isEnabled()) {
+            savedBytes.add(file.length());
         }
     }
 
-    private TaskType parseType(String line) {
-        return TaskType.valueOf(line.split(",")[1]);
+    private <T extends Task> void writeRow(BufferedWriter writer, CsvWriter row, Converter<T> converter, T task)
+            throws IOException {
+        converter.write(task, row.reset());
+        writer.append(row.row());
+        writer.newLine();
     }
 
+    private static TaskType parseType(CsvReader reader) {
+        reader.skip();
+        return reader.nextEnum(TYPES);
+    }
 
     private void loadFromFile() {
+        long start = loadTimer.start();
         int maxTaskId = 0;
-        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
-            reader.readLine(); // skip header
-            while (true) {
-                String line = reader.readLine();
-                if (line.isEmpty()) {
-                    break;
-                }
-                final Task task = converters.get(parseType(line)).fromString(line);
+        int rowCount = 0;
+        List<Task> scheduledTasks = new ArrayList<>();
+        try (CsvLineReader reader = new CsvLineReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            List<String> rows = readRows(reader);
+            rowCount = rows.size();
+            loadedRows.add(rowCount);
+            for (Task task : parseRows(rows)) {
                 final int taskId = task.getId();
                 switch (task.getTaskType()) {
                     case TASK -> {
-                        validateInputTask(task);
-                        prioritizedTasks.put(task.getStartTime(), task);
+                        validateStartTime(task);
+                        scheduledTasks.add(task);
                         taskStorage.put(task.getId(), task);
                     }
                     case SUBTASK -> {
                         SubTask subTask = (SubTask) task;
-                        validateInputTask(subTask);
-                        prioritizedTasks.put(subTask.getStartTime(), subTask);
+                        validateStartTime(subTask);
+                        scheduledTasks.add(subTask);
                         subTaskStorage.put(subTask.getId(), subTask);
                     }
                     case EPIC -> epicStorage.put(task.getId(), (Epic) task);
@@ -207,16 +309,82 @@ public class FileBackedTaskManager extends InMemoryManager {
                     maxTaskId = taskId;
                 }
             }
-            getSubTasks().forEach(subTask -> Optional.ofNullable(epicStorage.get(subTask.getEpicId()))
+            ScheduleValidator.validate(scheduledTasks);
+            scheduledTasks.forEach(task -> prioritizedTasks.put(task.getStartTime(), task));
+            subTaskStorage.values().forEach(subTask -> Optional.ofNullable(epicStorage.get(subTask.getEpicId()))
                     .ifPresent(epic -> epic.addSubTaskId(subTask.getId())));
-            getEpics().forEach(epic -> updateEpicTime(epic.getId()));
 
             String historyLine = reader.readLine();
             HistoryConverter.fromString(historyLine).forEach(this::insertHistory);
+            // В файлах, записанных до появления зависимостей, этой строки нет.
+            String dependencyLine = reader.readLine();
+            DependencyConverter.fromString(dependencyLine).forEach(edge -> dependencies.addEdge(edge[0], edge[1]));
+            /*
+             Эпики пересчитываются один раз, когда граф зависимостей уже восстановлен, параллельно и без блокировок:
+             каждый поток пишет только поля своего эпика, а хранилища и граф в это время только читаются. Снимок еще
+             не опубликован, поэтому эпики никто не читает, а в ленту изменений и индекс синхронизации загрузка
+             не пишет ни для задач, ни для эпиков, ни для зависимостей.
+             */
+            stream(epicStorage.values()).forEach(this::recalculateEpicTime);
         } catch (IOException | NullPointerException | IllegalArgumentException exception) {
             throw new ManagerLoadException("Error while loading tasks from file", exception);
         }
         super.id = maxTaskId;
+        indexLoadedTasks();
+        publishSnapshot();
+        long elapsed = loadTimer.stop(start);
+        if (elapsed > 0) {
+            loadRowsPerSecond.set(rowCount * 1e9 / elapsed);
+        }
+    }
+
+    // Строки задач от заголовка до пустой строки перед историей. Поле в кавычках может занимать несколько строк.
+    static List<String> readRows(CsvLineReader reader) throws IOException {
+        reader.readLine(); // skip header
+        List<String> rows = new ArrayList<>();
+        String line;
+        while (!(line = readLine(reader)).isEmpty()) {
+            // Кавычки разбираются только в новых строках, уже прочитанная часть записи не просматривается.
+            boolean open = CsvReader.isQuoteOpen(line, false);
+            if (!open) {
+                rows.add(line);
+                continue;
+            }
+            StringBuilder row = new StringBuilder(line);
+            while (open) {
+                String terminator = reader.getTerminator();
+                line = readLine(reader);
+                row.append(terminator).append(line);
+                open = CsvReader.isQuoteOpen(line, true);
+            }
+            rows.add(row.toString());
+        }
+        return rows;
+    }
+
+    private static String readLine(CsvLineReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            throw new ManagerLoadException("Unexpected end of file: task rows or a quoted field are not closed",
+                    null);
+        }
+        return line;
+    }
+
+    static Task parseRow(String row) {
+        CsvReader reader = READERS.get();
+        TaskType type = parseType(reader.reset(row));
+        return CONVERTERS.get(type).read(reader.reset(row));
+    }
+
+    private List<Task> parseRows(List<String> rows) {
+        return stream(rows)
+                .map(FileBackedTaskManager::parseRow)
+                .toList();
+    }
+
+    private static <T> Stream<T> stream(Collection<T> items) {
+        return items.size() >= PARALLEL_LOAD_THRESHOLD ? items.parallelStream() : items.stream();
     }
 
     private void insertHistory(int taskId) {
@@ -0,0 +1,89 @@
+package service;
+
+import exception.ValidationException;
+import model.FreeSlot;
+import model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/*
+ Поиск свободных окон по расписанию, упорядоченному по времени начала. Задачи в расписании не пересекаются,
+ поэтому notBefore может занимать только последняя задача, начавшаяся не позже него. Дальше окна идут между
+ соседними задачами: O(log n) на поиск начала и по шагу на каждое просмотренное окно.
+ */
+public class FreeSlotFinder {
+
+    // Расписание с доступом по индексу: начало ищется двоичным поиском.
+    public static List<FreeSlot> find(List<Task> schedule, Duration duration, LocalDateTime notBefore,
+                                      LocalDateTime notAfter, int limit) {
+        int low = 0;
+        int high = schedule.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (schedule.get(middle).getStartTime().isAfter(notBefore)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        Task previous = low > 0 ? schedule.get(low - 1) : null;
+        return find(previous, schedule.subList(low, schedule.size()).iterator(), duration, notBefore, notAfter,
+                limit);
+    }
+
+    /*
+     previous - последняя задача, начавшаяся не позже notBefore, following - задачи после нее по времени начала.
+     notAfter ограничивает конец задачи, null - без ограничения.
+     */
+    public static List<FreeSlot> find(Task previous, Iterator<Task> following, Duration duration,
+                                      LocalDateTime notBefore, LocalDateTime notAfter, int limit) {
+        validate(duration, notBefore, notAfter);
+        List<FreeSlot> slots = new ArrayList<>();
+        LocalDateTime candidate = previous == null ? notBefore : later(notBefore, afterEnd(previous));
+        while (slots.size() < limit && (notAfter == null || !candidate.plus(duration).isAfter(notAfter))) {
+            Task next = following.hasNext() ? following.next() : null;
+            LocalDateTime gapEnd = next == null ? notAfter : earlier(beforeStart(next), notAfter);
+            if (gapEnd == null || !candidate.plus(duration).isAfter(gapEnd)) {
+                slots.add(new FreeSlot(candidate, gapEnd));
+            }
+            if (next == null) {
+                break;
+            }
+            candidate = later(candidate, afterEnd(next));
+        }
+        return slots;
+    }
+
+    private static void validate(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter) {
+        if (duration == null || notBefore == null) {
+            throw new NullPointerException("Duration and notBefore cannot be null.");
+        }
+        if (duration.isNegative()) {
+            throw new ValidationException("Duration cannot be negative.");
+        }
+        if (notAfter != null && notAfter.isBefore(notBefore)) {
+            throw new ValidationException("notAfter cannot be before notBefore.");
+        }
+    }
+
+    // Интервалы задач замкнуты, поэтому окно начинается через наносекунду после конца задачи.
+    private static LocalDateTime afterEnd(Task task) {
+        return task.getEndTime().plusNanos(1);
+    }
+
+    private static LocalDateTime beforeStart(Task task) {
+        return task.getStartTime().minusNanos(1);
+    }
+
+    private static LocalDateTime later(LocalDateTime first, LocalDateTime second) {
+        return first.isAfter(second) ? first : second;
+    }
+
+    private static LocalDateTime earlier(LocalDateTime first, LocalDateTime second) {
+        return second == null || first.isBefore(second) ? first : second;
+    }
+}
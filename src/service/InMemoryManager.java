@@ -2,37 +2,80 @@ package service;
 
 import exception.NotFoundException;
 import exception.ValidationException;
+import metrics.OperationMetrics;
+import model.CalendarDay;
+import model.ChangeType;
 import model.Epic;
+import model.FreeSlot;
 import model.SubTask;
 import model.Task;
 import model.TaskStatus;
+import model.TaskType;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.TreeMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 public class InMemoryManager implements TaskManager {
-    protected final Map<Integer, Epic> epicStorage;
-    protected final Map<Integer, SubTask> subTaskStorage;
-    protected final Map<Integer, Task> taskStorage;
+    protected final SnapshotMap<Integer, Epic> epicStorage;
+    protected final SnapshotMap<Integer, SubTask> subTaskStorage;
+    protected final SnapshotMap<Integer, Task> taskStorage;
     protected int id;
     protected final HistoryManager historyManager;
-    protected final Map<LocalDateTime, Task> prioritizedTasks;
+    protected final ScheduleMap prioritizedTasks;
+    // Писатель публикует снимок после каждой операции, читатели списков берут его без блокировок и копирования.
+    private final AtomicReference<Snapshot> snapshot;
+    private int batchDepth;
+    private final ChangeFeed changeFeed;
+    private final long[] versions;
+    private final SyncIndex syncIndex;
+    private final SearchIndex searchIndex;
+    // Задачи, измененные после прошлого снимка: индекс поиска обновляется по ним при публикации следующего.
+    private final Map<Integer, TaskType> searchChanges = new LinkedHashMap<>();
+    protected final DependencyGraph dependencies;
+    private OperationMetrics.Timer overlapValidationTimer;
+    private OperationMetrics.Timer scheduleValidationTimer;
+    private OperationMetrics.Timer epicStatusTimer;
+    private OperationMetrics.Timer epicTimeTimer;
 
     public InMemoryManager(HistoryManager historyManager) {
         this.historyManager = historyManager;
-        this.epicStorage = new HashMap<>();
-        this.subTaskStorage = new HashMap<>();
-        this.taskStorage = new HashMap<>();
+        this.epicStorage = new SnapshotMap<>();
+        this.subTaskStorage = new SnapshotMap<>();
+        this.taskStorage = new SnapshotMap<>();
         this.id = 0;
-        this.prioritizedTasks = new TreeMap<>();
+        this.prioritizedTasks = new ScheduleMap();
+        this.snapshot = new AtomicReference<>(Snapshot.EMPTY);
+        this.changeFeed = new ChangeFeed(ChangeFeed.DEFAULT_CAPACITY);
+        this.versions = new long[TaskType.values().length];
+        this.syncIndex = new SyncIndex(SyncIndex.DEFAULT_TOMBSTONE_RETENTION);
+        this.searchIndex = new SearchIndex();
+        this.dependencies = new DependencyGraph(taskId -> taskStorage.containsKey(taskId)
+                ? taskStorage.get(taskId)
+                : subTaskStorage.get(taskId));
+        registerTimers(OperationMetrics.DISABLED);
+    }
+
+    public void setMetrics(OperationMetrics metrics) {
+        registerTimers(metrics);
+    }
+
+    private void registerTimers(OperationMetrics metrics) {
+        this.overlapValidationTimer = metrics.timer("task_manager_validation_seconds", "mode=\"single\"");
+        this.scheduleValidationTimer = metrics.timer("task_manager_validation_seconds", "mode=\"batch\"");
+        this.epicStatusTimer = metrics.timer("task_manager_epic_recalculation_seconds", "part=\"status\"");
+        this.epicTimeTimer = metrics.timer("task_manager_epic_recalculation_seconds", "part=\"time\"");
     }
 
     @Override
@@ -45,11 +88,8 @@ public class InMemoryManager implements TaskManager {
     @Override
     public int createTask(Task task) {
         validateInputTask(task);
-        int newTaskId = getNextId();
-        task.setId(newTaskId);
-        task.setStatus(TaskStatus.NEW);
-        prioritizedTasks.put(task.getStartTime(), task);
-        taskStorage.put(newTaskId, task);
+        int newTaskId = putNewTask(task);
+        publishSnapshot();
         return newTaskId;
     }
 
@@ -63,7 +103,9 @@ public class InMemoryManager implements TaskManager {
                     prioritizedTasks.remove(prevStartTime);
                     taskStorage.put(taskId, task);
                     prioritizedTasks.put(task.getStartTime(), task);
+                    recordChange(ChangeType.UPDATED, TaskType.TASK, taskId);
                 }, () -> createTask(task));
+        publishSnapshot();
     }
 
     @Override
@@ -71,8 +113,10 @@ public class InMemoryManager implements TaskManager {
         taskStorage.values().forEach(task -> {
             historyManager.remove(task.getId());
             prioritizedTasks.remove(task.getStartTime());
+            recordChange(ChangeType.DELETED, TaskType.TASK, task.getId());
         });
         taskStorage.clear();
+        publishSnapshot();
     }
 
     @Override
@@ -82,6 +126,8 @@ public class InMemoryManager implements TaskManager {
         prioritizedTasks.remove(original.getStartTime());
         historyManager.remove(taskId);
         taskStorage.remove(taskId);
+        recordChange(ChangeType.DELETED, TaskType.TASK, taskId);
+        publishSnapshot();
     }
 
     @Override
@@ -94,7 +140,7 @@ public class InMemoryManager implements TaskManager {
 
     @Override
     public List<Task> getTasks() {
-        return new ArrayList<>(taskStorage.values());
+        return snapshot.get().getTasks();
     }
 
     //Subtask
@@ -102,16 +148,12 @@ public class InMemoryManager implements TaskManager {
     public int createSubTask(SubTask subTask) {
         validateInputTask(subTask);
         int epicId = subTask.getEpicId();
-        Epic epic = epicStorage.get(epicId);
-        Optional.ofNullable(epic).orElseThrow(() -> new NotFoundException("Epic with id " + epicId + " not found."));
-        int newSubtaskId = getNextId();
-        subTask.setId(newSubtaskId);
-        subTask.setStatus(TaskStatus.NEW);
-        epic.addSubTaskId(newSubtaskId);
-        subTaskStorage.put(newSubtaskId, subTask);
-        prioritizedTasks.put(subTask.getStartTime(), subTask);
+        Optional.ofNullable(epicStorage.get(epicId))
+                .orElseThrow(() -> new NotFoundException("Epic with id " + epicId + " not found."));
+        int newSubtaskId = putNewSubTask(subTask);
         updateEpicStatus(epicId);
         updateEpicTime(epicId);
+        publishSnapshot();
         return newSubtaskId;
     }
 
@@ -127,11 +169,13 @@ public class InMemoryManager implements TaskManager {
                             prioritizedTasks.remove(prevStartTime);
                             prioritizedTasks.put(subTask.getStartTime(), subTask);
                             subTaskStorage.put(subTaskId, subTask);
+                            recordChange(ChangeType.UPDATED, TaskType.SUBTASK, subTaskId);
                             updateEpicStatus(epicId);
                             updateEpicTime(epicId);
                         },
                         () -> createSubTask(subTask)
                 );
+        publishSnapshot();
     }
 
     @Override
@@ -140,18 +184,20 @@ public class InMemoryManager implements TaskManager {
         Optional.ofNullable(original).orElseThrow(() ->
                 new NotFoundException("SubTask with id " + subTaskId + " not found."));
         LocalDateTime prevStartTime = original.getStartTime();
-        Epic epic = epicStorage.get(original.getEpicId());
+        Epic epic = editEpic(original.getEpicId());
         subTaskStorage.remove(subTaskId);
         epic.removeSubTask(subTaskId);
         historyManager.remove(subTaskId);
         prioritizedTasks.remove(prevStartTime);
+        recordChange(ChangeType.DELETED, TaskType.SUBTASK, subTaskId);
         updateEpicStatus(epic.getId());
         updateEpicTime(epic.getId());
+        publishSnapshot();
     }
 
     @Override
     public List<SubTask> getSubTasks() {
-        return new ArrayList<>(subTaskStorage.values());
+        return snapshot.get().getSubTasks();
     }
 
     @Override
@@ -168,13 +214,15 @@ public class InMemoryManager implements TaskManager {
         subTaskStorage.values().forEach(subTask -> {
             historyManager.remove(subTask.getId());
             prioritizedTasks.remove(subTask.getStartTime());
+            recordChange(ChangeType.DELETED, TaskType.SUBTASK, subTask.getId());
         });
-        epicStorage.values().forEach(epic -> {
-            epic.cleanSubTaskIds();
-            updateEpicStatus(epic.getId());
-            updateEpicTime(epic.getId());
+        List.copyOf(epicStorage.keySet()).forEach(epicId -> {
+            editEpic(epicId).cleanSubTaskIds();
+            updateEpicStatus(epicId);
+            updateEpicTime(epicId);
         });
         subTaskStorage.clear();
+        publishSnapshot();
     }
 
     @Override
@@ -194,12 +242,14 @@ public class InMemoryManager implements TaskManager {
         epic.setId(newEpicId);
         epic.setStatus(TaskStatus.NEW);
         epicStorage.put(newEpicId, epic);
+        recordChange(ChangeType.CREATED, TaskType.EPIC, newEpicId);
+        publishSnapshot();
         return newEpicId;
     }
 
     @Override
     public List<Epic> getEpics() {
-        return new ArrayList<>(epicStorage.values());
+        return snapshot.get().getEpics();
     }
 
     @Override
@@ -215,12 +265,15 @@ public class InMemoryManager implements TaskManager {
         epicStorage.keySet().forEach(epicId -> {
             getSubtasksOfEpic(epicId).stream()
                     .peek(subTask -> historyManager.remove(subTask.getId()))
+                    .peek(subTask -> recordChange(ChangeType.DELETED, TaskType.SUBTASK, subTask.getId()))
                     .map(SubTask::getStartTime)
                     .forEach(prioritizedTasks::remove);
             historyManager.remove(epicId);
+            recordChange(ChangeType.DELETED, TaskType.EPIC, epicId);
         });
         epicStorage.clear();
         subTaskStorage.clear();
+        publishSnapshot();
     }
 
     @Override
@@ -234,10 +287,13 @@ public class InMemoryManager implements TaskManager {
                             prioritizedTasks.remove(task.getStartTime());
                             subTaskStorage.remove(task.getId());
                             historyManager.remove(task.getId());
+                            recordChange(ChangeType.DELETED, TaskType.SUBTASK, task.getId());
                         }));
 
         epicStorage.remove(epicId);
         historyManager.remove(epicId);
+        recordChange(ChangeType.DELETED, TaskType.EPIC, epicId);
+        publishSnapshot();
     }
 
     @Override
@@ -245,28 +301,303 @@ public class InMemoryManager implements TaskManager {
         Optional.ofNullable(epic).orElseThrow(() -> new NullPointerException("Epic cannot be null"));
         Optional.ofNullable(epicStorage.get(epic.getId()))
                 .ifPresentOrElse(originalEpic -> {
-                            originalEpic.setName(epic.getName());
-                            originalEpic.setDescription(epic.getDescription());
+                            Epic edited = editEpic(originalEpic.getId());
+                            edited.setName(epic.getName());
+                            edited.setDescription(epic.getDescription());
+                            recordChange(ChangeType.UPDATED, TaskType.EPIC, edited.getId());
                         },
                         () -> createEpic(epic)
                 );
+        publishSnapshot();
+    }
+
+    //Import
+    public List<Integer> importTasks(List<? extends Task> tasks) {
+        Optional.ofNullable(tasks).orElseThrow(() -> new NullPointerException("Tasks cannot be null."));
+        for (Task task : tasks) {
+            validateStartTime(task);
+            if (task instanceof SubTask subTask && !epicStorage.containsKey(subTask.getEpicId())) {
+                throw new NotFoundException("Epic with id " + subTask.getEpicId() + " not found.");
+            }
+        }
+        List<Task> schedule = new ArrayList<>(prioritizedTasks.values());
+        schedule.addAll(tasks);
+        long validationStart = scheduleValidationTimer.start();
+        ScheduleValidator.validate(schedule);
+        scheduleValidationTimer.stop(validationStart);
+
+        List<Integer> newIds = new ArrayList<>(tasks.size());
+        Set<Integer> affectedEpicIds = new HashSet<>();
+        for (Task task : tasks) {
+            if (task instanceof SubTask subTask) {
+                newIds.add(putNewSubTask(subTask));
+                affectedEpicIds.add(subTask.getEpicId());
+            } else {
+                newIds.add(putNewTask(task));
+            }
+        }
+        affectedEpicIds.forEach(epicId -> {
+            updateEpicStatus(epicId);
+            updateEpicTime(epicId);
+        });
+        publishSnapshot();
+        return newIds;
+    }
+
+    /*
+     Задачи без времени начала расставляются по свободным окнам после notBefore и сохраняются одной пачкой
+     через importTasks: одна проверка расписания, один снимок, одно сохранение файла.
+     Если пачка не сохранилась (нет эпика, менеджер только для чтения), задачам возвращается прежнее время.
+     */
+    public List<Integer> autoSchedule(List<AutoScheduler.Request> requests, LocalDateTime notBefore) {
+        Optional.ofNullable(requests).orElseThrow(() -> new NullPointerException("Requests cannot be null."));
+        List<Task> tasks = requests.stream().map(AutoScheduler.Request::task).toList();
+        List<LocalDateTime> startTimes = tasks.stream().map(Task::getStartTime).toList();
+        AutoScheduler.plan(findFreeSlots(Duration.ZERO, notBefore, null, Integer.MAX_VALUE), requests);
+        try {
+            return importTasks(tasks);
+        } catch (RuntimeException e) {
+            for (int i = 0; i < tasks.size(); i++) {
+                tasks.get(i).setStartTime(startTimes.get(i));
+            }
+            throw e;
+        }
+    }
+
+    //Dependencies
+    @Override
+    public void addDependency(int taskId, int dependsOnId) {
+        requireTaskOrSubTask(taskId);
+        requireTaskOrSubTask(dependsOnId);
+        updateEpicTimes(dependencies.addEdge(dependsOnId, taskId));
+        publishSnapshot();
+    }
+
+    @Override
+    public void removeDependency(int taskId, int dependsOnId) {
+        updateEpicTimes(dependencies.removeEdge(dependsOnId, taskId));
+        publishSnapshot();
+    }
+
+    @Override
+    public List<Integer> getDependencies(int taskId) {
+        requireTaskOrSubTask(taskId);
+        return dependencies.getDependencies(taskId);
+    }
+
+    @Override
+    public List<SubTask> getSubtasksOfEpicInOrder(int epicId) {
+        return dependencies.sort(getSubtasksOfEpic(epicId));
+    }
+
+    private void requireTaskOrSubTask(int taskId) {
+        if (!taskStorage.containsKey(taskId) && !subTaskStorage.containsKey(taskId)) {
+            throw new NotFoundException("Task or subtask with id " + taskId + " not found.");
+        }
+    }
+
+    // Критический путь эпика - часть его времени, поэтому эпики задач с изменившейся цепочкой пересчитываются.
+    protected void updateEpicTimes(Set<Integer> changedTaskIds) {
+        changedTaskIds.stream()
+                .map(subTaskStorage::get)
+                .filter(Objects::nonNull)
+                .map(SubTask::getEpicId)
+                .distinct()
+                .forEach(this::updateEpicTime);
     }
 
     //History
     @Override
     public List<Task> getHistory() {
-        return historyManager.getHistory();
+        // История держит эпик таким, каким его смотрели, а эпик копируется перед изменением (см. editEpic),
+        // поэтому эпики берутся из хранилища.
+        return historyManager.getHistory().stream()
+                .map(task -> task instanceof Epic ? epicStorage.get(task.getId()) : task)
+                .toList();
     }
 
     public List<Task> getPrioritizedTasks() {
-        return new ArrayList<>(prioritizedTasks.values());
+        return snapshot.get().getPrioritizedTasks();
+    }
+
+    // Окна ищутся по индексу расписания из снимка, поэтому поиск не требует блокировки менеджера.
+    @Override
+    public List<FreeSlot> findFreeSlots(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter,
+                                        int limit) {
+        PersistentSortedMap<LocalDateTime, Task> schedule = snapshot.get().prioritized();
+        Objects.requireNonNull(notBefore, "notBefore cannot be null.");
+        Map.Entry<LocalDateTime, Task> previous = schedule.floorEntry(notBefore);
+        Iterator<Map.Entry<LocalDateTime, Task>> following = schedule.entryIteratorAfter(notBefore);
+        return FreeSlotFinder.find(previous == null ? null : previous.getValue(), new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return following.hasNext();
+            }
+
+            @Override
+            public Task next() {
+                return following.next().getValue();
+            }
+        }, duration, notBefore, notAfter, limit);
+    }
+
+    // Итоги дней хранит календарь расписания, он правится при каждой вставке и удалении задачи.
+    @Override
+    public List<CalendarDay> getCalendar(LocalDate from, LocalDate to) {
+        return ScheduleMap.getCalendar(snapshot.get().calendar(), from, to);
+    }
+
+    @Override
+    public List<Task> getTasksOfDay(LocalDate date) {
+        return ScheduleMap.getTasksOfDay(snapshot.get().prioritized(), date);
+    }
+
+    /*
+     Индекс обновляется писателем при публикации снимка, поэтому поиск не берет блокировку менеджера и не ждет
+     записей, а только монитор индекса на время его обновления. Найденные задачи - объекты из снимков.
+     */
+    @Override
+    public List<Task> search(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    @Override
+    public TaskView getReadView() {
+        return snapshot.get();
+    }
+
+    @Override
+    public boolean hasSnapshotReads() {
+        return true;
+    }
+
+    @Override
+    public long getVersion(TaskType type) {
+        return snapshot.get().getVersion(type);
+    }
+
+    @Override
+    public ChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    @Override
+    public SyncDelta getChangesSince(long since) {
+        long version = changeFeed.getLastSequence();
+        List<SyncIndex.Tombstone> deleted = syncIndex.deletedSince(since);
+        List<Task> tasks = new ArrayList<>();
+        List<SubTask> subTasks = new ArrayList<>();
+        List<Epic> epics = new ArrayList<>();
+        for (int taskId : syncIndex.modifiedSince(since)) {
+            if (taskStorage.containsKey(taskId)) {
+                tasks.add(taskStorage.get(taskId));
+            } else if (subTaskStorage.containsKey(taskId)) {
+                subTasks.add(subTaskStorage.get(taskId));
+            } else if (epicStorage.containsKey(taskId)) {
+                epics.add(epicStorage.get(taskId));
+            }
+        }
+        return new SyncDelta(version, tasks, subTasks, epics, deleted);
+    }
+
+    // Версия коллекции - номер последнего события в ленте изменений по задачам этого типа.
+    protected void recordChange(ChangeType change, TaskType type, int taskId) {
+        // Эпики пересчитывают свое время сами после изменения подзадачи, здесь обновляются только цепочки.
+        if (type != TaskType.EPIC && change == ChangeType.DELETED) {
+            dependencies.removeNode(taskId);
+        } else if (type != TaskType.EPIC && change == ChangeType.UPDATED) {
+            dependencies.refresh(taskId);
+        }
+        long sequence = changeFeed.publish(change, type, taskId);
+        versions[type.ordinal()] = sequence;
+        syncIndex.record(change, type, taskId, sequence);
+        searchChanges.put(taskId, type);
+    }
+
+    // Загрузка не пишет в ленту изменений, поэтому загруженные задачи отдаются индексу поиска отдельно.
+    protected void indexLoadedTasks() {
+        taskStorage.values().forEach(task -> searchChanges.put(task.getId(), TaskType.TASK));
+        subTaskStorage.values().forEach(subTask -> searchChanges.put(subTask.getId(), TaskType.SUBTASK));
+        epicStorage.values().forEach(epic -> searchChanges.put(epic.getId(), TaskType.EPIC));
+    }
+
+    @Override
+    public void runBatch(Runnable batch) {
+        batchDepth++;
+        try {
+            batch.run();
+        } finally {
+            batchDepth--;
+            publishSnapshot();
+        }
+    }
+
+    protected boolean isInBatch() {
+        return batchDepth > 0;
+    }
+
+    /*
+     Эпик для изменения на месте. Эпики из опубликованного снимка читаются без блокировки и поэтому не меняются:
+     в хранилище кладется копия, и до следующего снимка меняется уже она.
+     */
+    protected Epic editEpic(int epicId) {
+        Epic epic = epicStorage.get(epicId);
+        if (epic == null || snapshot.get().epics().get(epicId) != epic) {
+            return epic;
+        }
+        Epic copy = new Epic(epic);
+        epicStorage.put(epicId, copy);
+        return copy;
+    }
+
+    // Внутри пачки снимок публикуется один раз, после последней операции.
+    protected void publishSnapshot() {
+        if (isInBatch()) {
+            return;
+        }
+        Snapshot published = new Snapshot(changeFeed.getLastSequence(), versions.clone(), taskStorage.snapshot(),
+                subTaskStorage.snapshot(), epicStorage.snapshot(), prioritizedTasks.snapshot(),
+                prioritizedTasks.calendar());
+        snapshot.set(published);
+        if (!searchChanges.isEmpty()) {
+            searchIndex.apply(published, searchChanges);
+            searchChanges.clear();
+        }
+    }
+
+    private int putNewTask(Task task) {
+        int newTaskId = getNextId();
+        task.setId(newTaskId);
+        task.setStatus(TaskStatus.NEW);
+        prioritizedTasks.put(task.getStartTime(), task);
+        taskStorage.put(newTaskId, task);
+        recordChange(ChangeType.CREATED, TaskType.TASK, newTaskId);
+        return newTaskId;
+    }
+
+    private int putNewSubTask(SubTask subTask) {
+        int newSubtaskId = getNextId();
+        subTask.setId(newSubtaskId);
+        subTask.setStatus(TaskStatus.NEW);
+        editEpic(subTask.getEpicId()).addSubTaskId(newSubtaskId);
+        subTaskStorage.put(newSubtaskId, subTask);
+        prioritizedTasks.put(subTask.getStartTime(), subTask);
+        recordChange(ChangeType.CREATED, TaskType.SUBTASK, newSubtaskId);
+        return newSubtaskId;
     }
 
     protected void updateEpicStatus(int epicId) {
+        long start = epicStatusTimer.start();
         Epic epic = epicStorage.get(epicId);
-        List<Integer> subTaskIds = epic.getSubTaskIds();
-        TaskStatus newStatus = recalculateEpicStatus(subTaskIds);
-        epic.setStatus(newStatus);
+        TaskStatus newStatus = recalculateEpicStatus(epic.getSubTaskIds());
+        if (newStatus != epic.getStatus()) {
+            editEpic(epicId).setStatus(newStatus);
+        }
+        epicStatusTimer.stop(start);
 
     }
 
@@ -294,18 +625,34 @@ public class InMemoryManager implements TaskManager {
 
 
     protected void updateEpicTime(int epicId) {
-        Epic epic = epicStorage.get(epicId);
-        List<SubTask> childSubTasks = getSubtasksOfEpic(epicId);
+        long start = epicTimeTimer.start();
+        try {
+            recalculateEpicTime(editEpic(epicId));
+            recordChange(ChangeType.UPDATED, TaskType.EPIC, epicId);
+        } finally {
+            epicTimeTimer.stop(start);
+        }
+    }
+
+    // Меняет только поля самого эпика, хранилища и граф зависимостей только читаются.
+    protected void recalculateEpicTime(Epic epic) {
+        List<SubTask> childSubTasks = epic.getSubTaskIds().stream().map(subTaskStorage::get).toList();
         if (childSubTasks.isEmpty()) {
             epic.setStartTime(null);
             epic.setEndTime(null);
             epic.setDuration(null);
+            epic.setCriticalPath(null);
             return;
         }
         LocalDateTime minStartTime = LocalDateTime.MAX;
         LocalDateTime maxEndTime = LocalDateTime.MIN;
         Duration sumOfDuration = Duration.ZERO;
+        Duration criticalPath = Duration.ZERO;
         for (SubTask subTask : childSubTasks) {
+            Duration chain = dependencies.getLongestChain(subTask);
+            if (chain.compareTo(criticalPath) > 0) {
+                criticalPath = chain;
+            }
             if (minStartTime.isAfter(subTask.getStartTime())) {
                 minStartTime = subTask.getStartTime();
             }
@@ -317,6 +664,7 @@ public class InMemoryManager implements TaskManager {
         epic.setStartTime(minStartTime);
         epic.setEndTime(maxEndTime);
         epic.setDuration(sumOfDuration);
+        epic.setCriticalPath(criticalPath);
     }
 
     private <T extends Task> boolean isOverlapInExecutionTime(T first, T second) {
@@ -326,24 +674,44 @@ public class InMemoryManager implements TaskManager {
          то интервалы пересекаются.
          */
         // Проверка, что первый интервал не заканчивается до начала второго
-        boolean firstNotEndBeforeSecondStarts = !first.getStartTime().isAfter(second.getEndTime());
+        boolean firstNotEndBeforeSecondStarts = !isAfter(first.getStartSecond(), first.getStartNano(),
+                second.getEndSecond(), second.getEndNano());
         // Проверка, что второй интервал не заканчивается до начала первого
-        boolean secondNotEndBeforeFirstStarts = !second.getStartTime().isAfter(first.getEndTime());
+        boolean secondNotEndBeforeFirstStarts = !isAfter(second.getStartSecond(), second.getStartNano(),
+                first.getEndSecond(), first.getEndNano());
 
         // Интервалы пересекаются, если первый интервал не заканчивается до начала второго
         // и второй интервал не заканчивается до начала первого
         return firstNotEndBeforeSecondStarts && secondNotEndBeforeFirstStarts;
     }
 
+    private static boolean isAfter(long second, int nano, long otherSecond, int otherNano) {
+        return second > otherSecond || (second == otherSecond && nano > otherNano);
+    }
+
     protected <T extends Task> void validateInputTask(T task) {
-        Optional.ofNullable(task).orElseThrow(() -> new NullPointerException("Task cannot be null."));
-        Optional.ofNullable(task.getStartTime()).orElseThrow(() ->
-                new ValidationException("StartTime cannot be null."));
+        validateStartTime(task);
         validateOverlapExecutionTime(task);
     }
 
+    protected <T extends Task> void validateStartTime(T task) {
+        Optional.ofNullable(task).orElseThrow(() -> new NullPointerException("Task cannot be null."));
+        if (!task.hasStartTime()) {
+            throw new ValidationException("StartTime cannot be null.");
+        }
+    }
+
     private void validateOverlapExecutionTime(Task task) {
-        getPrioritizedTasks().stream()
+        long start = overlapValidationTimer.start();
+        try {
+            findOverlap(task);
+        } finally {
+            overlapValidationTimer.stop(start);
+        }
+    }
+
+    private void findOverlap(Task task) {
+        prioritizedTasks.values().stream()
                 .filter(savedTask -> !(task.equals(savedTask)))
                 .filter(savedTask -> isOverlapInExecutionTime(task, savedTask))
                 .findAny()
@@ -0,0 +1,54 @@
+package service;
+
+import metrics.OperationMetrics;
+import model.Task;
+
+import java.util.List;
+
+public class InstrumentedHistoryManager implements HistoryManager {
+    private final HistoryManager delegate;
+    private final OperationMetrics.Timer addTimer;
+    private final OperationMetrics.Timer removeTimer;
+    private final OperationMetrics.Timer getHistoryTimer;
+    private final OperationMetrics.Gauge size;
+
+    public InstrumentedHistoryManager(HistoryManager delegate, OperationMetrics metrics) {
+        this.delegate = delegate;
+        this.addTimer = metrics.timer("history_manager_operation_seconds", "operation=\"add\"");
+        this.removeTimer = metrics.timer("history_manager_operation_seconds", "operation=\"remove\"");
+        this.getHistoryTimer = metrics.timer("history_manager_operation_seconds", "operation=\"getHistory\"");
+        this.size = metrics.gauge("history_manager_size", "");
+    }
+
+    @Override
+    public void add(Task task) {
+        long start = addTimer.start();
+        try {
+            delegate.add(task);
+        } finally {
+            addTimer.stop(start);
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        long start = removeTimer.start();
+        try {
+            delegate.remove(id);
+        } finally {
+            removeTimer.stop(start);
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        long start = getHistoryTimer.start();
+        try {
+            List<Task> history = delegate.getHistory();
+            size.set(history.size());
+            return history;
+        } finally {
+            getHistoryTimer.stop(start);
+        }
+    }
+}
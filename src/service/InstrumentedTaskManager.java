@@ -0,0 +1,410 @@
+package service;
+
+import metrics.OperationMetrics;
+import model.CalendarDay;
+import model.Epic;
+import model.FreeSlot;
+import model.SubTask;
+import model.Task;
+import model.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Декоратор, который замеряет время каждой операции TaskManager.
+public class InstrumentedTaskManager implements TaskManager {
+    private static final String OPERATION_SECONDS = "task_manager_operation_seconds";
+    private final TaskManager delegate;
+    private final OperationMetrics.Timer createTaskTimer;
+    private final OperationMetrics.Timer createSubTaskTimer;
+    private final OperationMetrics.Timer createEpicTimer;
+    private final OperationMetrics.Timer getTasksTimer;
+    private final OperationMetrics.Timer getSubTasksTimer;
+    private final OperationMetrics.Timer getEpicsTimer;
+    private final OperationMetrics.Timer getTaskTimer;
+    private final OperationMetrics.Timer getSubTaskTimer;
+    private final OperationMetrics.Timer getEpicTimer;
+    private final OperationMetrics.Timer getSubtasksOfEpicTimer;
+    private final OperationMetrics.Timer getHistoryTimer;
+    private final OperationMetrics.Timer deleteTasksTimer;
+    private final OperationMetrics.Timer deleteSubTasksTimer;
+    private final OperationMetrics.Timer deleteEpicsTimer;
+    private final OperationMetrics.Timer deleteTaskTimer;
+    private final OperationMetrics.Timer deleteSubTaskTimer;
+    private final OperationMetrics.Timer deleteEpicTimer;
+    private final OperationMetrics.Timer updateTaskTimer;
+    private final OperationMetrics.Timer updateSubTaskTimer;
+    private final OperationMetrics.Timer updateEpicTimer;
+    private final OperationMetrics.Timer getPrioritizedTasksTimer;
+    private final OperationMetrics.Timer getChangesSinceTimer;
+    private final OperationMetrics.Timer findFreeSlotsTimer;
+    private final OperationMetrics.Timer getCalendarTimer;
+    private final OperationMetrics.Timer getTasksOfDayTimer;
+    private final OperationMetrics.Timer searchTimer;
+    private final OperationMetrics.Timer addDependencyTimer;
+    private final OperationMetrics.Timer removeDependencyTimer;
+
+    public InstrumentedTaskManager(TaskManager delegate, OperationMetrics metrics) {
+        this.delegate = delegate;
+        this.createTaskTimer = timer(metrics, "createTask");
+        this.createSubTaskTimer = timer(metrics, "createSubTask");
+        this.createEpicTimer = timer(metrics, "createEpic");
+        this.getTasksTimer = timer(metrics, "getTasks");
+        this.getSubTasksTimer = timer(metrics, "getSubTasks");
+        this.getEpicsTimer = timer(metrics, "getEpics");
+        this.getTaskTimer = timer(metrics, "getTask");
+        this.getSubTaskTimer = timer(metrics, "getSubTask");
+        this.getEpicTimer = timer(metrics, "getEpic");
+        this.getSubtasksOfEpicTimer = timer(metrics, "getSubtasksOfEpic");
+        this.getHistoryTimer = timer(metrics, "getHistory");
+        this.deleteTasksTimer = timer(metrics, "deleteTasks");
+        this.deleteSubTasksTimer = timer(metrics, "deleteSubTasks");
+        this.deleteEpicsTimer = timer(metrics, "deleteEpics");
+        this.deleteTaskTimer = timer(metrics, "deleteTask");
+        this.deleteSubTaskTimer = timer(metrics, "deleteSubTask");
+        this.deleteEpicTimer = timer(metrics, "deleteEpic");
+        this.updateTaskTimer = timer(metrics, "updateTask");
+        this.updateSubTaskTimer = timer(metrics, "updateSubTask");
+        this.updateEpicTimer = timer(metrics, "updateEpic");
+        this.getPrioritizedTasksTimer = timer(metrics, "getPrioritizedTasks");
+        this.getChangesSinceTimer = timer(metrics, "getChangesSince");
+        this.findFreeSlotsTimer = timer(metrics, "findFreeSlots");
+        this.getCalendarTimer = timer(metrics, "getCalendar");
+        this.getTasksOfDayTimer = timer(metrics, "getTasksOfDay");
+        this.searchTimer = timer(metrics, "search");
+        this.addDependencyTimer = timer(metrics, "addDependency");
+        this.removeDependencyTimer = timer(metrics, "removeDependency");
+    }
+
+    private static OperationMetrics.Timer timer(OperationMetrics metrics, String operation) {
+        return metrics.timer(OPERATION_SECONDS, "operation=\"" + operation + "\"");
+    }
+
+    @Override
+    public int getNextId() {
+        return delegate.getNextId();
+    }
+
+    @Override
+    public int createTask(Task task) {
+        long start = createTaskTimer.start();
+        try {
+            return delegate.createTask(task);
+        } finally {
+            createTaskTimer.stop(start);
+        }
+    }
+
+    @Override
+    public int createSubTask(SubTask subTask) {
+        long start = createSubTaskTimer.start();
+        try {
+            return delegate.createSubTask(subTask);
+        } finally {
+            createSubTaskTimer.stop(start);
+        }
+    }
+
+    @Override
+    public int createEpic(Epic epic) {
+        long start = createEpicTimer.start();
+        try {
+            return delegate.createEpic(epic);
+        } finally {
+            createEpicTimer.stop(start);
+        }
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        long start = getTasksTimer.start();
+        try {
+            return delegate.getTasks();
+        } finally {
+            getTasksTimer.stop(start);
+        }
+    }
+
+    @Override
+    public List<SubTask> getSubTasks() {
+        long start = getSubTasksTimer.start();
+        try {
+            return delegate.getSubTasks();
+        } finally {
+            getSubTasksTimer.stop(start);
+        }
+    }
+
+    @Override
+    public List<Epic> getEpics() {
+        long start = getEpicsTimer.start();
+        try {
+            return delegate.getEpics();
+        } finally {
+            getEpicsTimer.stop(start);
+        }
+    }
+
+    @Override
+    public Task getTask(int taskId) {
+        long start = getTaskTimer.start();
+        try {
+            return delegate.getTask(taskId);
+        } finally {
+            getTaskTimer.stop(start);
+        }
+    }
+
+    @Override
+    public SubTask getSubTask(int subTaskId) {
+        long start = getSubTaskTimer.start();
+        try {
+            return delegate.getSubTask(subTaskId);
+        } finally {
+            getSubTaskTimer.stop(start);
+        }
+    }
+
+    @Override
+    public Epic getEpic(int epicId) {
+        long start = getEpicTimer.start();
+        try {
+            return delegate.getEpic(epicId);
+        } finally {
+            getEpicTimer.stop(start);
+        }
+    }
+
+    @Override
+    public List<SubTask> getSubtasksOfEpic(int epicId) {
+        long start = getSubtasksOfEpicTimer.start();
+        try {
+            return delegate.getSubtasksOfEpic(epicId);
+        } finally {
+            getSubtasksOfEpicTimer.stop(start);
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        long start = getHistoryTimer.start();
+        try {
+            return delegate.getHistory();
+        } finally {
+            getHistoryTimer.stop(start);
+        }
+    }
+
+    @Override
+    public void deleteTasks() {
+        long start = deleteTasksTimer.start();
+        try {
+            delegate.deleteTasks();
+        } finally {
+            deleteTasksTimer.stop(start);
+        }
+    }
+
+    @Override
+    public void deleteSubTasks() {
+        long start = deleteSubTasksTimer.start();
+        try {
+            delegate.deleteSubTasks();
+        } finally {
+            deleteSubTasksTimer.stop(start);
+        }
+    }
+
+    @Override
+    public void deleteEpics() {
+        long start = deleteEpicsTimer.start();
+        try {
+            delegate.deleteEpics();
+        } finally {
+            deleteEpicsTimer.stop(start);
+        }
+    }
+
+    @Override
+    public void deleteTask(int taskId) {
+        long start = deleteTaskTimer.start();
+        try {
+            delegate.deleteTask(taskId);
+        } finally {
+            deleteTaskTimer.stop(start);
+        }
+    }
+
+    @Override
+    public void deleteSubTask(int subTaskId) {
+        long start = deleteSubTaskTimer.start();
+        try {
+            delegate.deleteSubTask(subTaskId);
+        } finally {
+            deleteSubTaskTimer.stop(start);
+        }
+    }
+
+    @Override
+    public void deleteEpic(int epicId) {
+        long start = deleteEpicTimer.start();
+        try {
+            delegate.deleteEpic(epicId);
+        } finally {
+            deleteEpicTimer.stop(start);
+        }
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        long start = updateTaskTimer.start();
+        try {
+            delegate.updateTask(task);
+        } finally {
+            updateTaskTimer.stop(start);
+        }
+    }
+
+    @Override
+    public void updateSubTask(SubTask subTask) {
+        long start = updateSubTaskTimer.start();
+        try {
+            delegate.updateSubTask(subTask);
+        } finally {
+            updateSubTaskTimer.stop(start);
+        }
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        long start = updateEpicTimer.start();
+        try {
+            delegate.updateEpic(epic);
+        } finally {
+            updateEpicTimer.stop(start);
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        long start = getPrioritizedTasksTimer.start();
+        try {
+            return delegate.getPrioritizedTasks();
+        } finally {
+            getPrioritizedTasksTimer.stop(start);
+        }
+    }
+
+    @Override
+    public List<FreeSlot> findFreeSlots(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter,
+                                        int limit) {
+        long start = findFreeSlotsTimer.start();
+        try {
+            return delegate.findFreeSlots(duration, notBefore, notAfter, limit);
+        } finally {
+            findFreeSlotsTimer.stop(start);
+        }
+    }
+
+    @Override
+    public List<CalendarDay> getCalendar(LocalDate from, LocalDate to) {
+        long start = getCalendarTimer.start();
+        try {
+            return delegate.getCalendar(from, to);
+        } finally {
+            getCalendarTimer.stop(start);
+        }
+    }
+
+    @Override
+    public List<Task> getTasksOfDay(LocalDate date) {
+        long start = getTasksOfDayTimer.start();
+        try {
+            return delegate.getTasksOfDay(date);
+        } finally {
+            getTasksOfDayTimer.stop(start);
+        }
+    }
+
+    @Override
+    public void addDependency(int taskId, int dependsOnId) {
+        long start = addDependencyTimer.start();
+        try {
+            delegate.addDependency(taskId, dependsOnId);
+        } finally {
+            addDependencyTimer.stop(start);
+        }
+    }
+
+    @Override
+    public void removeDependency(int taskId, int dependsOnId) {
+        long start = removeDependencyTimer.start();
+        try {
+            delegate.removeDependency(taskId, dependsOnId);
+        } finally {
+            removeDependencyTimer.stop(start);
+        }
+    }
+
+    @Override
+    public List<Integer> getDependencies(int taskId) {
+        return delegate.getDependencies(taskId);
+    }
+
+    @Override
+    public List<SubTask> getSubtasksOfEpicInOrder(int epicId) {
+        return delegate.getSubtasksOfEpicInOrder(epicId);
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        long start = searchTimer.start();
+        try {
+            return delegate.search(query, limit);
+        } finally {
+            searchTimer.stop(start);
+        }
+    }
+
+    @Override
+    public SyncDelta getChangesSince(long since) {
+        long start = getChangesSinceTimer.start();
+        try {
+            return delegate.getChangesSince(since);
+        } finally {
+            getChangesSinceTimer.stop(start);
+        }
+    }
+
+    @Override
+    public long getVersion(TaskType type) {
+        return delegate.getVersion(type);
+    }
+
+    @Override
+    public TaskView getReadView() {
+        return delegate.getReadView();
+    }
+
+    @Override
+    public ChangeFeed getChangeFeed() {
+        return delegate.getChangeFeed();
+    }
+
+    @Override
+    public boolean hasSnapshotReads() {
+        return delegate.hasSnapshotReads();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return delegate.isThreadSafe();
+    }
+
+    @Override
+    public void runBatch(Runnable batch) {
+        delegate.runBatch(batch);
+    }
+}
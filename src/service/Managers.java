@@ -1,11 +1,28 @@
 package service;
 
+import metrics.OperationMetrics;
+
 public class Managers {
 
     public static TaskManager getDefault() {
         return new InMemoryManager(getDefaultHistory());
     }
 
+    public static ColumnarTaskManager getColumnar() {
+        return new ColumnarTaskManager(getDefaultHistory());
+    }
+
+    public static TaskManager getOffHeap() {
+        return new OffHeapTaskManager();
+    }
+
+    // Менеджер в памяти, у которого замеряются и публичные операции, и внутренние шаги.
+    public static TaskManager getInstrumented(OperationMetrics metrics) {
+        InMemoryManager manager = new InMemoryManager(new InstrumentedHistoryManager(getDefaultHistory(), metrics));
+        manager.setMetrics(metrics);
+        return new InstrumentedTaskManager(manager, metrics);
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
@@ -0,0 +1,446 @@
+package service;
+
+import exception.NotFoundException;
+import exception.ValidationException;
+import model.ChangeType;
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static model.Task.NO_TIME;
+import static service.OffHeapTaskStore.NO_LINK;
+
+/*
+ TaskManager поверх OffHeapTaskStore. Геттеры возвращают собранные из записей копии задач, изменения в них
+ не видны менеджеру, пока задача не передана обратно в метод обновления.
+ */
+public class OffHeapTaskManager implements TaskManager {
+    private final OffHeapTaskStore store;
+    private int id;
+    private int historyFirst;
+    private int historyLast;
+    private final ChangeFeed changeFeed;
+    private final long[] versions;
+    private final SyncIndex syncIndex;
+
+    public OffHeapTaskManager() {
+        this.store = new OffHeapTaskStore();
+        this.id = 0;
+        this.historyFirst = NO_LINK;
+        this.historyLast = NO_LINK;
+        this.changeFeed = new ChangeFeed(ChangeFeed.DEFAULT_CAPACITY);
+        this.versions = new long[TaskType.values().length];
+        this.syncIndex = new SyncIndex(SyncIndex.DEFAULT_TOMBSTONE_RETENTION);
+    }
+
+    @Override
+    public int getNextId() {
+        id++;
+        return id;
+    }
+
+    //Task
+    @Override
+    public int createTask(Task task) {
+        validateInputTask(task);
+        int newTaskId = getNextId();
+        task.setId(newTaskId);
+        task.setStatus(TaskStatus.NEW);
+        store.write(task);
+        recordChange(ChangeType.CREATED, TaskType.TASK, newTaskId);
+        return newTaskId;
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        validateInputTask(task);
+        if (store.contains(task.getId(), TaskType.TASK)) {
+            store.write(task);
+            recordChange(ChangeType.UPDATED, TaskType.TASK, task.getId());
+        } else {
+            createTask(task);
+        }
+    }
+
+    @Override
+    public void deleteTasks() {
+        removeAll(TaskType.TASK);
+    }
+
+    @Override
+    public void deleteTask(int taskId) {
+        if (!store.contains(taskId, TaskType.TASK)) {
+            throw new NotFoundException("Task " + taskId + " does not exist.");
+        }
+        removeRecord(taskId);
+    }
+
+    @Override
+    public Task getTask(int taskId) {
+        if (!store.contains(taskId, TaskType.TASK)) {
+            throw new NotFoundException("Task with id " + taskId + " not found.");
+        }
+        addToHistory(taskId);
+        return store.read(taskId);
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        return readAll(TaskType.TASK);
+    }
+
+    //Subtask
+    @Override
+    public int createSubTask(SubTask subTask) {
+        validateInputTask(subTask);
+        int epicId = subTask.getEpicId();
+        if (!store.contains(epicId, TaskType.EPIC)) {
+            throw new NotFoundException("Epic with id " + epicId + " not found.");
+        }
+        int newSubTaskId = getNextId();
+        subTask.setId(newSubTaskId);
+        subTask.setStatus(TaskStatus.NEW);
+        store.write(subTask);
+        store.appendChild(epicId, newSubTaskId);
+        recordChange(ChangeType.CREATED, TaskType.SUBTASK, newSubTaskId);
+        recalculateEpic(epicId);
+        return newSubTaskId;
+    }
+
+    @Override
+    public void updateSubTask(SubTask subTask) {
+        validateInputTask(subTask);
+        int subTaskId = subTask.getId();
+        int epicId = subTask.getEpicId();
+        if (!store.contains(epicId, TaskType.EPIC)) {
+            throw new NotFoundException("Epic with id " + epicId + " not found.");
+        }
+        if (!store.contains(subTaskId, TaskType.SUBTASK)) {
+            createSubTask(subTask);
+            return;
+        }
+        int previousEpicId = store.getEpicId(subTaskId);
+        store.write(subTask);
+        recordChange(ChangeType.UPDATED, TaskType.SUBTASK, subTaskId);
+        if (previousEpicId != epicId) {
+            store.unlinkChild(previousEpicId, subTaskId);
+            store.appendChild(epicId, subTaskId);
+            recalculateEpic(previousEpicId);
+        }
+        recalculateEpic(epicId);
+    }
+
+    @Override
+    public void deleteSubTask(int subTaskId) {
+        if (!store.contains(subTaskId, TaskType.SUBTASK)) {
+            throw new NotFoundException("SubTask with id " + subTaskId + " not found.");
+        }
+        int epicId = store.getEpicId(subTaskId);
+        store.unlinkChild(epicId, subTaskId);
+        removeRecord(subTaskId);
+        recalculateEpic(epicId);
+    }
+
+    @Override
+    public List<SubTask> getSubTasks() {
+        return readAll(TaskType.SUBTASK);
+    }
+
+    @Override
+    public SubTask getSubTask(int subTaskId) {
+        if (!store.contains(subTaskId, TaskType.SUBTASK)) {
+            throw new NotFoundException("SubTask with id " + subTaskId + " not found.");
+        }
+        addToHistory(subTaskId);
+        return (SubTask) store.read(subTaskId);
+    }
+
+    @Override
+    public void deleteSubTasks() {
+        removeAll(TaskType.SUBTASK);
+        for (int epicId = 1; epicId <= store.getMaxId(); epicId++) {
+            if (store.contains(epicId, TaskType.EPIC)) {
+                store.clearChildren(epicId);
+                recalculateEpic(epicId);
+            }
+        }
+    }
+
+    @Override
+    public List<SubTask> getSubtasksOfEpic(int epicId) {
+        if (!store.contains(epicId, TaskType.EPIC)) {
+            throw new NotFoundException("Epic with id " + epicId + " not found.");
+        }
+        List<SubTask> subTasks = new ArrayList<>();
+        for (int child = store.getFirstChild(epicId); child != NO_LINK; child = store.getNextSibling(child)) {
+            subTasks.add((SubTask) store.read(child));
+        }
+        return subTasks;
+    }
+
+    //Epic
+    @Override
+    public int createEpic(Epic epic) {
+        if (epic == null) {
+            throw new NullPointerException("Epic cannot be null");
+        }
+        int newEpicId = getNextId();
+        epic.setId(newEpicId);
+        epic.setStatus(TaskStatus.NEW);
+        store.write(epic);
+        recordChange(ChangeType.CREATED, TaskType.EPIC, newEpicId);
+        return newEpicId;
+    }
+
+    @Override
+    public List<Epic> getEpics() {
+        return readAll(TaskType.EPIC);
+    }
+
+    @Override
+    public Epic getEpic(int epicId) {
+        if (!store.contains(epicId, TaskType.EPIC)) {
+            throw new NotFoundException("Epic with id " + epicId + " not found.");
+        }
+        addToHistory(epicId);
+        return (Epic) store.read(epicId);
+    }
+
+    @Override
+    public void deleteEpics() {
+        removeAll(TaskType.SUBTASK);
+        removeAll(TaskType.EPIC);
+    }
+
+    @Override
+    public void deleteEpic(int epicId) {
+        if (!store.contains(epicId, TaskType.EPIC)) {
+            throw new NotFoundException("Epic with id= " + epicId + " not found");
+        }
+        int child = store.getFirstChild(epicId);
+        while (child != NO_LINK) {
+            int next = store.getNextSibling(child);
+            removeRecord(child);
+            child = next;
+        }
+        removeRecord(epicId);
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        if (epic == null) {
+            throw new NullPointerException("Epic cannot be null");
+        }
+        if (!store.contains(epic.getId(), TaskType.EPIC)) {
+            createEpic(epic);
+            return;
+        }
+        Epic original = (Epic) store.read(epic.getId());
+        original.setName(epic.getName());
+        original.setDescription(epic.getDescription());
+        store.write(original);
+        recordChange(ChangeType.UPDATED, TaskType.EPIC, original.getId());
+    }
+
+    //History
+    @Override
+    public List<Task> getHistory() {
+        List<Task> history = new ArrayList<>();
+        for (int current = historyFirst; current != NO_LINK; current = store.getHistoryNext(current)) {
+            history.add(store.read(current));
+        }
+        return history;
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        int count = 0;
+        int[] ids = new int[store.getMaxId()];
+        for (int taskId = 1; taskId <= store.getMaxId(); taskId++) {
+            if (isScheduled(taskId)) {
+                ids[count++] = taskId;
+            }
+        }
+        List<Task> result = new ArrayList<>(count);
+        Arrays.stream(ids, 0, count)
+                .boxed()
+                .sorted(Comparator.<Integer>comparingLong(store::getStartSecond).thenComparingInt(store::getStartNano))
+                .forEach(taskId -> result.add(store.read(taskId)));
+        return result;
+    }
+
+    @Override
+    public long getVersion(TaskType type) {
+        return versions[type.ordinal()];
+    }
+
+    @Override
+    public ChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    @Override
+    public SyncDelta getChangesSince(long since) {
+        long version = changeFeed.getLastSequence();
+        List<SyncIndex.Tombstone> deleted = syncIndex.deletedSince(since);
+        List<Task> tasks = new ArrayList<>();
+        List<SubTask> subTasks = new ArrayList<>();
+        List<Epic> epics = new ArrayList<>();
+        for (int taskId : syncIndex.modifiedSince(since)) {
+            switch (store.getType(taskId)) {
+                case TASK -> tasks.add(store.read(taskId));
+                case SUBTASK -> subTasks.add((SubTask) store.read(taskId));
+                case EPIC -> epics.add((Epic) store.read(taskId));
+                case null -> {
+                }
+            }
+        }
+        return new SyncDelta(version, tasks, subTasks, epics, deleted);
+    }
+
+    private void recordChange(ChangeType change, TaskType type, int taskId) {
+        long sequence = changeFeed.publish(change, type, taskId);
+        versions[type.ordinal()] = sequence;
+        syncIndex.record(change, type, taskId, sequence);
+    }
+
+    private void recalculateEpic(int epicId) {
+        recordChange(ChangeType.UPDATED, TaskType.EPIC, epicId);
+        int countOfSubTasks = 0;
+        int countOfNew = 0;
+        int countOfDone = 0;
+        long startSecond = Long.MAX_VALUE;
+        int startNano = 0;
+        long endSecond = Long.MIN_VALUE;
+        int endNano = 0;
+        long durationSecond = 0;
+        long durationNano = 0;
+        for (int child = store.getFirstChild(epicId); child != NO_LINK; child = store.getNextSibling(child)) {
+            countOfSubTasks++;
+            switch (store.getStatus(child)) {
+                case NEW -> countOfNew++;
+                case DONE -> countOfDone++;
+            }
+            if (isBefore(store.getStartSecond(child), store.getStartNano(child), startSecond, startNano)) {
+                startSecond = store.getStartSecond(child);
+                startNano = store.getStartNano(child);
+            }
+            if (isBefore(endSecond, endNano, store.getEndSecond(child), store.getEndNano(child))) {
+                endSecond = store.getEndSecond(child);
+                endNano = store.getEndNano(child);
+            }
+            durationSecond += store.getDurationSecond(child);
+            durationNano += store.getDurationNano(child);
+        }
+        if (countOfSubTasks == 0) {
+            store.setStatus(epicId, TaskStatus.NEW);
+            store.setTime(epicId, NO_TIME, 0, NO_TIME, 0, NO_TIME, 0);
+            return;
+        }
+        if (countOfNew == countOfSubTasks) {
+            store.setStatus(epicId, TaskStatus.NEW);
+        } else if (countOfDone == countOfSubTasks) {
+            store.setStatus(epicId, TaskStatus.DONE);
+        } else {
+            store.setStatus(epicId, TaskStatus.IN_PROGRESS);
+        }
+        store.setTime(epicId, startSecond, startNano, endSecond, endNano,
+                durationSecond + durationNano / 1_000_000_000, (int) (durationNano % 1_000_000_000));
+    }
+
+    private boolean isScheduled(int taskId) {
+        TaskType type = store.getType(taskId);
+        return (type == TaskType.TASK || type == TaskType.SUBTASK) && store.getStartSecond(taskId) != NO_TIME;
+    }
+
+    private <T extends Task> List<T> readAll(TaskType type) {
+        List<T> result = new ArrayList<>();
+        for (int taskId = 1; taskId <= store.getMaxId(); taskId++) {
+            if (store.contains(taskId, type)) {
+                @SuppressWarnings("unchecked")
+                T task = (T) store.read(taskId);
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    private void removeAll(TaskType type) {
+        for (int taskId = 1; taskId <= store.getMaxId(); taskId++) {
+            if (store.contains(taskId, type)) {
+                removeRecord(taskId);
+            }
+        }
+    }
+
+    private void removeRecord(int taskId) {
+        recordChange(ChangeType.DELETED, store.getType(taskId), taskId);
+        removeFromHistory(taskId);
+        store.remove(taskId);
+    }
+
+    private void addToHistory(int taskId) {
+        removeFromHistory(taskId);
+        store.setInHistory(taskId, true);
+        store.setHistoryPrev(taskId, historyLast);
+        store.setHistoryNext(taskId, NO_LINK);
+        if (historyLast == NO_LINK) {
+            historyFirst = taskId;
+        } else {
+            store.setHistoryNext(historyLast, taskId);
+        }
+        historyLast = taskId;
+    }
+
+    private void removeFromHistory(int taskId) {
+        if (!store.isInHistory(taskId)) {
+            return;
+        }
+        int prev = store.getHistoryPrev(taskId);
+        int next = store.getHistoryNext(taskId);
+        if (prev == NO_LINK) {
+            historyFirst = next;
+        } else {
+            store.setHistoryNext(prev, next);
+        }
+        if (next == NO_LINK) {
+            historyLast = prev;
+        } else {
+            store.setHistoryPrev(next, prev);
+        }
+        store.setInHistory(taskId, false);
+    }
+
+    private <T extends Task> void validateInputTask(T task) {
+        if (task == null) {
+            throw new NullPointerException("Task cannot be null.");
+        }
+        if (!task.hasStartTime()) {
+            throw new ValidationException("StartTime cannot be null.");
+        }
+        for (int savedId = 1; savedId <= store.getMaxId(); savedId++) {
+            if (savedId != task.getId() && isScheduled(savedId) && isOverlap(task, savedId)) {
+                throw new ValidationException("There is an intersection in execution time with task number="
+                        + savedId);
+            }
+        }
+    }
+
+    private boolean isOverlap(Task task, int savedId) {
+        return !isBefore(store.getEndSecond(savedId), store.getEndNano(savedId),
+                task.getStartSecond(), task.getStartNano())
+                && !isBefore(task.getEndSecond(), task.getEndNano(),
+                store.getStartSecond(savedId), store.getStartNano(savedId));
+    }
+
+    private static boolean isBefore(long second, int nano, long otherSecond, int otherNano) {
+        return second < otherSecond || (second == otherSecond && nano < otherNano);
+    }
+}
@@ -0,0 +1,367 @@
+package service;
+
+import exception.ManagerSaveException;
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static model.Task.NO_TIME;
+
+/*
+ Записи задач фиксированной длины в direct-буфере, адрес записи - id задачи (id идут подряд, см. getNextId),
+ и куча строк для названий и описаний, куда строки только дописываются. Связи между записями (подзадачи эпика,
+ порядок истории) хранятся как id внутри записей, 0 - связи нет.
+ */
+class OffHeapTaskStore {
+    static final int NO_LINK = 0;
+
+    private static final int TYPE = 0;
+    private static final int STATUS = 1;
+    private static final int IN_HISTORY = 2;
+    private static final int EPIC_ID = 4;
+    private static final int START_SECOND = 8;
+    private static final int START_NANO = 16;
+    private static final int DURATION_NANO = 20;
+    private static final int DURATION_SECOND = 24;
+    private static final int END_SECOND = 32;
+    private static final int END_NANO = 40;
+    private static final int NAME_OFFSET = 44;
+    private static final int NAME_LENGTH = 48;
+    private static final int DESCRIPTION_OFFSET = 52;
+    private static final int DESCRIPTION_LENGTH = 56;
+    private static final int FIRST_CHILD = 60;
+    private static final int LAST_CHILD = 64;
+    private static final int NEXT_SIBLING = 68;
+    private static final int HISTORY_PREV = 72;
+    private static final int HISTORY_NEXT = 76;
+    private static final int RECORD_SIZE = 80;
+    // Буфер адресуется int, поэтому записей не больше, чем помещается в Integer.MAX_VALUE байт.
+    static final int MAX_ID = Integer.MAX_VALUE / RECORD_SIZE - 1;
+
+    private static final int NULL_STRING = -1;
+    private static final int INITIAL_RECORDS = 1024;
+    private static final int INITIAL_STRING_BYTES = 64 * 1024;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private ByteBuffer records;
+    private ByteBuffer strings;
+    private int stringsUsed;
+    private int liveStringBytes;
+    private int maxId;
+
+    OffHeapTaskStore() {
+        this.records = ByteBuffer.allocateDirect(INITIAL_RECORDS * RECORD_SIZE);
+        this.strings = ByteBuffer.allocateDirect(INITIAL_STRING_BYTES);
+    }
+
+    int getMaxId() {
+        return maxId;
+    }
+
+    boolean contains(int id, TaskType type) {
+        return getType(id) == type;
+    }
+
+    TaskType getType(int id) {
+        if (id <= 0 || id > maxId) {
+            return null;
+        }
+        byte type = records.get(offset(id) + TYPE);
+        return type == 0 ? null : TYPES[type - 1];
+    }
+
+    void write(Task task) {
+        int id = task.getId();
+        ensureCapacity(id);
+        int base = offset(id);
+        boolean existing = records.get(base + TYPE) != 0;
+        if (existing) {
+            releaseString(records.getInt(base + NAME_LENGTH));
+            releaseString(records.getInt(base + DESCRIPTION_LENGTH));
+        }
+        records.put(base + TYPE, (byte) (task.getTaskType().ordinal() + 1));
+        records.put(base + STATUS, (byte) (task.getStatus() == null ? TaskStatus.NEW : task.getStatus()).ordinal());
+        records.putInt(base + EPIC_ID, task.getTaskType() == TaskType.SUBTASK ? ((SubTask) task).getEpicId() : 0);
+        records.putLong(base + START_SECOND, task.getStartSecond());
+        records.putInt(base + START_NANO, task.getStartNano());
+        records.putLong(base + DURATION_SECOND, task.getDurationSecond());
+        records.putInt(base + DURATION_NANO, task.getDurationNano());
+        records.putLong(base + END_SECOND, task.getEndSecond());
+        records.putInt(base + END_NANO, task.getEndNano());
+        writeString(base + NAME_OFFSET, base + NAME_LENGTH, task.getName());
+        writeString(base + DESCRIPTION_OFFSET, base + DESCRIPTION_LENGTH, task.getDescription());
+        if (!existing) {
+            records.put(base + IN_HISTORY, (byte) 0);
+            records.putInt(base + FIRST_CHILD, NO_LINK);
+            records.putInt(base + LAST_CHILD, NO_LINK);
+            records.putInt(base + NEXT_SIBLING, NO_LINK);
+            records.putInt(base + HISTORY_PREV, NO_LINK);
+            records.putInt(base + HISTORY_NEXT, NO_LINK);
+        }
+        maxId = Math.max(maxId, id);
+        compactStringsIfNeeded();
+    }
+
+    void remove(int id) {
+        int base = offset(id);
+        releaseString(records.getInt(base + NAME_LENGTH));
+        releaseString(records.getInt(base + DESCRIPTION_LENGTH));
+        for (int i = 0; i < RECORD_SIZE; i += Integer.BYTES) {
+            records.putInt(base + i, 0);
+        }
+    }
+
+    Task read(int id) {
+        int base = offset(id);
+        TaskType type = TYPES[records.get(base + TYPE) - 1];
+        String name = readString(base + NAME_OFFSET, base + NAME_LENGTH);
+        String description = readString(base + DESCRIPTION_OFFSET, base + DESCRIPTION_LENGTH);
+        TaskStatus status = getStatus(id);
+        Duration duration = getDuration(id);
+        LocalDateTime startTime = toLocalDateTime(getStartSecond(id), records.getInt(base + START_NANO));
+        return switch (type) {
+            case TASK -> new Task(name, description, status, id, duration, startTime);
+            case SUBTASK -> new SubTask(name, description, id, status, getEpicId(id), duration, startTime);
+            case EPIC -> {
+                Epic epic = new Epic(name, description, id, status);
+                epic.setDuration(duration);
+                epic.setStartTime(startTime);
+                epic.setEndTime(toLocalDateTime(getEndSecond(id), records.getInt(base + END_NANO)));
+                for (int child = getFirstChild(id); child != NO_LINK; child = getNextSibling(child)) {
+                    epic.addSubTaskId(child);
+                }
+                yield epic;
+            }
+        };
+    }
+
+    TaskStatus getStatus(int id) {
+        return STATUSES[records.get(offset(id) + STATUS)];
+    }
+
+    void setStatus(int id, TaskStatus status) {
+        records.put(offset(id) + STATUS, (byte) status.ordinal());
+    }
+
+    int getEpicId(int id) {
+        return records.getInt(offset(id) + EPIC_ID);
+    }
+
+    long getStartSecond(int id) {
+        return records.getLong(offset(id) + START_SECOND);
+    }
+
+    int getStartNano(int id) {
+        return records.getInt(offset(id) + START_NANO);
+    }
+
+    long getEndSecond(int id) {
+        return records.getLong(offset(id) + END_SECOND);
+    }
+
+    int getEndNano(int id) {
+        return records.getInt(offset(id) + END_NANO);
+    }
+
+    long getDurationSecond(int id) {
+        return records.getLong(offset(id) + DURATION_SECOND);
+    }
+
+    int getDurationNano(int id) {
+        return records.getInt(offset(id) + DURATION_NANO);
+    }
+
+    void setTime(int id, long startSecond, int startNano, long endSecond, int endNano,
+                 long durationSecond, int durationNano) {
+        int base = offset(id);
+        records.putLong(base + START_SECOND, startSecond);
+        records.putInt(base + START_NANO, startNano);
+        records.putLong(base + END_SECOND, endSecond);
+        records.putInt(base + END_NANO, endNano);
+        records.putLong(base + DURATION_SECOND, durationSecond);
+        records.putInt(base + DURATION_NANO, durationNano);
+    }
+
+    int getFirstChild(int id) {
+        return records.getInt(offset(id) + FIRST_CHILD);
+    }
+
+    int getNextSibling(int id) {
+        return records.getInt(offset(id) + NEXT_SIBLING);
+    }
+
+    void appendChild(int epicId, int childId) {
+        int last = records.getInt(offset(epicId) + LAST_CHILD);
+        if (last == NO_LINK) {
+            records.putInt(offset(epicId) + FIRST_CHILD, childId);
+        } else {
+            records.putInt(offset(last) + NEXT_SIBLING, childId);
+        }
+        records.putInt(offset(epicId) + LAST_CHILD, childId);
+        records.putInt(offset(childId) + NEXT_SIBLING, NO_LINK);
+    }
+
+    void unlinkChild(int epicId, int childId) {
+        int prev = NO_LINK;
+        int current = getFirstChild(epicId);
+        while (current != NO_LINK && current != childId) {
+            prev = current;
+            current = getNextSibling(current);
+        }
+        if (current == NO_LINK) {
+            return;
+        }
+        int next = getNextSibling(current);
+        if (prev == NO_LINK) {
+            records.putInt(offset(epicId) + FIRST_CHILD, next);
+        } else {
+            records.putInt(offset(prev) + NEXT_SIBLING, next);
+        }
+        if (records.getInt(offset(epicId) + LAST_CHILD) == childId) {
+            records.putInt(offset(epicId) + LAST_CHILD, prev);
+        }
+    }
+
+    void clearChildren(int epicId) {
+        records.putInt(offset(epicId) + FIRST_CHILD, NO_LINK);
+        records.putInt(offset(epicId) + LAST_CHILD, NO_LINK);
+    }
+
+    boolean isInHistory(int id) {
+        return records.get(offset(id) + IN_HISTORY) != 0;
+    }
+
+    void setInHistory(int id, boolean inHistory) {
+        records.put(offset(id) + IN_HISTORY, (byte) (inHistory ? 1 : 0));
+    }
+
+    int getHistoryPrev(int id) {
+        return records.getInt(offset(id) + HISTORY_PREV);
+    }
+
+    void setHistoryPrev(int id, int prev) {
+        records.putInt(offset(id) + HISTORY_PREV, prev);
+    }
+
+    int getHistoryNext(int id) {
+        return records.getInt(offset(id) + HISTORY_NEXT);
+    }
+
+    void setHistoryNext(int id, int next) {
+        records.putInt(offset(id) + HISTORY_NEXT, next);
+    }
+
+    private Duration getDuration(int id) {
+        long durationSecond = getDurationSecond(id);
+        return durationSecond == NO_TIME ? null : Duration.ofSeconds(durationSecond, getDurationNano(id));
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochSecond, int nano) {
+        return epochSecond == NO_TIME ? null : LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+
+    private static int offset(int id) {
+        return id * RECORD_SIZE;
+    }
+
+    private void ensureCapacity(int id) {
+        if (id <= 0 || id > MAX_ID) {
+            throw new ManagerSaveException("Task id " + id + " is out of the off-heap store range 1.." + MAX_ID
+                    + ".");
+        }
+        int required = offset(id + 1);
+        if (required <= records.capacity()) {
+            return;
+        }
+        ByteBuffer grown = ByteBuffer.allocateDirect(grow(records.capacity(), required));
+        grown.put(0, records, 0, records.capacity());
+        records = grown;
+    }
+
+    // Вдвое больше текущего размера, но не меньше нужного и не больше Integer.MAX_VALUE.
+    private static int grow(int capacity, int required) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(required, capacity * 2L));
+    }
+
+    private void writeString(int offsetField, int lengthField, String value) {
+        if (value == null) {
+            records.putInt(offsetField, 0);
+            records.putInt(lengthField, NULL_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureStringCapacity(bytes.length);
+        strings.put(stringsUsed, bytes);
+        records.putInt(offsetField, stringsUsed);
+        records.putInt(lengthField, bytes.length);
+        stringsUsed += bytes.length;
+        liveStringBytes += bytes.length;
+    }
+
+    private String readString(int offsetField, int lengthField) {
+        int length = records.getInt(lengthField);
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        strings.get(records.getInt(offsetField), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void releaseString(int length) {
+        if (length != NULL_STRING) {
+            liveStringBytes -= length;
+        }
+    }
+
+    private void ensureStringCapacity(int length) {
+        if ((long) stringsUsed + length > Integer.MAX_VALUE) {
+            throw new ManagerSaveException("Off-heap string heap is full: " + stringsUsed + " bytes are used.");
+        }
+        if (stringsUsed + length <= strings.capacity()) {
+            return;
+        }
+        ByteBuffer grown = ByteBuffer.allocateDirect(grow(strings.capacity(), stringsUsed + length));
+        grown.put(0, strings, 0, stringsUsed);
+        strings = grown;
+    }
+
+    // Обновления дописывают новые строки, поэтому место освобождается, когда мусора в куче больше половины.
+    private void compactStringsIfNeeded() {
+        if (stringsUsed < INITIAL_STRING_BYTES || liveStringBytes * 2 > stringsUsed) {
+            return;
+        }
+        ByteBuffer compacted = ByteBuffer.allocateDirect(Math.max(INITIAL_STRING_BYTES, liveStringBytes * 2));
+        int used = 0;
+        for (int id = 1; id <= maxId; id++) {
+            int base = offset(id);
+            if (records.get(base + TYPE) == 0) {
+                continue;
+            }
+            used = moveString(compacted, used, base + NAME_OFFSET, base + NAME_LENGTH);
+            used = moveString(compacted, used, base + DESCRIPTION_OFFSET, base + DESCRIPTION_LENGTH);
+        }
+        strings = compacted;
+        stringsUsed = used;
+        liveStringBytes = used;
+    }
+
+    private int moveString(ByteBuffer target, int used, int offsetField, int lengthField) {
+        int length = records.getInt(lengthField);
+        if (length == NULL_STRING) {
+            return used;
+        }
+        target.put(used, strings, records.getInt(offsetField), length);
+        records.putInt(offsetField, used);
+        return used + length;
+    }
+}
@@ -0,0 +1,282 @@
+package service;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/*
+ Неизменяемое отсортированное отображение на AVL-дереве. Изменение копирует только путь от корня до узла
+ (O(log n) узлов), остальные поддеревья общие со старой версией, поэтому старые версии остаются валидными
+ и их можно читать из других потоков без блокировок. Узлы хранят размер поддерева, что дает values() как
+ список с доступом по индексу за O(log n) без копирования.
+ */
+public final class PersistentSortedMap<K, V> {
+    private final Comparator<? super K> comparator;
+    private final Node<K, V> root;
+
+    private record Node<K, V>(K key, V value, Node<K, V> left, Node<K, V> right, int height, int size) {
+    }
+
+    private PersistentSortedMap(Comparator<? super K> comparator, Node<K, V> root) {
+        this.comparator = comparator;
+        this.root = root;
+    }
+
+    public static <K extends Comparable<? super K>, V> PersistentSortedMap<K, V> empty() {
+        return new PersistentSortedMap<>(Comparator.naturalOrder(), null);
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public V get(K key) {
+        Node<K, V> node = root;
+        while (node != null) {
+            int compare = comparator.compare(key, node.key());
+            if (compare == 0) {
+                return node.value();
+            }
+            node = compare < 0 ? node.left() : node.right();
+        }
+        return null;
+    }
+
+    public boolean containsKey(K key) {
+        Node<K, V> node = root;
+        while (node != null) {
+            int compare = comparator.compare(key, node.key());
+            if (compare == 0) {
+                return true;
+            }
+            node = compare < 0 ? node.left() : node.right();
+        }
+        return false;
+    }
+
+    // Запись с наибольшим ключом не больше key или null.
+    public Map.Entry<K, V> floorEntry(K key) {
+        Node<K, V> node = root;
+        Node<K, V> floor = null;
+        while (node != null) {
+            int compare = comparator.compare(key, node.key());
+            if (compare == 0) {
+                return entry(node);
+            }
+            if (compare < 0) {
+                node = node.left();
+            } else {
+                floor = node;
+                node = node.right();
+            }
+        }
+        return floor == null ? null : entry(floor);
+    }
+
+    public PersistentSortedMap<K, V> put(K key, V value) {
+        Node<K, V> updated = put(root, key, value);
+        return updated == root ? this : new PersistentSortedMap<>(comparator, updated);
+    }
+
+    public PersistentSortedMap<K, V> remove(K key) {
+        Node<K, V> updated = remove(root, key);
+        return updated == root ? this : new PersistentSortedMap<>(comparator, updated);
+    }
+
+    public PersistentSortedMap<K, V> clear() {
+        return root == null ? this : new PersistentSortedMap<>(comparator, null);
+    }
+
+    // Значения в порядке ключей. Список неизменяемый и не копирует дерево.
+    public List<V> values() {
+        return new AbstractList<>() {
+            @Override
+            public V get(int index) {
+                return nodeAt(index).value();
+            }
+
+            @Override
+            public int size() {
+                return PersistentSortedMap.this.size();
+            }
+
+            @Override
+            public Iterator<V> iterator() {
+                return new NodeIterator<>(root, Node::value);
+            }
+        };
+    }
+
+    public Iterator<Map.Entry<K, V>> entryIterator() {
+        return new NodeIterator<>(root, PersistentSortedMap::entry);
+    }
+
+    // Записи с ключами строго больше key. Начало обхода находится за O(log n).
+    public Iterator<Map.Entry<K, V>> entryIteratorAfter(K key) {
+        NodeIterator<K, V, Map.Entry<K, V>> iterator = new NodeIterator<>(null, PersistentSortedMap::entry);
+        Node<K, V> node = root;
+        while (node != null) {
+            if (comparator.compare(node.key(), key) > 0) {
+                iterator.path.push(node);
+                node = node.left();
+            } else {
+                node = node.right();
+            }
+        }
+        return iterator;
+    }
+
+    private static <K, V> Map.Entry<K, V> entry(Node<K, V> node) {
+        return new AbstractMap.SimpleImmutableEntry<>(node.key(), node.value());
+    }
+
+    private Node<K, V> nodeAt(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+        }
+        Node<K, V> node = root;
+        while (true) {
+            int leftSize = size(node.left());
+            if (index == leftSize) {
+                return node;
+            }
+            if (index < leftSize) {
+                node = node.left();
+            } else {
+                index -= leftSize + 1;
+                node = node.right();
+            }
+        }
+    }
+
+    private Node<K, V> put(Node<K, V> node, K key, V value) {
+        if (node == null) {
+            return new Node<>(key, value, null, null, 1, 1);
+        }
+        int compare = comparator.compare(key, node.key());
+        if (compare == 0) {
+            return node.value() == value ? node : new Node<>(key, value, node.left(), node.right(), node.height(),
+                    node.size());
+        }
+        if (compare < 0) {
+            Node<K, V> left = put(node.left(), key, value);
+            return left == node.left() ? node : balance(node.key(), node.value(), left, node.right());
+        }
+        Node<K, V> right = put(node.right(), key, value);
+        return right == node.right() ? node : balance(node.key(), node.value(), node.left(), right);
+    }
+
+    private Node<K, V> remove(Node<K, V> node, K key) {
+        if (node == null) {
+            return null;
+        }
+        int compare = comparator.compare(key, node.key());
+        if (compare < 0) {
+            Node<K, V> left = remove(node.left(), key);
+            return left == node.left() ? node : balance(node.key(), node.value(), left, node.right());
+        }
+        if (compare > 0) {
+            Node<K, V> right = remove(node.right(), key);
+            return right == node.right() ? node : balance(node.key(), node.value(), node.left(), right);
+        }
+        if (node.left() == null) {
+            return node.right();
+        }
+        if (node.right() == null) {
+            return node.left();
+        }
+        Node<K, V> successor = node.right();
+        while (successor.left() != null) {
+            successor = successor.left();
+        }
+        return balance(successor.key(), successor.value(), node.left(), removeMin(node.right()));
+    }
+
+    private Node<K, V> removeMin(Node<K, V> node) {
+        if (node.left() == null) {
+            return node.right();
+        }
+        return balance(node.key(), node.value(), removeMin(node.left()), node.right());
+    }
+
+    private static <K, V> Node<K, V> balance(K key, V value, Node<K, V> left, Node<K, V> right) {
+        int difference = height(left) - height(right);
+        if (difference > 1) {
+            if (height(left.left()) < height(left.right())) {
+                left = rotateLeft(left.key(), left.value(), left.left(), left.right());
+            }
+            return rotateRight(key, value, left, right);
+        }
+        if (difference < -1) {
+            if (height(right.right()) < height(right.left())) {
+                right = rotateRight(right.key(), right.value(), right.left(), right.right());
+            }
+            return rotateLeft(key, value, left, right);
+        }
+        return node(key, value, left, right);
+    }
+
+    private static <K, V> Node<K, V> rotateRight(K key, V value, Node<K, V> left, Node<K, V> right) {
+        return node(left.key(), left.value(), left.left(), node(key, value, left.right(), right));
+    }
+
+    private static <K, V> Node<K, V> rotateLeft(K key, V value, Node<K, V> left, Node<K, V> right) {
+        return node(right.key(), right.value(), node(key, value, left, right.left()), right.right());
+    }
+
+    private static <K, V> Node<K, V> node(K key, V value, Node<K, V> left, Node<K, V> right) {
+        return new Node<>(key, value, left, right, Math.max(height(left), height(right)) + 1,
+                size(left) + size(right) + 1);
+    }
+
+    private static int height(Node<?, ?> node) {
+        return node == null ? 0 : node.height();
+    }
+
+    private static int size(Node<?, ?> node) {
+        return node == null ? 0 : node.size();
+    }
+
+    private static class NodeIterator<K, V, T> implements Iterator<T> {
+        private final Deque<Node<K, V>> path = new ArrayDeque<>();
+        private final Function<Node<K, V>, T> mapper;
+
+        NodeIterator(Node<K, V> root, Function<Node<K, V>, T> mapper) {
+            this.mapper = mapper;
+            pushLeft(root);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !path.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            if (path.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node<K, V> node = path.pop();
+            pushLeft(node.right());
+            return mapper.apply(node);
+        }
+
+        private void pushLeft(Node<K, V> node) {
+            while (node != null) {
+                path.push(node);
+                node = node.left();
+            }
+        }
+    }
+}
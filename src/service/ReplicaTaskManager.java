@@ -0,0 +1,350 @@
+package service;
+
+import converter.CsvLineReader;
+import converter.DependencyConverter;
+import exception.ManagerLoadException;
+import exception.ReadOnlyException;
+import metrics.OperationMetrics;
+import model.ChangeType;
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import model.TaskType;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Реплика для чтения. Следит за файлом основного FileBackedTaskManager и применяет к своему хранилищу разницу
+ между новой версией файла и уже примененной: неизменившиеся строки даже не разбираются. Изменения проходят
+ через ленту изменений и версии коллекций, поэтому ETag, синхронизация и подписки работают и на реплике.
+ Зависимости тоже повторяют основной менеджер: применяется разница между ребрами файла и уже примененными.
+ Основной менеджер подменяет файл переименованием, так что реплика не видит его наполовину записанным.
+ Все изменяющие операции отклоняются.
+ */
+public class ReplicaTaskManager extends InMemoryManager implements AutoCloseable {
+    public static final Duration DEFAULT_POLL_INTERVAL = Duration.ofMillis(100);
+    private final File file;
+    private final Map<Integer, String> appliedRows = new HashMap<>();
+    // Ребра зависимостей из примененной версии файла как пары [dependsOn, taskId].
+    private final Set<List<Integer>> appliedEdges = new HashSet<>();
+    private final ScheduledExecutorService poller;
+    private final OperationMetrics.Timer applyTimer;
+    private final OperationMetrics.Counter appliedChanges;
+    private final OperationMetrics.Counter errors;
+    // Сколько секунд прошло от записи файла основным менеджером до применения этой версии на реплике.
+    private final OperationMetrics.Gauge lag;
+    private final Object pollLock = new Object();
+    private volatile FileVersion appliedVersion;
+
+    // Переименование дает файлу новый fileKey, поэтому новая версия видна даже при совпадении времени и размера.
+    private record FileVersion(Object fileKey, FileTime modified, long size) {
+    }
+
+    public ReplicaTaskManager(File file) {
+        this(file, OperationMetrics.DISABLED);
+    }
+
+    public ReplicaTaskManager(File file, OperationMetrics metrics) {
+        super(Managers.getDefaultHistory());
+        this.file = file;
+        this.applyTimer = metrics.timer("replica_apply_seconds", "");
+        this.appliedChanges = metrics.counter("replica_applied_changes_total", "");
+        this.errors = metrics.counter("replica_errors_total", "");
+        this.lag = metrics.gauge("replica_lag_seconds", "");
+        this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-manager-replica");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start(Duration interval) {
+        poller.scheduleWithFixedDelay(this::pollQuietly, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        poller.shutdownNow();
+    }
+
+    /*
+     Применяет новую версию файла, если она появилась, и возвращает число примененных изменений.
+     Ошибка чтения оставляет реплику на прежней версии, следующий опрос попробует снова.
+     */
+    public int poll() {
+        synchronized (pollLock) {
+            FileVersion version = readVersion();
+            if (version == null || version.equals(appliedVersion)) {
+                return 0;
+            }
+            // Пока версия не применена, показатель растет с каждым опросом.
+            lag.set(ageInSeconds(version));
+            long start = applyTimer.start();
+            List<String> rows;
+            Set<List<Integer>> edges = new HashSet<>();
+            try (CsvLineReader reader = new CsvLineReader(new FileReader(file, StandardCharsets.UTF_8))) {
+                rows = FileBackedTaskManager.readRows(reader);
+                // История у реплики своя, из файла берется только следующая за ней строка зависимостей.
+                reader.readLine();
+                DependencyConverter.fromString(reader.readLine()).forEach(edge -> edges.add(List.of(edge[0], edge[1])));
+            } catch (IOException | NullPointerException | IllegalArgumentException exception) {
+                throw new ManagerLoadException("Error while reading primary file", exception);
+            }
+            int countOfChanges = apply(rows, edges);
+            appliedVersion = version;
+            applyTimer.stop(start);
+            appliedChanges.add(countOfChanges);
+            lag.set(ageInSeconds(version));
+            return countOfChanges;
+        }
+    }
+
+    // Сколько реплика отстает от файла основного менеджера: ноль, если его последняя версия уже применена.
+    public Duration getLag() {
+        FileVersion version = readVersion();
+        if (version == null || version.equals(appliedVersion)) {
+            return Duration.ZERO;
+        }
+        return Duration.ofMillis(Math.max(0, System.currentTimeMillis() - version.modified().toMillis()));
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            errors.add(1);
+        }
+    }
+
+    private static double ageInSeconds(FileVersion version) {
+        return Math.max(0, System.currentTimeMillis() - version.modified().toMillis()) / 1000.0;
+    }
+
+    private FileVersion readVersion() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            return new FileVersion(attributes.fileKey(), attributes.lastModifiedTime(), attributes.size());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            errors.add(1);
+            return null;
+        }
+    }
+
+    // Под монитором менеджера, как и запросы HTTP обработчиков, которым нужна блокировка.
+    private synchronized int apply(List<String> rows, Set<List<Integer>> edges) {
+        Map<Integer, String> latestRows = new HashMap<>(rows.size() * 2);
+        List<Task> changed = new ArrayList<>();
+        int maxTaskId = 0;
+        for (String row : rows) {
+            int taskId = Integer.parseInt(row, 0, row.indexOf(','), 10);
+            latestRows.put(taskId, row);
+            maxTaskId = Math.max(maxTaskId, taskId);
+            if (!row.equals(appliedRows.get(taskId))) {
+                changed.add(FileBackedTaskManager.parseRow(row));
+            }
+        }
+        List<Integer> deleted = appliedRows.keySet().stream().filter(taskId -> !latestRows.containsKey(taskId))
+                .toList();
+        List<List<Integer>> removedEdges = appliedEdges.stream().filter(edge -> !edges.contains(edge)).toList();
+        List<List<Integer>> addedEdges = edges.stream().filter(edge -> !appliedEdges.contains(edge)).toList();
+        if (changed.isEmpty() && deleted.isEmpty() && removedEdges.isEmpty() && addedEdges.isEmpty()) {
+            return 0;
+        }
+        // Эпики раньше подзадач, чтобы подзадача нашла своего эпика.
+        changed.sort(Comparator.comparing(task -> task.getTaskType() != TaskType.EPIC));
+        runBatch(() -> {
+            Set<Integer> affectedEpicIds = new HashSet<>();
+            // Сначала освобождаются старые места в расписании: задачи могли обменяться временем начала.
+            deleted.forEach(this::unschedule);
+            changed.forEach(task -> unschedule(task.getId()));
+            deleted.forEach(taskId -> removeReplicated(taskId, affectedEpicIds));
+            changed.forEach(task -> putReplicated(task, affectedEpicIds));
+            // Ребра снимаются раньше, чем добавляются новые, иначе по дороге может получиться цикл.
+            Set<Integer> changedChains = new HashSet<>();
+            removedEdges.forEach(edge -> changedChains.addAll(dependencies.removeEdge(edge.get(0), edge.get(1))));
+            addedEdges.forEach(edge -> changedChains.addAll(dependencies.addEdge(edge.get(0), edge.get(1))));
+            changedChains.stream().map(subTaskStorage::get).filter(Objects::nonNull)
+                    .forEach(subTask -> affectedEpicIds.add(subTask.getEpicId()));
+            for (int epicId : affectedEpicIds) {
+                if (epicStorage.containsKey(epicId)) {
+                    updateEpicStatus(epicId);
+                    updateEpicTime(epicId);
+                }
+            }
+        });
+        appliedRows.clear();
+        appliedRows.putAll(latestRows);
+        appliedEdges.clear();
+        appliedEdges.addAll(edges);
+        super.id = maxTaskId;
+        return changed.size() + deleted.size() + removedEdges.size() + addedEdges.size();
+    }
+
+    private void unschedule(int taskId) {
+        Task scheduled = taskStorage.containsKey(taskId) ? taskStorage.get(taskId) : subTaskStorage.get(taskId);
+        if (scheduled != null && prioritizedTasks.get(scheduled.getStartTime()) == scheduled) {
+            prioritizedTasks.remove(scheduled.getStartTime());
+        }
+    }
+
+    private void removeReplicated(int taskId, Set<Integer> affectedEpicIds) {
+        historyManager.remove(taskId);
+        if (taskStorage.remove(taskId) != null) {
+            recordChange(ChangeType.DELETED, TaskType.TASK, taskId);
+            return;
+        }
+        SubTask subTask = subTaskStorage.remove(taskId);
+        if (subTask != null) {
+            Epic epic = editEpic(subTask.getEpicId());
+            if (epic != null) {
+                epic.removeSubTask(taskId);
+                affectedEpicIds.add(epic.getId());
+            }
+            recordChange(ChangeType.DELETED, TaskType.SUBTASK, taskId);
+            return;
+        }
+        if (epicStorage.remove(taskId) != null) {
+            recordChange(ChangeType.DELETED, TaskType.EPIC, taskId);
+        }
+    }
+
+    private void putReplicated(Task task, Set<Integer> affectedEpicIds) {
+        int taskId = task.getId();
+        switch (task) {
+            case Epic epic -> {
+                Epic original = epicStorage.put(taskId, epic);
+                epic.cleanSubTaskIds();
+                if (original != null) {
+                    original.getSubTaskIds().forEach(epic::addSubTaskId);
+                }
+                affectedEpicIds.add(taskId);
+                recordChange(original == null ? ChangeType.CREATED : ChangeType.UPDATED, TaskType.EPIC, taskId);
+            }
+            case SubTask subTask -> {
+                SubTask original = subTaskStorage.put(taskId, subTask);
+                if (original == null || original.getEpicId() != subTask.getEpicId()) {
+                    if (original != null && epicStorage.get(original.getEpicId()) != null) {
+                        editEpic(original.getEpicId()).removeSubTask(taskId);
+                        affectedEpicIds.add(original.getEpicId());
+                    }
+                    if (epicStorage.get(subTask.getEpicId()) != null) {
+                        editEpic(subTask.getEpicId()).addSubTaskId(taskId);
+                    }
+                }
+                affectedEpicIds.add(subTask.getEpicId());
+                prioritizedTasks.put(subTask.getStartTime(), subTask);
+                recordChange(original == null ? ChangeType.CREATED : ChangeType.UPDATED, TaskType.SUBTASK, taskId);
+            }
+            default -> {
+                Task original = taskStorage.put(taskId, task);
+                prioritizedTasks.put(task.getStartTime(), task);
+                recordChange(original == null ? ChangeType.CREATED : ChangeType.UPDATED, TaskType.TASK, taskId);
+            }
+        }
+    }
+
+    private static ReadOnlyException readOnly() {
+        return new ReadOnlyException("Replica is read-only, send changes to the primary");
+    }
+
+    @Override
+    public int getNextId() {
+        throw readOnly();
+    }
+
+    @Override
+    public int createTask(Task task) {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        throw readOnly();
+    }
+
+    @Override
+    public void deleteTasks() {
+        throw readOnly();
+    }
+
+    @Override
+    public void deleteTask(int taskId) {
+        throw readOnly();
+    }
+
+    @Override
+    public int createSubTask(SubTask subTask) {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateSubTask(SubTask subTask) {
+        throw readOnly();
+    }
+
+    @Override
+    public void deleteSubTask(int subTaskId) {
+        throw readOnly();
+    }
+
+    @Override
+    public void deleteSubTasks() {
+        throw readOnly();
+    }
+
+    @Override
+    public int createEpic(Epic epic) {
+        throw readOnly();
+    }
+
+    @Override
+    public void deleteEpics() {
+        throw readOnly();
+    }
+
+    @Override
+    public void deleteEpic(int epicId) {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        throw readOnly();
+    }
+
+    @Override
+    public List<Integer> importTasks(List<? extends Task> tasks) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addDependency(int taskId, int dependsOnId) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removeDependency(int taskId, int dependsOnId) {
+        throw readOnly();
+    }
+}
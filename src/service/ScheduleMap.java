@@ -0,0 +1,137 @@
+package service;
+
+import exception.ValidationException;
+import model.CalendarDay;
+import model.Task;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/*
+ Расписание по времени начала с календарем загрузки по дням. Календарь меняется вместе с расписанием: каждая
+ вставка или удаление задачи правит только дни, которые она занимает, поэтому итоги дня не нужно пересчитывать
+ обходом всех задач. Задача учитывается по ключу, под которым лежит в расписании.
+ */
+public class ScheduleMap extends SnapshotMap<LocalDateTime, Task> {
+    private final SnapshotMap<LocalDate, CalendarDay> calendar = new SnapshotMap<>();
+
+    public PersistentSortedMap<LocalDate, CalendarDay> calendar() {
+        return calendar.snapshot();
+    }
+
+    @Override
+    public Task put(LocalDateTime startTime, Task task) {
+        Task previous = super.put(startTime, task);
+        if (previous != null) {
+            forEachDay(startTime, previous.getDuration(), (date, part) -> add(date, -1, part.negated()));
+        }
+        forEachDay(startTime, task.getDuration(), (date, part) -> add(date, 1, part));
+        return previous;
+    }
+
+    @Override
+    public Task remove(Object key) {
+        Task previous = super.remove(key);
+        if (previous != null) {
+            forEachDay((LocalDateTime) key, previous.getDuration(), (date, part) -> add(date, -1, part.negated()));
+        }
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        calendar.clear();
+    }
+
+    private void add(LocalDate date, int countOfTasks, Duration scheduled) {
+        CalendarDay day = calendar.get(date);
+        if (day == null) {
+            calendar.put(date, new CalendarDay(date, countOfTasks, scheduled));
+        } else if (day.countOfTasks() + countOfTasks == 0) {
+            calendar.remove(date);
+        } else {
+            calendar.put(date, new CalendarDay(date, day.countOfTasks() + countOfTasks,
+                    day.scheduled().plus(scheduled)));
+        }
+    }
+
+    // Части интервала задачи по дням. Задача без длительности относится ко дню своего начала.
+    private static void forEachDay(LocalDateTime startTime, Duration duration,
+                                   BiConsumer<LocalDate, Duration> action) {
+        LocalDateTime endTime = startTime.plus(duration == null ? Duration.ZERO : duration);
+        LocalDateTime start = startTime;
+        do {
+            LocalDateTime nextDay = start.toLocalDate().plusDays(1).atStartOfDay();
+            LocalDateTime end = endTime.isBefore(nextDay) ? endTime : nextDay;
+            action.accept(start.toLocalDate(), Duration.between(start, end));
+            start = nextDay;
+        } while (start.isBefore(endTime));
+    }
+
+    // Расписание, собранное из списка задач, для менеджеров без своего индекса.
+    public static ScheduleMap of(List<Task> schedule) {
+        ScheduleMap index = new ScheduleMap();
+        schedule.forEach(task -> index.put(task.getStartTime(), task));
+        return index;
+    }
+
+    // Дни [from, to) по порядку, дни без задач - с нулевой загрузкой. O(log d) на поиск from и по шагу на день.
+    public static List<CalendarDay> getCalendar(PersistentSortedMap<LocalDate, CalendarDay> calendar,
+                                                LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        Iterator<Map.Entry<LocalDate, CalendarDay>> days = calendar.entryIteratorAfter(from.minusDays(1));
+        List<CalendarDay> result = new ArrayList<>();
+        Map.Entry<LocalDate, CalendarDay> next = days.hasNext() ? days.next() : null;
+        for (LocalDate date = from; date.isBefore(to); date = date.plusDays(1)) {
+            if (next != null && next.getKey().equals(date)) {
+                result.add(next.getValue());
+                next = days.hasNext() ? days.next() : null;
+            } else {
+                result.add(new CalendarDay(date, 0, Duration.ZERO));
+            }
+        }
+        return result;
+    }
+
+    /*
+     Задачи, которые идут в день date, по времени начала. Задачи не пересекаются, поэтому из начавшихся раньше
+     этого дня в него может зайти только последняя.
+     */
+    public static List<Task> getTasksOfDay(PersistentSortedMap<LocalDateTime, Task> schedule, LocalDate date) {
+        Objects.requireNonNull(date, "Date cannot be null.");
+        LocalDateTime dayStart = date.atStartOfDay();
+        LocalDateTime nextDayStart = dayStart.plusDays(1);
+        List<Task> tasks = new ArrayList<>();
+        Map.Entry<LocalDateTime, Task> previous = schedule.floorEntry(dayStart);
+        if (previous != null && (previous.getKey().equals(dayStart) || previous.getValue().getDuration() != null
+                && previous.getKey().plus(previous.getValue().getDuration()).isAfter(dayStart))) {
+            tasks.add(previous.getValue());
+        }
+        Iterator<Map.Entry<LocalDateTime, Task>> following = schedule.entryIteratorAfter(dayStart);
+        while (following.hasNext()) {
+            Map.Entry<LocalDateTime, Task> entry = following.next();
+            if (!entry.getKey().isBefore(nextDayStart)) {
+                break;
+            }
+            tasks.add(entry.getValue());
+        }
+        return tasks;
+    }
+
+    private static void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new NullPointerException("from and to cannot be null.");
+        }
+        if (to.isBefore(from)) {
+            throw new ValidationException("to cannot be before from.");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package service;
+
+import exception.ValidationException;
+import model.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+
+public class ScheduleValidator {
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+    private static final int MAX_REPORTED_CONFLICTS = 10;
+    private static final Comparator<Task> BY_START = Comparator.comparingLong(Task::getStartSecond)
+            .thenComparingInt(Task::getStartNano);
+    private static final Comparator<Task> BY_END = Comparator.comparingLong(Task::getEndSecond)
+            .thenComparingInt(Task::getEndNano);
+
+    public record Conflict(Task first, Task second) {
+    }
+
+    private record Report(List<Conflict> conflicts, long total) {
+    }
+
+    public static void validate(Collection<? extends Task> tasks) {
+        Report report = scan(tasks, MAX_REPORTED_CONFLICTS);
+        if (report.total() > 0) {
+            long omitted = report.total() - report.conflicts().size();
+            throw new ValidationException("There is an intersection in execution time between tasks: "
+                    + report.conflicts().stream()
+                    .map(conflict -> conflict.first().getId() + " and " + conflict.second().getId())
+                    .collect(Collectors.joining(", "))
+                    + (omitted > 0 ? " and " + omitted + " more" : ""));
+        }
+    }
+
+    public static List<Conflict> findConflicts(Collection<? extends Task> tasks) {
+        return scan(tasks, Integer.MAX_VALUE).conflicts();
+    }
+
+    /*
+     Интервалы сортируются по началу один раз, затем проход слева направо держит в куче по времени окончания
+     все интервалы, которые еще не закончились. Каждый новый интервал пересекается со всеми интервалами в куче.
+     Пары перебираются только пока не набран limit, остальные лишь подсчитываются по размеру кучи, поэтому
+     при ограниченном limit проход остается O(n log n) даже когда пересекаются все интервалы.
+     */
+    private static Report scan(Collection<? extends Task> tasks, int limit) {
+        Task[] sorted = tasks.stream()
+                .filter(Task::hasStartTime)
+                .toArray(Task[]::new);
+        if (sorted.length >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(sorted, BY_START);
+        } else {
+            Arrays.sort(sorted, BY_START);
+        }
+        List<Conflict> conflicts = new ArrayList<>();
+        long total = 0;
+        PriorityQueue<Task> active = new PriorityQueue<>(BY_END);
+        for (Task task : sorted) {
+            while (!active.isEmpty() && endsBeforeStartOf(active.peek(), task)) {
+                active.poll();
+            }
+            total += active.size();
+            for (Iterator<Task> it = active.iterator(); it.hasNext() && conflicts.size() < limit; ) {
+                conflicts.add(new Conflict(it.next(), task));
+            }
+            active.add(task);
+        }
+        return new Report(conflicts, total);
+    }
+
+    private static boolean endsBeforeStartOf(Task first, Task second) {
+        return first.getEndSecond() < second.getStartSecond()
+                || (first.getEndSecond() == second.getStartSecond() && first.getEndNano() < second.getStartNano());
+    }
+}
@@ -0,0 +1,222 @@
+package service;
+
+import model.Task;
+import model.TaskType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/*
+ Обратный индекс по словам названий и описаний задач. Для каждого слова хранится список id задач по возрастанию
+ в массиве int и вес слова в задаче: слово в названии весит больше, чем в описании. Запрос находит задачи,
+ где есть все его слова, а последнее слово, если после него нет пробела, ищется как начало слова.
+ Задачи упорядочиваются по сумме весов слов, умноженных на их редкость (idf).
+ Индекс защищен своим монитором: менеджер меняет его при записи, а поиск ждет только эти короткие изменения.
+ */
+public class SearchIndex {
+    private static final int NAME_WEIGHT = 3;
+    // Столько слов с нужным началом достаточно для подсказок и не дает короткому префиксу обойти весь словарь.
+    private static final int MAX_PREFIX_TERMS = 64;
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Integer, Document> documents = new HashMap<>();
+
+    private record Document(Task task, String name, String description, Postings[] postings) {
+    }
+
+    // Индекс по готовому списку задач, для менеджеров без своего индекса.
+    public static SearchIndex of(List<? extends Task> tasks) {
+        SearchIndex index = new SearchIndex();
+        tasks.forEach(index::put);
+        return index;
+    }
+
+    // Переиндексирует измененные задачи по их состоянию в снимке: задачи, которой в снимке нет, больше нет и в индексе.
+    public synchronized void apply(Snapshot snapshot, Map<Integer, TaskType> changes) {
+        changes.forEach((taskId, type) -> {
+            Task task = switch (type) {
+                case TASK -> snapshot.tasks().get(taskId);
+                case SUBTASK -> snapshot.subTasks().get(taskId);
+                case EPIC -> snapshot.epics().get(taskId);
+            };
+            if (task == null) {
+                remove(taskId);
+            } else {
+                put(task);
+            }
+        });
+    }
+
+    public synchronized void put(Task task) {
+        Document document = documents.get(task.getId());
+        if (document != null && Objects.equals(document.name(), task.getName())
+                && Objects.equals(document.description(), task.getDescription())) {
+            documents.put(task.getId(), new Document(task, document.name(), document.description(),
+                    document.postings()));
+            return;
+        }
+        if (document != null) {
+            remove(task.getId());
+        }
+        Map<String, Integer> weights = new HashMap<>();
+        tokenize(task.getName()).forEach(term -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+        tokenize(task.getDescription()).forEach(term -> weights.merge(term, 1, Integer::sum));
+        Postings[] postings = new Postings[weights.size()];
+        int index = 0;
+        for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+            postings[index] = terms.computeIfAbsent(weight.getKey(), Postings::new);
+            postings[index++].add(task.getId(), weight.getValue());
+        }
+        documents.put(task.getId(), new Document(task, task.getName(), task.getDescription(), postings));
+    }
+
+    public synchronized void remove(int taskId) {
+        Document document = documents.remove(taskId);
+        if (document == null) {
+            return;
+        }
+        for (Postings postings : document.postings()) {
+            postings.remove(taskId);
+            if (postings.size == 0) {
+                terms.remove(postings.term);
+            }
+        }
+    }
+
+    public synchronized List<Task> search(String query, int limit) {
+        Objects.requireNonNull(query, "Query cannot be null.");
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        boolean lastIsPrefix = Character.isLetterOrDigit(query.codePointBefore(query.length()));
+        List<Postings[]> matches = new ArrayList<>(words.size());
+        for (int i = 0; i < words.size(); i++) {
+            Postings[] postings = i == words.size() - 1 && lastIsPrefix
+                    ? terms.subMap(words.get(i), words.get(i) + Character.MAX_VALUE).values().stream()
+                    .limit(MAX_PREFIX_TERMS).toArray(Postings[]::new)
+                    : Arrays.stream(new Postings[]{terms.get(words.get(i))}).filter(Objects::nonNull)
+                    .toArray(Postings[]::new);
+            if (postings.length == 0) {
+                return List.of();
+            }
+            matches.add(postings);
+        }
+        // Кандидаты берутся из самого короткого списка, остальные слова проверяются двоичным поиском.
+        matches.sort(Comparator.comparingInt(SearchIndex::countOfIds));
+        Map<Integer, Double> scores = new HashMap<>();
+        for (Postings postings : matches.getFirst()) {
+            for (int i = 0; i < postings.size; i++) {
+                scores.merge(postings.ids[i], postings.weights[i] * idf(postings), Math::max);
+            }
+        }
+        for (Postings[] match : matches.subList(1, matches.size())) {
+            scores.entrySet().removeIf(score -> {
+                double best = 0;
+                for (Postings postings : match) {
+                    best = Math.max(best, postings.weight(score.getKey()) * idf(postings));
+                }
+                score.setValue(score.getValue() + best);
+                return best == 0;
+            });
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(score -> documents.get(score.getKey()).task())
+                .toList();
+    }
+
+    private double idf(Postings postings) {
+        return Math.log(1 + (double) documents.size() / postings.size);
+    }
+
+    private static int countOfIds(Postings[] match) {
+        return Arrays.stream(match).mapToInt(postings -> postings.size).sum();
+    }
+
+    // Слова - последовательности букв и цифр в нижнем регистре.
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetterOrDigit(codePoint)) {
+                word.appendCodePoint(Character.toLowerCase(codePoint));
+            } else if (!word.isEmpty()) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (!word.isEmpty()) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    /*
+     Id задач со словом по возрастанию и веса слова в них. Новые задачи получают самый большой id, поэтому
+     обычно добавляются в конец. Массивы растут в полтора раза и сжимаются, когда заняты меньше чем на четверть.
+     */
+    private static class Postings {
+        private static final int INITIAL_CAPACITY = 2;
+        private final String term;
+        private int[] ids = new int[INITIAL_CAPACITY];
+        private int[] weights = new int[INITIAL_CAPACITY];
+        private int size;
+
+        Postings(String term) {
+            this.term = term;
+        }
+
+        void add(int taskId, int weight) {
+            int index = size > 0 && ids[size - 1] < taskId ? size : Arrays.binarySearch(ids, 0, size, taskId);
+            if (index >= 0 && index < size) {
+                weights[index] = weight;
+                return;
+            }
+            int position = index < 0 ? -index - 1 : index;
+            if (size == ids.length) {
+                resize(size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            System.arraycopy(weights, position, weights, position + 1, size - position);
+            ids[position] = taskId;
+            weights[position] = weight;
+            size++;
+        }
+
+        void remove(int taskId) {
+            int index = Arrays.binarySearch(ids, 0, size, taskId);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            System.arraycopy(weights, index + 1, weights, index, size - index - 1);
+            size--;
+            if (size > INITIAL_CAPACITY && size < ids.length / 4) {
+                resize(size * 2);
+            }
+        }
+
+        int weight(int taskId) {
+            int index = Arrays.binarySearch(ids, 0, size, taskId);
+            return index < 0 ? 0 : weights[index];
+        }
+
+        private void resize(int capacity) {
+            ids = Arrays.copyOf(ids, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+    }
+}
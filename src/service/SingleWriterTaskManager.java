@@ -0,0 +1,342 @@
+package service;
+
+import model.CalendarDay;
+import model.Epic;
+import model.FreeSlot;
+import model.SubTask;
+import model.Task;
+import model.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/*
+ Однопоточный писатель. Все операции, которые меняют или читают изменяемое состояние менеджера, становятся
+ командами в кольцевом буфере, и их выполняет один поток. Он забирает команды пачками до maxBatch и применяет
+ пачку через runBatch, поэтому снимок публикуется и файл сохраняется один раз на пачку. Будущее каждой команды
+ завершается только после этого. Списки из снимка, версии и лента изменений читаются напрямую, без очереди.
+ */
+public class SingleWriterTaskManager implements TaskManager, AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int DEFAULT_MAX_BATCH = 256;
+    private final TaskManager delegate;
+    private final BlockingQueue<Command<?>> commands;
+    private final int maxBatch;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private static class Command<R> {
+        private final Function<TaskManager, R> mutation;
+        private final CompletableFuture<R> result = new CompletableFuture<>();
+        private R value;
+        private RuntimeException error;
+
+        Command(Function<TaskManager, R> mutation) {
+            this.mutation = mutation;
+        }
+
+        void apply(TaskManager manager) {
+            try {
+                value = mutation.apply(manager);
+            } catch (RuntimeException e) {
+                error = e;
+            }
+        }
+
+        // Ошибка сохранения пачки отменяет успех всех ее команд: изменения не попали в файл.
+        void complete(RuntimeException batchError) {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else if (batchError != null) {
+                result.completeExceptionally(batchError);
+            } else {
+                result.complete(value);
+            }
+        }
+    }
+
+    public SingleWriterTaskManager(TaskManager delegate) {
+        this(delegate, DEFAULT_CAPACITY, DEFAULT_MAX_BATCH);
+    }
+
+    public SingleWriterTaskManager(TaskManager delegate, int capacity, int maxBatch) {
+        this.delegate = delegate;
+        this.commands = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.writer = new Thread(this::drain, "task-manager-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Команда выполняется потоком-писателем. Если буфер заполнен, запрос отклоняется сразу.
+    public <R> CompletableFuture<R> submit(Function<TaskManager, R> mutation) {
+        Command<R> command = new Command<>(mutation);
+        if (closed || !commands.offer(command)) {
+            throw new RejectedExecutionException("Task manager writer queue is full");
+        }
+        if (closed && commands.remove(command)) {
+            throw new RejectedExecutionException("Task manager writer is closed");
+        }
+        return command.result;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        writer.interrupt();
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Command<?> command;
+        while ((command = commands.poll()) != null) {
+            command.result.completeExceptionally(new RejectedExecutionException("Task manager writer is closed"));
+        }
+    }
+
+    private void drain() {
+        List<Command<?>> batch = new ArrayList<>(maxBatch);
+        while (!closed) {
+            try {
+                batch.add(commands.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            commands.drainTo(batch, maxBatch - 1);
+            RuntimeException batchError = null;
+            try {
+                delegate.runBatch(() -> batch.forEach(command -> command.apply(delegate)));
+            } catch (RuntimeException e) {
+                batchError = e;
+            }
+            for (Command<?> command : batch) {
+                command.complete(batchError);
+            }
+            batch.clear();
+        }
+    }
+
+    private <R> R execute(Function<TaskManager, R> mutation) {
+        if (Thread.currentThread() == writer) {
+            return mutation.apply(delegate);
+        }
+        try {
+            return submit(mutation).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void run(Consumer<TaskManager> mutation) {
+        execute(manager -> {
+            mutation.accept(manager);
+            return null;
+        });
+    }
+
+    @Override
+    public int getNextId() {
+        return execute(TaskManager::getNextId);
+    }
+
+    @Override
+    public int createTask(Task task) {
+        return execute(manager -> manager.createTask(task));
+    }
+
+    @Override
+    public int createSubTask(SubTask subTask) {
+        return execute(manager -> manager.createSubTask(subTask));
+    }
+
+    @Override
+    public int createEpic(Epic epic) {
+        return execute(manager -> manager.createEpic(epic));
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        return delegate.hasSnapshotReads() ? delegate.getTasks() : execute(TaskManager::getTasks);
+    }
+
+    @Override
+    public List<SubTask> getSubTasks() {
+        return delegate.hasSnapshotReads() ? delegate.getSubTasks() : execute(TaskManager::getSubTasks);
+    }
+
+    @Override
+    public List<Epic> getEpics() {
+        return delegate.hasSnapshotReads() ? delegate.getEpics() : execute(TaskManager::getEpics);
+    }
+
+    // Просмотр задачи пишет в историю, поэтому тоже идет через писателя.
+    @Override
+    public Task getTask(int taskId) {
+        return execute(manager -> manager.getTask(taskId));
+    }
+
+    @Override
+    public SubTask getSubTask(int subTaskId) {
+        return execute(manager -> manager.getSubTask(subTaskId));
+    }
+
+    @Override
+    public Epic getEpic(int epicId) {
+        return execute(manager -> manager.getEpic(epicId));
+    }
+
+    @Override
+    public List<SubTask> getSubtasksOfEpic(int epicId) {
+        return execute(manager -> manager.getSubtasksOfEpic(epicId));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return execute(TaskManager::getHistory);
+    }
+
+    @Override
+    public void deleteTasks() {
+        run(TaskManager::deleteTasks);
+    }
+
+    @Override
+    public void deleteSubTasks() {
+        run(TaskManager::deleteSubTasks);
+    }
+
+    @Override
+    public void deleteEpics() {
+        run(TaskManager::deleteEpics);
+    }
+
+    @Override
+    public void deleteTask(int taskId) {
+        run(manager -> manager.deleteTask(taskId));
+    }
+
+    @Override
+    public void deleteSubTask(int subTaskId) {
+        run(manager -> manager.deleteSubTask(subTaskId));
+    }
+
+    @Override
+    public void deleteEpic(int epicId) {
+        run(manager -> manager.deleteEpic(epicId));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        run(manager -> manager.updateTask(task));
+    }
+
+    @Override
+    public void updateSubTask(SubTask subTask) {
+        run(manager -> manager.updateSubTask(subTask));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        run(manager -> manager.updateEpic(epic));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return delegate.hasSnapshotReads()
+                ? delegate.getPrioritizedTasks()
+                : execute(TaskManager::getPrioritizedTasks);
+    }
+
+    @Override
+    public List<FreeSlot> findFreeSlots(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter,
+                                        int limit) {
+        return delegate.hasSnapshotReads()
+                ? delegate.findFreeSlots(duration, notBefore, notAfter, limit)
+                : execute(manager -> manager.findFreeSlots(duration, notBefore, notAfter, limit));
+    }
+
+    @Override
+    public List<CalendarDay> getCalendar(LocalDate from, LocalDate to) {
+        return delegate.hasSnapshotReads()
+                ? delegate.getCalendar(from, to)
+                : execute(manager -> manager.getCalendar(from, to));
+    }
+
+    @Override
+    public void addDependency(int taskId, int dependsOnId) {
+        run(manager -> manager.addDependency(taskId, dependsOnId));
+    }
+
+    @Override
+    public void removeDependency(int taskId, int dependsOnId) {
+        run(manager -> manager.removeDependency(taskId, dependsOnId));
+    }
+
+    @Override
+    public List<Integer> getDependencies(int taskId) {
+        return execute(manager -> manager.getDependencies(taskId));
+    }
+
+    @Override
+    public List<SubTask> getSubtasksOfEpicInOrder(int epicId) {
+        return execute(manager -> manager.getSubtasksOfEpicInOrder(epicId));
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        return delegate.hasSnapshotReads()
+                ? delegate.search(query, limit)
+                : execute(manager -> manager.search(query, limit));
+    }
+
+    @Override
+    public List<Task> getTasksOfDay(LocalDate date) {
+        return delegate.hasSnapshotReads()
+                ? delegate.getTasksOfDay(date)
+                : execute(manager -> manager.getTasksOfDay(date));
+    }
+
+    @Override
+    public long getVersion(TaskType type) {
+        return delegate.hasSnapshotReads() ? delegate.getVersion(type) : execute(manager -> manager.getVersion(type));
+    }
+
+    @Override
+    public TaskView getReadView() {
+        return delegate.hasSnapshotReads() ? delegate.getReadView() : this;
+    }
+
+    @Override
+    public ChangeFeed getChangeFeed() {
+        return delegate.getChangeFeed();
+    }
+
+    @Override
+    public SyncDelta getChangesSince(long since) {
+        return execute(manager -> manager.getChangesSince(since));
+    }
+
+    @Override
+    public boolean hasSnapshotReads() {
+        return delegate.hasSnapshotReads();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+}
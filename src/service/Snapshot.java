@@ -0,0 +1,54 @@
+package service;
+
+import model.CalendarDay;
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import model.TaskType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/*
+ Согласованное состояние всех хранилищ менеджера на момент версии version. Снимок неизменяемый, поэтому читается
+ без блокировок: задачи в нем не меняются, а эпик перед изменением копируется (см. InMemoryManager.editEpic).
+ versions - версии коллекций по TaskType.ordinal(), взятые вместе с хранилищами, поэтому список коллекции
+ никогда не старше ее версии из того же снимка.
+ */
+public record Snapshot(long version,
+                       long[] versions,
+                       PersistentSortedMap<Integer, Task> tasks,
+                       PersistentSortedMap<Integer, SubTask> subTasks,
+                       PersistentSortedMap<Integer, Epic> epics,
+                       PersistentSortedMap<LocalDateTime, Task> prioritized,
+                       PersistentSortedMap<LocalDate, CalendarDay> calendar) implements TaskView {
+    public static final Snapshot EMPTY = new Snapshot(0, new long[TaskType.values().length],
+            PersistentSortedMap.empty(), PersistentSortedMap.empty(), PersistentSortedMap.empty(),
+            PersistentSortedMap.empty(), PersistentSortedMap.empty());
+
+    @Override
+    public long getVersion(TaskType type) {
+        return versions[type.ordinal()];
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        return tasks.values();
+    }
+
+    @Override
+    public List<SubTask> getSubTasks() {
+        return subTasks.values();
+    }
+
+    @Override
+    public List<Epic> getEpics() {
+        return epics.values();
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return prioritized.values();
+    }
+}
@@ -0,0 +1,93 @@
+package service;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/*
+ Изменяемое отображение для писателя поверх PersistentSortedMap. Каждое изменение заменяет текущую версию,
+ а snapshot() отдает ее без копирования. Итераторы обходят версию, взятую при их создании.
+ */
+public class SnapshotMap<K extends Comparable<? super K>, V> extends AbstractMap<K, V> {
+    private PersistentSortedMap<K, V> current = PersistentSortedMap.empty();
+
+    public PersistentSortedMap<K, V> snapshot() {
+        return current;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        return current.get((K) key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean containsKey(Object key) {
+        return current.containsKey((K) key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        V previous = current.get(key);
+        current = current.put(key, value);
+        return previous;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        V previous = current.get((K) key);
+        current = current.remove((K) key);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        current = current.clear();
+    }
+
+    @Override
+    public int size() {
+        return current.size();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                Iterator<Entry<K, V>> entries = current.entryIterator();
+                return new Iterator<>() {
+                    private Entry<K, V> last;
+
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public Entry<K, V> next() {
+                        last = entries.next();
+                        return last;
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last == null) {
+                            throw new IllegalStateException();
+                        }
+                        SnapshotMap.this.remove(last.getKey());
+                        last = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return current.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package service;
+
+import model.Epic;
+import model.SubTask;
+import model.Task;
+
+import java.util.List;
+
+public record SyncDelta(long version, List<Task> tasks, List<SubTask> subTasks, List<Epic> epics,
+                        List<SyncIndex.Tombstone> deleted) {
+}
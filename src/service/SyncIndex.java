@@ -0,0 +1,85 @@
+package service;
+
+import exception.FeedTruncatedException;
+import model.ChangeType;
+import model.TaskType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/*
+ Индекс для дельта-синхронизации. Для каждой живой задачи хранится номер ее последнего изменения,
+ а упорядоченная по номерам карта позволяет выбрать измененные после N задачи без обхода всех хранилищ.
+ Удаленные задачи попадают в журнал надгробий ограниченного размера; клиент, отставший дальше журнала,
+ должен загрузить списки целиком.
+ */
+public class SyncIndex {
+    public static final int DEFAULT_TOMBSTONE_RETENTION = 10_000;
+    private final Map<Integer, Long> versions = new ConcurrentHashMap<>();
+    private final NavigableMap<Long, Integer> modified = new ConcurrentSkipListMap<>();
+    private final Deque<Tombstone> tombstones = new ArrayDeque<>();
+    private final int retention;
+    private long horizon;
+
+    public record Tombstone(long sequence, TaskType type, int id) {
+    }
+
+    public SyncIndex(int retention) {
+        if (retention <= 0) {
+            throw new IllegalArgumentException("Retention must be positive: " + retention);
+        }
+        this.retention = retention;
+    }
+
+    public void record(ChangeType change, TaskType type, int id, long sequence) {
+        Long previous = change == ChangeType.DELETED ? versions.remove(id) : versions.put(id, sequence);
+        if (previous != null) {
+            modified.remove(previous);
+        }
+        if (change != ChangeType.DELETED) {
+            modified.put(sequence, id);
+            return;
+        }
+        synchronized (tombstones) {
+            tombstones.addLast(new Tombstone(sequence, type, id));
+            if (tombstones.size() > retention) {
+                horizon = tombstones.removeFirst().sequence();
+            }
+        }
+    }
+
+    public long getVersion(int id) {
+        return versions.getOrDefault(id, 0L);
+    }
+
+    // Id живых задач, измененных после since, в порядке изменений.
+    public List<Integer> modifiedSince(long since) {
+        return new ArrayList<>(modified.tailMap(since, false).values());
+    }
+
+    public List<Tombstone> deletedSince(long since) {
+        synchronized (tombstones) {
+            if (since < horizon) {
+                throw new FeedTruncatedException("Deletions up to " + horizon + " are no longer retained, "
+                        + "cannot sync from " + since + ".");
+            }
+            List<Tombstone> deleted = new ArrayList<>();
+            Iterator<Tombstone> newestFirst = tombstones.descendingIterator();
+            while (newestFirst.hasNext()) {
+                Tombstone tombstone = newestFirst.next();
+                if (tombstone.sequence() <= since) {
+                    break;
+                }
+                deleted.add(tombstone);
+            }
+            return deleted.reversed();
+        }
+    }
+}
@@ -1,12 +1,21 @@
 package service;
 
+import exception.NotSupportedException;
+import model.CalendarDay;
 import model.Epic;
+import model.FreeSlot;
 import model.SubTask;
 import model.Task;
+import model.TaskType;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
-public interface TaskManager {
+public interface TaskManager extends TaskView {
     int getNextId();
 
     int createTask(Task task);
@@ -15,12 +24,6 @@ public interface TaskManager {
 
     int createEpic(Epic epic);
 
-    List<Task> getTasks();
-
-    List<SubTask> getSubTasks();
-
-    List<Epic> getEpics();
-
     Task getTask(int taskId);
 
     SubTask getSubTask(int subTaskId);
@@ -49,5 +52,91 @@ public interface TaskManager {
 
     void updateEpic(Epic epic);
 
-    List<Task> getPrioritizedTasks();
+    /*
+     До limit самых ранних свободных окон, куда помещается задача длительностью duration: не раньше notBefore
+     и с концом не позже notAfter (null - без ограничения).
+     */
+    default List<FreeSlot> findFreeSlots(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter,
+                                         int limit) {
+        return FreeSlotFinder.find(getPrioritizedTasks(), duration, notBefore, notAfter, limit);
+    }
+
+    // Самое раннее время начала, с которым задача не пересечется с расписанием.
+    default Optional<LocalDateTime> findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter) {
+        return findFreeSlots(duration, notBefore, notAfter, 1).stream().findFirst().map(FreeSlot::start);
+    }
+
+    // Загрузка каждого дня из [from, to): число задач и занятое ими время.
+    default List<CalendarDay> getCalendar(LocalDate from, LocalDate to) {
+        return ScheduleMap.getCalendar(ScheduleMap.of(getPrioritizedTasks()).calendar(), from, to);
+    }
+
+    // Задачи, которые идут в день date, по времени начала.
+    default List<Task> getTasksOfDay(LocalDate date) {
+        return ScheduleMap.getTasksOfDay(ScheduleMap.of(getPrioritizedTasks()).snapshot(), date);
+    }
+
+    // До limit задач, где есть все слова запроса, от лучших совпадений к худшим. Последнее слово - начало слова.
+    default List<Task> search(String query, int limit) {
+        List<Task> tasks = new ArrayList<>(getTasks());
+        tasks.addAll(getSubTasks());
+        tasks.addAll(getEpics());
+        return SearchIndex.of(tasks).search(query, limit);
+    }
+
+    /*
+     Задача taskId идет после dependsOnId: зависимость задает порядок подзадач и критический путь эпика, но не
+     проверяет и не сдвигает время начала задач. ValidationException, если зависимость замыкает цикл.
+     Менеджеры без графа зависимостей бросают NotSupportedException.
+     */
+    default void addDependency(int taskId, int dependsOnId) {
+        throw dependenciesNotSupported();
+    }
+
+    default void removeDependency(int taskId, int dependsOnId) {
+        throw dependenciesNotSupported();
+    }
+
+    // Id задач, после которых идет taskId.
+    default List<Integer> getDependencies(int taskId) {
+        throw dependenciesNotSupported();
+    }
+
+    // Подзадачи эпика в порядке зависимостей: каждая идет после тех, от которых зависит.
+    default List<SubTask> getSubtasksOfEpicInOrder(int epicId) {
+        throw dependenciesNotSupported();
+    }
+
+    private NotSupportedException dependenciesNotSupported() {
+        return new NotSupportedException("Dependencies are not supported by " + getClass().getSimpleName());
+    }
+
+    /*
+     Версии и списки, прочитанные согласованно: версия коллекции не новее ее списка, иначе устаревший список
+     закэшировался бы под новой версией. Менеджер со снимками отдает опубликованный снимок. Остальные менеджеры
+     читаются под блокировкой или на потоке записи и отдают себя: версия читается раньше списка.
+     */
+    default TaskView getReadView() {
+        return this;
+    }
+
+    ChangeFeed getChangeFeed();
+
+    // Задачи, измененные после версии since, и удаленные после нее id.
+    SyncDelta getChangesSince(long since);
+
+    // Списки задач читаются из неизменяемого снимка и не требуют внешней блокировки менеджера.
+    default boolean hasSnapshotReads() {
+        return false;
+    }
+
+    // Менеджер сам упорядочивает доступ к своему состоянию, внешняя блокировка не нужна.
+    default boolean isThreadSafe() {
+        return false;
+    }
+
+    // Операции внутри batch применяются как одна пачка: реализация может отложить публикацию и сохранение до конца.
+    default void runBatch(Runnable batch) {
+        batch.run();
+    }
 }
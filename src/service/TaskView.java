@@ -0,0 +1,22 @@
+package service;
+
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import model.TaskType;
+
+import java.util.List;
+
+// Списки задач и версии коллекций, из которых собираются ответы на GET списков.
+public interface TaskView {
+    List<Task> getTasks();
+
+    List<SubTask> getSubTasks();
+
+    List<Epic> getEpics();
+
+    List<Task> getPrioritizedTasks();
+
+    // Монотонно растущая версия коллекции, меняется при каждом изменении ее задач через менеджер.
+    long getVersion(TaskType type);
+}
@@ -0,0 +1,139 @@
+import exception.ManagerLoadException;
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.BoardRegistry;
+import service.FileBackedTaskManager;
+import util.testdata.RandomTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Реестр досок.")
+class BoardRegistryTest {
+    private final LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 9, 0);
+    private final Duration duration = Duration.ofMinutes(10);
+    private File directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("boards").toFile();
+    }
+
+    @Test
+    @DisplayName("Доска должна загружаться из своего файла при первом обращении.")
+    void boardShouldBeLoadedFromFileOnFirstAccess() {
+        BoardRegistry registry = new BoardRegistry(directory, Long.MAX_VALUE);
+        FileBackedTaskManager saved = new FileBackedTaskManager(registry.getFile(7));
+        Task task = RandomTask.initRandomTask(duration, startTime);
+        saved.createTask(task);
+
+        try (BoardRegistry.Lease lease = registry.acquire(7)) {
+            assertEquals(List.of(task.getId()), lease.getManager().getTasks().stream().map(Task::getId).toList());
+        }
+        assertEquals(Set.of(7), registry.getResidentBoards());
+    }
+
+    @Test
+    @DisplayName("Повторное обращение должно возвращать ту же доску.")
+    void hotBoardShouldStayInMemory() {
+        BoardRegistry registry = new BoardRegistry(directory, Long.MAX_VALUE);
+        FileBackedTaskManager first;
+        try (BoardRegistry.Lease lease = registry.acquire(1)) {
+            first = lease.getManager();
+        }
+
+        try (BoardRegistry.Lease lease = registry.acquire(1)) {
+            assertSame(first, lease.getManager());
+        }
+    }
+
+    @Test
+    @DisplayName("Сверх бюджета должна выгружаться давно не использованная доска с сохранением в файл.")
+    void coldBoardShouldBeFlushedAndEvicted() {
+        BoardRegistry registry = new BoardRegistry(directory, 3 * BoardRegistry.ESTIMATED_BYTES_PER_TASK);
+        FileBackedTaskManager firstManager = fillBoard(registry, 1, 2);
+        fillBoard(registry, 2, 2);
+
+        assertEquals(Set.of(2), registry.getResidentBoards());
+        try (BoardRegistry.Lease lease = registry.acquire(1)) {
+            assertNotSame(firstManager, lease.getManager());
+            assertEquals(2, lease.getManager().getTasks().size());
+        }
+        assertEquals(Set.of(1), registry.getResidentBoards());
+    }
+
+    @Test
+    @DisplayName("Доска, которую держат, не должна выгружаться.")
+    void leasedBoardShouldNotBeEvicted() {
+        BoardRegistry registry = new BoardRegistry(directory, BoardRegistry.ESTIMATED_BYTES_PER_TASK);
+        List<Integer> evicted = new ArrayList<>();
+        registry.addEvictionListener(evicted::add);
+
+        try (BoardRegistry.Lease lease = registry.acquire(1)) {
+            lease.getManager().createTask(RandomTask.initRandomTask(duration, startTime));
+            lease.getManager().createTask(RandomTask.initRandomTask(duration, startTime.plusHours(1)));
+            fillBoard(registry, 2, 1);
+
+            assertEquals(List.of(2), evicted);
+            assertTrue(registry.getResidentBoards().contains(1));
+        }
+        assertEquals(List.of(2, 1), evicted);
+    }
+
+    @Test
+    @DisplayName("Отданная доска должна сохраняться и выгружаться, а занятую отдавать нельзя.")
+    void detachedBoardShouldBeFlushedAndEvicted() {
+        BoardRegistry registry = new BoardRegistry(directory, Long.MAX_VALUE);
+        List<Integer> evicted = new ArrayList<>();
+        registry.addEvictionListener(evicted::add);
+        fillBoard(registry, 3, 2);
+
+        try (BoardRegistry.Lease lease = registry.acquire(3)) {
+            assertEquals(3, lease.getBoardId());
+            assertThrows(IllegalStateException.class, () -> registry.detach(3));
+        }
+        registry.detach(3);
+
+        assertTrue(registry.getResidentBoards().isEmpty());
+        assertEquals(List.of(3), evicted);
+        assertEquals(2, FileBackedTaskManager.loadFromFile(registry.getFile(3)).getTasks().size());
+    }
+
+    @Test
+    @DisplayName("Доска, которую не удалось загрузить, не должна оставаться в реестре.")
+    void failedLoadShouldNotLeaveBoardResident() throws IOException {
+        BoardRegistry registry = new BoardRegistry(directory, Long.MAX_VALUE);
+        Files.writeString(registry.getFile(4).toPath(), "id,type,name,status,description,epic\n1,TASK,\"broken");
+
+        assertThrows(ManagerLoadException.class, () -> registry.acquire(4));
+        assertTrue(registry.getResidentBoards().isEmpty());
+
+        Files.delete(registry.getFile(4).toPath());
+        try (BoardRegistry.Lease lease = registry.acquire(4)) {
+            assertTrue(lease.getManager().getTasks().isEmpty());
+        }
+    }
+
+    private FileBackedTaskManager fillBoard(BoardRegistry registry, int boardId, int countOfTasks) {
+        try (BoardRegistry.Lease lease = registry.acquire(boardId)) {
+            for (int i = 0; i < countOfTasks; i++) {
+                lease.getManager().createTask(RandomTask.initRandomTask(duration, startTime.plusHours(i)));
+            }
+            return lease.getManager();
+        }
+    }
+}
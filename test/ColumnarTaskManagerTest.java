@@ -0,0 +1,95 @@
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.ColumnarTaskManager;
+import service.InMemoryHistoryManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Тесты менеджера задач с колоночным хранилищем.")
+public class ColumnarTaskManagerTest extends TaskManagerTest<ColumnarTaskManager> {
+    @BeforeEach
+    public void setUp() {
+        sut = new ColumnarTaskManager(new InMemoryHistoryManager());
+    }
+
+    @Test
+    @DisplayName("Подсчет статусов должен учитывать только задачи указанного типа.")
+    public void getStatusCountsShouldCountOnlyTasksOfGivenType() {
+        getRandomTask(duration, startTime);
+        Epic epic = getRandomEpic();
+        SubTask subTask = getRandomSubTask(epic.getId(), duration, startTime.plusHours(1));
+        subTask.setStatus(TaskStatus.DONE);
+        sut.updateSubTask(subTask);
+        getRandomSubTask(epic.getId(), duration, startTime.plusHours(2));
+
+        Map<TaskStatus, Long> actualSubTasks = sut.getStatusCounts(TaskType.SUBTASK);
+        Map<TaskStatus, Long> actualEpics = sut.getStatusCounts(TaskType.EPIC);
+
+        assertEquals(1L, actualSubTasks.get(TaskStatus.NEW));
+        assertEquals(1L, actualSubTasks.get(TaskStatus.DONE));
+        assertEquals(1L, actualEpics.get(TaskStatus.IN_PROGRESS));
+    }
+
+    @Test
+    @DisplayName("Удаление эпика должно удалять его подзадачи из отчетов.")
+    public void deleteEpicShouldRemoveSubTasksFromReports() {
+        Epic epic = getRandomEpic();
+        getRandomSubTask(epic.getId(), duration, startTime);
+
+        sut.deleteEpic(epic.getId());
+
+        assertEquals(0L, sut.getStatusCounts(TaskType.SUBTASK).get(TaskStatus.NEW));
+        assertEquals(0, sut.getScheduledDurationByEpic().size());
+    }
+
+    @Test
+    @DisplayName("Суммарная длительность эпика должна быть равна сумме длительностей подзадач.")
+    public void getScheduledDurationByEpicShouldSumChildDurations() {
+        Epic epic = getRandomEpic();
+        Epic emptyEpic = getRandomEpic();
+        getRandomSubTask(epic.getId(), duration, startTime);
+        getRandomSubTask(epic.getId(), duration, startTime.plusHours(1));
+
+        Map<Integer, Duration> actual = sut.getScheduledDurationByEpic();
+
+        assertEquals(duration.multipliedBy(2), actual.get(epic.getId()));
+        assertEquals(Duration.ZERO, actual.get(emptyEpic.getId()));
+    }
+
+    @Test
+    @DisplayName("Суммарная длительность эпика должна сохраняться после перестановки строк при удалении.")
+    public void getScheduledDurationByEpicShouldSurviveRowMoves() {
+        Task removed = getRandomTask(duration, startTime);
+        Epic epic = getRandomEpic();
+        getRandomSubTask(epic.getId(), duration, startTime.plusHours(1));
+        getRandomSubTask(epic.getId(), duration, startTime.plusHours(2));
+
+        sut.deleteTask(removed.getId());
+
+        assertEquals(duration.multipliedBy(2), sut.getScheduledDurationByEpic().get(epic.getId()));
+    }
+
+    @Test
+    @DisplayName("Загрузка по дням должна разбивать задачу, переходящую через полночь.")
+    public void getScheduledSecondsPerDayShouldSplitIntervalsAtMidnight() {
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        getRandomTask(Duration.ofHours(2), day.atTime(23, 0));
+        getRandomTask(Duration.ofMinutes(30), LocalDateTime.of(2024, 1, 2, 10, 0));
+
+        long[] actual = sut.getScheduledSecondsPerDay(day, day.plusDays(3));
+
+        assertArrayEquals(new long[]{3600, 3600 + 1800, 0}, actual);
+    }
+}
@@ -0,0 +1,100 @@
+import exception.ValidationException;
+import model.SubTask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.DependencyGraph;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Граф зависимостей задач.")
+class DependencyGraphTest {
+    private final Map<Integer, Task> tasks = new HashMap<>();
+    private final DependencyGraph graph = new DependencyGraph(tasks::get);
+
+    @Test
+    @DisplayName("Случайные зависимости должны сохранять топологический порядок и отклонять циклы.")
+    void randomEdgesShouldKeepOrderAndRejectCycles() {
+        Random random = new Random(42);
+        int countOfTasks = 200;
+        for (int id = 1; id <= countOfTasks; id++) {
+            subTask(id, 1, 10);
+        }
+        Map<Integer, Set<Integer>> edges = new HashMap<>();
+        for (int i = 0; i < 2_000; i++) {
+            int dependsOn = 1 + random.nextInt(countOfTasks);
+            int taskId = 1 + random.nextInt(countOfTasks);
+            boolean cycle = dependsOn == taskId || isReachable(edges, taskId, dependsOn);
+            if (cycle) {
+                assertThrows(ValidationException.class, () -> graph.addEdge(dependsOn, taskId));
+            } else {
+                graph.addEdge(dependsOn, taskId);
+                edges.computeIfAbsent(dependsOn, key -> new HashSet<>()).add(taskId);
+            }
+        }
+
+        List<Integer> order = graph.sort(tasks.values()).stream().map(Task::getId).toList();
+        edges.forEach((dependsOn, following) -> following.forEach(taskId ->
+                assertTrue(order.indexOf(dependsOn) < order.indexOf(taskId), dependsOn + " -> " + taskId)));
+    }
+
+    @Test
+    @DisplayName("Цепочка должна пересчитываться только у зависящих задач своего эпика.")
+    void longestChainShouldFollowChangesWithinEpic() {
+        Task first = subTask(1, 1, 10);
+        subTask(2, 1, 20);
+        Task third = subTask(3, 1, 5);
+        Task otherEpic = subTask(4, 2, 60);
+        graph.addEdge(1, 2);
+        graph.addEdge(2, 3);
+
+        assertEquals(Set.of(), graph.addEdge(4, 1));
+        assertEquals(Duration.ofMinutes(35), graph.getLongestChain(third));
+        assertEquals(Duration.ofMinutes(60), graph.getLongestChain(otherEpic));
+
+        first.setDuration(Duration.ofMinutes(30));
+        assertEquals(Set.of(1, 2, 3), graph.refresh(1));
+        assertEquals(Duration.ofMinutes(55), graph.getLongestChain(third));
+
+        tasks.remove(2);
+        assertEquals(Set.of(3), graph.removeNode(2));
+        assertEquals(Duration.ofMinutes(5), graph.getLongestChain(third));
+        assertEquals(List.of(), graph.getDependencies(3));
+    }
+
+    private Task subTask(int id, int epicId, int minutes) {
+        SubTask subTask = new SubTask("subTask" + id, "description", id, TaskStatus.NEW, epicId,
+                Duration.ofMinutes(minutes), null);
+        tasks.put(id, subTask);
+        return subTask;
+    }
+
+    private static boolean isReachable(Map<Integer, Set<Integer>> edges, int from, int to) {
+        Deque<Integer> stack = new ArrayDeque<>(List.of(from));
+        Set<Integer> seen = new HashSet<>(stack);
+        while (!stack.isEmpty()) {
+            for (int next : edges.getOrDefault(stack.pop(), Set.of())) {
+                if (next == to) {
+                    return true;
+                }
+                if (seen.add(next)) {
+                    stack.push(next);
+                }
+            }
+        }
+        return false;
+    }
+}
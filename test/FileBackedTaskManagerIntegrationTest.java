@@ -1,3 +1,6 @@
+import exception.ManagerLoadException;
+import exception.ValidationException;
+import metrics.OperationMetrics;
 import model.Epic;
 import model.SubTask;
 import model.Task;
@@ -9,12 +12,16 @@ import service.FileBackedTaskManager;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static util.check.TaskComparator.compareListOfTasks;
 import static util.check.TaskComparator.compareTasks;
 import static util.testdata.RandomTask.random;
@@ -47,6 +54,36 @@ public class FileBackedTaskManagerIntegrationTest extends TaskManagerTest<FileBa
         compareListOfTasks(expected, actualTasks);
     }
 
+    @Test
+    @DisplayName("Зависимости и критический путь эпика должны восстанавливаться при загрузке.")
+    public void dependenciesShouldBeRestoredOnLoad() {
+        Epic epic = getRandomEpic();
+        LocalDateTime nine = LocalDateTime.of(2024, 1, 1, 9, 0);
+        SubTask first = getRandomSubTask(epic.getId(), Duration.ofMinutes(30), nine);
+        SubTask second = getRandomSubTask(epic.getId(), Duration.ofMinutes(45), nine.plusHours(1));
+        sut.addDependency(second.getId(), first.getId());
+
+        FileBackedTaskManager actual = FileBackedTaskManager.loadFromFile(file);
+
+        assertEquals(List.of(first.getId()), actual.getDependencies(second.getId()));
+        assertEquals(Duration.ofMinutes(75), actual.getEpic(epic.getId()).getCriticalPath());
+        assertThrows(ValidationException.class, () -> actual.addDependency(first.getId(), second.getId()));
+    }
+
+    @Test
+    @DisplayName("Восстановление зависимостей при загрузке не должно писать в ленту изменений.")
+    public void loadingDependenciesShouldNotPublishChanges() {
+        Epic epic = getRandomEpic();
+        SubTask first = getRandomSubTask(epic.getId(), duration, startTime);
+        SubTask second = getRandomSubTask(epic.getId(), duration, startTime.plusHours(1));
+        sut.addDependency(second.getId(), first.getId());
+
+        FileBackedTaskManager actual = FileBackedTaskManager.loadFromFile(file);
+
+        assertEquals(0, actual.getChangeFeed().getLastSequence());
+        assertEquals(duration.multipliedBy(2), actual.getEpic(epic.getId()).getCriticalPath());
+    }
+
     @Test
     @DisplayName("Изменение задачи должно сохранять состояние в файл.")
     public void updateTaskShouldSaveToFile() {
@@ -166,10 +203,21 @@ public class FileBackedTaskManagerIntegrationTest extends TaskManagerTest<FileBa
         List<Task> actual = FileBackedTaskManager.loadFromFile(file).getHistory();
 
         compareTasks(expectedTask, actual.getFirst());
-        compareTasks(expectedEpic, actual.get(1));
+        compareTasks(sut.getHistory().get(1), actual.get(1));
         compareTasks(expectedSubTask, actual.getLast());
     }
 
+    @Test
+    @DisplayName("Загруженные задачи должны находиться поиском.")
+    public void loadedTasksShouldBeSearchable() {
+        Task task = new Task("Quarterly report", "finance", TaskStatus.NEW, 0, duration, startTime);
+        sut.createTask(task);
+
+        List<Task> actual = FileBackedTaskManager.loadFromFile(file).search("report", 10);
+
+        assertEquals(List.of(task.getId()), actual.stream().map(Task::getId).toList());
+    }
+
     @Test
     @DisplayName("Сохранение и загрузка задач из пустого файла не должна вызывать ошибок.")
     public void loadFromEmptyFileShouldNotThrowExceptions() {
@@ -226,4 +274,145 @@ public class FileBackedTaskManagerIntegrationTest extends TaskManagerTest<FileBa
         assertEquals(expectedStartTime, actualEpic.getStartTime(), "StartTime should be actual");
         assertEquals(expectedEndTime, actualEpic.getEndTime(), "EndTime should be actual");
     }
+
+    @Test
+    @DisplayName("Загрузка файла с пересекающимися задачами должна сообщать обо всех пересечениях.")
+    public void loadShouldReportAllIntersections() throws IOException {
+        Files.writeString(file.toPath(), String.join(System.lineSeparator(),
+                "id,type,name,status,description,epic,duration,startTime",
+                "1,TASK,first,NEW,first,PT10M,2024-01-01T10:00",
+                "2,TASK,second,NEW,second,PT10M,2024-01-01T10:05",
+                "3,TASK,third,NEW,third,PT10M,2024-01-01T12:00",
+                "4,TASK,fourth,NEW,fourth,PT10M,2024-01-01T12:10",
+                "",
+                ""));
+
+        ValidationException actual = assertThrows(ValidationException.class,
+                () -> FileBackedTaskManager.loadFromFile(file));
+
+        assertEquals("There is an intersection in execution time between tasks: 1 and 2, 3 and 4",
+                actual.getMessage());
+    }
+
+    @Test
+    @DisplayName("Незакрытая кавычка в конце файла должна вызывать ошибку загрузки.")
+    public void loadShouldFailOnQuoteNotClosedBeforeEndOfFile() throws IOException {
+        Files.writeString(file.toPath(), String.join(System.lineSeparator(),
+                "id,type,name,status,description,epic,duration,startTime",
+                "1,TASK,\"first,NEW,first,PT10M,2024-01-01T10:00",
+                "2,TASK,second,NEW,second,PT10M,2024-01-01T12:00"));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThrows(ManagerLoadException.class, () -> FileBackedTaskManager.loadFromFile(file)));
+    }
+
+    @Test
+    @DisplayName("Поле в кавычках на нескольких строках должно читаться целиком.")
+    public void loadShouldJoinQuotedFieldAcrossLines() throws IOException {
+        Files.writeString(file.toPath(), String.join(System.lineSeparator(),
+                "id,type,name,status,description,epic,duration,startTime",
+                "1,TASK,\"first",
+                "\"\"second\"\"",
+                "third\",NEW,first,PT10M,2024-01-01T10:00",
+                "",
+                ""));
+
+        FileBackedTaskManager actual = FileBackedTaskManager.loadFromFile(file);
+
+        assertEquals(String.join(System.lineSeparator(), "first", "\"second\"", "third"), actual.getTask(1).getName());
+    }
+
+    @Test
+    @DisplayName("Поле в кавычках должно сохранять исходный перевод строки \\r\\n.")
+    public void loadShouldKeepCrLfInsideQuotedField() throws IOException {
+        Files.writeString(file.toPath(), "id,type,name,status,description,epic,duration,startTime\n"
+                + "1,TASK,\"first\r\nsecond\",NEW,first,PT10M,2024-01-01T10:00\n\n\n");
+
+        FileBackedTaskManager actual = FileBackedTaskManager.loadFromFile(file);
+
+        assertEquals("first\r\nsecond", actual.getTask(1).getName());
+    }
+
+    @Test
+    @DisplayName("Кавычка внутри поля без кавычек в файле старого формата должна читаться как обычный символ.")
+    public void loadShouldReadBareQuoteInsideUnquotedField() throws IOException {
+        Files.writeString(file.toPath(), String.join(System.lineSeparator(),
+                "id,type,name,status,description,epic,duration,startTime",
+                "1,TASK,say \"hi,NEW,first,PT10M,2024-01-01T10:00",
+                "2,TASK,second,NEW,5\" disk,PT10M,2024-01-01T12:00",
+                "",
+                ""));
+
+        FileBackedTaskManager actual = FileBackedTaskManager.loadFromFile(file);
+
+        assertEquals("say \"hi", actual.getTask(1).getName());
+        assertEquals("5\" disk", actual.getTask(2).getDescription());
+    }
+
+    @Test
+    @DisplayName("Загрузка большого файла должна восстанавливать все задачи и время эпиков.")
+    public void loadOfLargeFileShouldRecoverAllTasksAndEpicTimes() throws IOException {
+        int countOfEpics = 100;
+        int subTasksPerEpic = 60;
+        LocalDateTime firstStart = LocalDateTime.of(2024, 1, 1, 0, 0);
+        StringBuilder content = new StringBuilder("id,type,name,status,description,epic,duration,startTime\n");
+        int id = 0;
+        for (int epic = 0; epic < countOfEpics; epic++) {
+            int epicId = ++id;
+            content.append(epicId).append(",EPIC,epic,NEW,epic,PT0S,null\n");
+            for (int subTask = 0; subTask < subTasksPerEpic; subTask++) {
+                content.append(++id).append(",SUBTASK,sub,NEW,sub,").append(epicId).append(",PT10M,")
+                        .append(firstStart.plusMinutes(20L * id)).append("\n");
+            }
+        }
+        content.append("\n\n");
+        Files.writeString(file.toPath(), content);
+
+        FileBackedTaskManager actual = FileBackedTaskManager.loadFromFile(file);
+        Epic lastEpic = actual.getEpic(id - subTasksPerEpic);
+
+        assertEquals(countOfEpics * subTasksPerEpic, actual.getSubTasks().size());
+        assertEquals(countOfEpics * subTasksPerEpic, actual.getPrioritizedTasks().size());
+        assertEquals(subTasksPerEpic, lastEpic.getSubTaskIds().size());
+        assertEquals(firstStart.plusMinutes(20L * (id - subTasksPerEpic + 1)), lastEpic.getStartTime());
+        assertEquals(Duration.ofMinutes(10L * subTasksPerEpic), lastEpic.getDuration());
+        assertEquals(id + 1, actual.getNextId());
+    }
+
+    @Test
+    @DisplayName("Имена и описания с запятыми, кавычками и переводами строк должны сохраняться без искажений.")
+    public void loadShouldRecoverNamesWithSeparatorsAndQuotes() {
+        Task expectedTask = new Task("name, with comma", "description with \"quotes\"", TaskStatus.NEW, 0,
+                duration, startTime);
+        sut.createTask(expectedTask);
+        Epic expectedEpic = new Epic("epic,\"name\"", "multi\nline, description", 0);
+        sut.createEpic(expectedEpic);
+        SubTask expectedSubTask = new SubTask("\"", ",", 0, TaskStatus.NEW, expectedEpic.getId(), duration,
+                startTime.plusHours(1));
+        sut.createSubTask(expectedSubTask);
+        markTaskAsWatched(expectedTask);
+
+        FileBackedTaskManager actual = FileBackedTaskManager.loadFromFile(file);
+
+        compareTasks(expectedTask, actual.getTask(expectedTask.getId()));
+        compareTasks(sut.getEpic(expectedEpic.getId()), actual.getEpic(expectedEpic.getId()));
+        compareTasks(expectedSubTask, actual.getSubTask(expectedSubTask.getId()));
+    }
+
+    @Test
+    @DisplayName("Сохранение и загрузка должны записывать размер файла и число строк в метрики.")
+    public void saveAndLoadShouldRecordMetrics() {
+        OperationMetrics metrics = new OperationMetrics();
+        sut.setMetrics(metrics);
+        getRandomTask(duration, startTime);
+        getRandomTask(duration, startTime.plusHours(1));
+
+        FileBackedTaskManager.loadFromFile(file, metrics);
+
+        assertEquals(2, metrics.timer("file_save_seconds", "").getCount());
+        assertTrue(metrics.counter("file_save_bytes_total", "").get() > file.length());
+        assertEquals(2, metrics.counter("file_load_rows_total", "").get());
+        assertEquals(1, metrics.timer("file_load_seconds", "").getCount());
+        assertTrue(metrics.gauge("file_load_rows_per_second", "").get() > 0);
+    }
 }
@@ -1,28 +1,67 @@
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import controller.AdmissionFilter;
+import controller.AdmissionLimits;
+import controller.HttpMethod;
+import model.CalendarDay;
 import model.Epic;
+import model.FreeSlot;
 import model.SubTask;
 import model.Task;
+import model.TaskStatus;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import server.BasePath;
 import server.HttpTaskServer;
+import metrics.OperationMetrics;
+import service.BoardRegistry;
+import service.ChangeFeed;
+import service.FileBackedTaskManager;
 import service.Managers;
+import service.OffHeapTaskManager;
+import service.ReplicaTaskManager;
+import service.SingleWriterTaskManager;
 import service.TaskManager;
 import util.client.TestHttpClient;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
+import static java.net.HttpURLConnection.HTTP_BAD_METHOD;
 import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
 import static java.net.HttpURLConnection.HTTP_CREATED;
+import static java.net.HttpURLConnection.HTTP_ENTITY_TOO_LARGE;
+import static java.net.HttpURLConnection.HTTP_GONE;
 import static java.net.HttpURLConnection.HTTP_NOT_ACCEPTABLE;
 import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_NOT_IMPLEMENTED;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
 import static java.net.HttpURLConnection.HTTP_OK;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static util.check.TaskComparator.compareListOfTasks;
 import static util.check.TaskComparator.compareTasks;
@@ -223,6 +262,30 @@ public class HttpServerIntegrationTest {
         assertEquals(HTTP_NOT_FOUND, response.statusCode());
     }
 
+    @Test
+    @DisplayName("Должен вернуть 404 на неизвестный путь.")
+    void shouldReturnNotFoundForUnknownPath() throws IOException, InterruptedException {
+        assertEquals(HTTP_NOT_FOUND, TestHttpClient.get("/tasks/abc").statusCode());
+        assertEquals(HTTP_NOT_FOUND, TestHttpClient.get("/tasks/1/subtasks").statusCode());
+    }
+
+    @Test
+    @DisplayName("Должен вернуть 405, если путь известен, а метод для него не поддерживается.")
+    void shouldReturnMethodNotAllowedForKnownPath() throws IOException, InterruptedException {
+        assertEquals(HTTP_BAD_METHOD, TestHttpClient.delete("/tasks").statusCode());
+    }
+
+    @Test
+    @DisplayName("Должен игнорировать завершающий слэш в пути.")
+    void shouldIgnoreTrailingSlash() throws IOException, InterruptedException {
+        manager.createTask(initRandomTask());
+
+        var response = TestHttpClient.get("/tasks/");
+
+        assertEquals(HTTP_OK, response.statusCode());
+        assertEquals(1, TestHttpClient.parseJsonToListOfTask(response).size());
+    }
+
     @Test
     @DisplayName("Должен вернуть ошибку, если есть пересечение интервалов у задач.")
     void shouldReturnErrorWhenTaskIntervalIncludes() throws IOException, InterruptedException {
@@ -344,6 +407,19 @@ public class HttpServerIntegrationTest {
         assertEquals(HTTP_BAD_REQUEST, response.statusCode());
     }
 
+    @Test
+    @DisplayName("Должен ответить 400, если в дате несуществующий месяц.")
+    void shouldRejectTaskWithInvalidDateFields() throws IOException, InterruptedException {
+        Task task = initRandomTask();
+        task.setStartTime(LocalDateTime.of(2024, 12, 1, 10, 0));
+        byte[] body = gson.toJson(task).replace("2024-12-01T10:00", "2024-13-01T10:00")
+                .getBytes(StandardCharsets.UTF_8);
+
+        var response = TestHttpClient.postStream(BasePath.TASK.getRoot(), () -> new ByteArrayInputStream(body));
+        assertEquals(HTTP_BAD_REQUEST, response.statusCode());
+        assertTrue(manager.getTasks().isEmpty());
+    }
+
     @Test
     @DisplayName("Должен удалить эпик.")
     void shouldDeleteEpic() throws IOException, InterruptedException {
@@ -380,4 +456,567 @@ public class HttpServerIntegrationTest {
         assertEquals(HTTP_OK, response.statusCode());
         assertTrue(actual.isEmpty());
     }
+
+    @Test
+    @DisplayName("JSON подзадачи должен содержать все поля задачи и id эпика.")
+    void subTaskJsonShouldContainAllFields() throws IOException, InterruptedException {
+        int epicId = manager.createEpic(initRandomEpic());
+        int subTaskId = manager.createSubTask(initRandomSubTask(epicId, Duration.ofMinutes(15),
+                LocalDateTime.of(2024, 1, 1, 10, 0)));
+
+        var response = TestHttpClient.getSubTask(subTaskId);
+        JsonObject actual = JsonParser.parseString(response.body()).getAsJsonObject();
+
+        assertEquals(HTTP_OK, response.statusCode());
+        assertEquals(Set.of("name", "description", "status", "id", "duration", "startTime", "endTime", "epicId"),
+                actual.keySet());
+        assertEquals("15", actual.get("duration").getAsString());
+        assertEquals("2024-01-01T10:15", actual.get("endTime").getAsString());
+        assertEquals(epicId, actual.get("epicId").getAsInt());
+    }
+
+    @Test
+    @DisplayName("Должен ответить 304 на повторный запрос списка задач с тем же ETag.")
+    void shouldReturnNotModifiedForSameEtag() throws IOException, InterruptedException {
+        manager.createTask(initRandomTask());
+
+        var first = TestHttpClient.getTasks();
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+        var second = TestHttpClient.getIfNoneMatch(BasePath.TASK.getRoot(), etag);
+
+        assertEquals(HTTP_OK, first.statusCode());
+        assertEquals(HTTP_NOT_MODIFIED, second.statusCode());
+        assertTrue(second.body().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Должен вернуть новый список и новый ETag после изменения задач.")
+    void shouldReturnNewEtagAfterMutation() throws IOException, InterruptedException {
+        manager.createTask(initRandomTask());
+        String etag = TestHttpClient.getTasks().headers().firstValue("ETag").orElseThrow();
+        Task added = initRandomTask();
+        TestHttpClient.postTask(added);
+
+        var response = TestHttpClient.getIfNoneMatch(BasePath.TASK.getRoot(), etag);
+        List<Task> actual = TestHttpClient.parseJsonToListOfTask(response);
+
+        assertEquals(HTTP_OK, response.statusCode());
+        assertNotEquals(etag, response.headers().firstValue("ETag").orElseThrow());
+        assertEquals(2, actual.size());
+    }
+
+    @Test
+    @DisplayName("Должен менять ETag приоритетного списка при изменении подзадачи.")
+    void prioritizedEtagShouldChangeWithSubTasks() throws IOException, InterruptedException {
+        int epicId = manager.createEpic(initRandomEpic());
+        String etag = TestHttpClient.getPrioritizedTasks().headers().firstValue("ETag").orElseThrow();
+        manager.createSubTask(initRandomSubTask(epicId));
+
+        var response = TestHttpClient.getIfNoneMatch(BasePath.PRIORITY.getRoot(), etag);
+
+        assertEquals(HTTP_OK, response.statusCode());
+        assertEquals(1, TestHttpClient.parseJsonToListOfTask(response).size());
+    }
+
+    @Test
+    @DisplayName("Должен сжимать большой список подзадач в gzip, если клиент его принимает.")
+    void shouldCompressLargeResponseWithGzip() throws IOException, InterruptedException {
+        int epicId = manager.createEpic(initRandomEpic());
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        IntStream.range(0, 50).forEach(i -> manager.createSubTask(initRandomSubTask(epicId, Duration.ofMinutes(1),
+                start.plusMinutes(2L * i))));
+        String expected = TestHttpClient.getSubTasks().body();
+
+        var response = TestHttpClient.getWithEncoding(BasePath.SUBTASK.getRoot(), "deflate;q=0.5, gzip");
+        String actual;
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            actual = new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        assertEquals(HTTP_OK, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElseThrow());
+        assertEquals(expected, actual);
+        assertTrue(response.body().length < expected.length());
+    }
+
+    @Test
+    @DisplayName("Звездочка не должна разрешать кодировку, которую клиент явно запретил.")
+    void wildcardShouldNotOverrideRefusedEncoding() throws IOException, InterruptedException {
+        int epicId = manager.createEpic(initRandomEpic());
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        IntStream.range(0, 50).forEach(i -> manager.createSubTask(initRandomSubTask(epicId, Duration.ofMinutes(1),
+                start.plusMinutes(2L * i))));
+        String expected = TestHttpClient.getSubTasks().body();
+
+        var response = TestHttpClient.getWithEncoding(BasePath.SUBTASK.getRoot(), "gzip;q=0, *");
+        String actual;
+        try (var deflate = new InflaterInputStream(new ByteArrayInputStream(response.body()))) {
+            actual = new String(deflate.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        assertEquals(HTTP_OK, response.statusCode());
+        assertEquals("deflate", response.headers().firstValue("Content-Encoding").orElseThrow());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    @DisplayName("Не должен сжимать короткий ответ.")
+    void shouldNotCompressSmallResponse() throws IOException, InterruptedException {
+        int taskId = manager.createTask(initRandomTask());
+
+        var response = TestHttpClient.getWithEncoding(BasePath.TASK.getRoot() + "/" + taskId, "gzip");
+
+        assertEquals(HTTP_OK, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+        assertEquals(taskId, JsonParser.parseString(new String(response.body(), StandardCharsets.UTF_8))
+                .getAsJsonObject().get("id").getAsInt());
+    }
+
+    @Test
+    @DisplayName("Лента изменений должна вернуть события после указанного номера.")
+    void shouldReturnChangesSinceSequence() throws IOException, InterruptedException {
+        int epicId = manager.createEpic(initRandomEpic());
+        long since = manager.getChangeFeed().getLastSequence();
+        int taskId = manager.createTask(initRandomTask());
+        manager.deleteTask(taskId);
+
+        var response = TestHttpClient.get(BasePath.CHANGES.getRoot() + "?since=" + since);
+        JsonObject actual = JsonParser.parseString(response.body()).getAsJsonObject();
+        var events = actual.getAsJsonArray("events");
+
+        assertEquals(HTTP_OK, response.statusCode());
+        assertEquals(since + 2, actual.get("lastSequence").getAsLong());
+        assertEquals(2, events.size());
+        assertEquals("CREATED", events.get(0).getAsJsonObject().get("change").getAsString());
+        assertEquals("DELETED", events.get(1).getAsJsonObject().get("change").getAsString());
+        assertEquals(taskId, events.get(1).getAsJsonObject().get("id").getAsInt());
+        assertTrue(epicId < taskId);
+    }
+
+    @Test
+    @DisplayName("Long-poll запрос должен дождаться нового события.")
+    void longPollShouldWaitForChange() throws Exception {
+        long since = manager.getChangeFeed().getLastSequence();
+        var pending = CompletableFuture.supplyAsync(() -> {
+            try {
+                return TestHttpClient.get(BasePath.CHANGES.getRoot() + "?since=" + since + "&wait=5000");
+            } catch (IOException | InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(200);
+        int taskId = manager.createTask(initRandomTask());
+
+        var response = pending.get(10, TimeUnit.SECONDS);
+        var events = JsonParser.parseString(response.body()).getAsJsonObject().getAsJsonArray("events");
+
+        assertEquals(HTTP_OK, response.statusCode());
+        assertEquals(1, events.size());
+        assertEquals(taskId, events.get(0).getAsJsonObject().get("id").getAsInt());
+    }
+
+    @Test
+    @DisplayName("Поток SSE должен передавать события по мере изменений.")
+    void eventStreamShouldDeliverChanges() throws Exception {
+        int epicId = manager.createEpic(initRandomEpic());
+        var pending = CompletableFuture.supplyAsync(() -> {
+            try {
+                return TestHttpClient.readEventStream(BasePath.CHANGES.getRoot() + "?since=0", 2);
+            } catch (IOException | InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(200);
+        int taskId = manager.createTask(initRandomTask());
+
+        List<String> events = pending.get(10, TimeUnit.SECONDS);
+
+        assertEquals(epicId, JsonParser.parseString(events.get(0)).getAsJsonObject().get("id").getAsInt());
+        assertEquals(taskId, JsonParser.parseString(events.get(1)).getAsJsonObject().get("id").getAsInt());
+    }
+
+    @Test
+    @DisplayName("Лента изменений должна ответить 410, если события уже вытеснены из буфера.")
+    void shouldReturnGoneForTruncatedFeed() throws IOException, InterruptedException {
+        IntStream.range(0, ChangeFeed.DEFAULT_CAPACITY + 1).forEach(i -> manager.createEpic(initRandomEpic()));
+
+        var response = TestHttpClient.get(BasePath.CHANGES.getRoot() + "?since=0");
+
+        assertEquals(HTTP_GONE, response.statusCode());
+    }
+
+    @Test
+    @DisplayName("Синхронизация должна вернуть измененные и удаленные задачи после версии.")
+    void shouldReturnDeltaSinceVersion() throws IOException, InterruptedException {
+        manager.createTask(initRandomTask());
+        int deletedId = manager.createTask(initRandomTask());
+        var first = JsonParser.parseString(TestHttpClient.get(BasePath.SYNC.getRoot()).body()).getAsJsonObject();
+        long version = first.get("version").getAsLong();
+        manager.deleteTask(deletedId);
+        int addedId = manager.createTask(initRandomTask());
+
+        var response = TestHttpClient.get(BasePath.SYNC.getRoot() + "?since=" + version);
+        JsonObject actual = JsonParser.parseString(response.body()).getAsJsonObject();
+
+        assertEquals(HTTP_OK, response.statusCode());
+        assertEquals(2, first.getAsJsonArray("tasks").size());
+        assertEquals(1, actual.getAsJsonArray("tasks").size());
+        assertEquals(addedId, actual.getAsJsonArray("tasks").get(0).getAsJsonObject().get("id").getAsInt());
+        assertEquals(deletedId, actual.getAsJsonArray("deleted").get(0).getAsJsonObject().get("id").getAsInt());
+    }
+
+    @Test
+    @DisplayName("Метрики должны считать запросы по пути, методу и коду ответа.")
+    void metricsShouldCountRequestsByPathMethodAndStatus() throws IOException, InterruptedException {
+        TestHttpClient.getTasks();
+        TestHttpClient.getTasks();
+        TestHttpClient.getTask(100);
+
+        var response = TestHttpClient.get(BasePath.METRICS.getRoot());
+
+        assertEquals(HTTP_OK, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("text/plain"));
+        assertTrue(response.body().contains("http_requests_total{path=\"/tasks\",method=\"GET\",status=\"200\"} 2"));
+        assertTrue(response.body().contains("http_requests_total{path=\"/tasks\",method=\"GET\",status=\"404\"} 1"));
+        assertTrue(response.body().contains(
+                "http_request_duration_seconds{path=\"/tasks\",method=\"GET\",status=\"200\",quantile=\"0.99\"}"));
+        assertEquals(2, sut.getMetrics().getCount(BasePath.TASK, HttpMethod.GET, HTTP_OK));
+    }
+
+    @Test
+    @DisplayName("Список задач должен читаться, пока менеджер занят записью.")
+    void shouldReadListWhileManagerIsLocked() throws Exception {
+        manager.createTask(initRandomTask());
+        CompletableFuture<HttpResponse<String>> response;
+        synchronized (manager) {
+            response = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return TestHttpClient.getTasks();
+                } catch (IOException | InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            assertEquals(HTTP_OK, response.get(5, TimeUnit.SECONDS).statusCode());
+        }
+        assertEquals(1, TestHttpClient.parseJsonToListOfTask(response.get()).size());
+    }
+
+    @Test
+    @DisplayName("Должен принимать запись через однопоточного писателя.")
+    void shouldWriteThroughSingleWriter() throws IOException, InterruptedException {
+        sut.stop();
+        try (SingleWriterTaskManager singleWriter = new SingleWriterTaskManager(manager)) {
+            sut = new HttpTaskServer(singleWriter);
+            sut.start();
+
+            LocalDateTime startTime = LocalDateTime.now();
+            var created = TestHttpClient.postTask(initRandomTask(Duration.ofMinutes(10), startTime));
+            var overlapping = TestHttpClient.postTask(initRandomTask(Duration.ofMinutes(10), startTime));
+
+            assertEquals(HTTP_CREATED, created.statusCode());
+            assertEquals(HTTP_NOT_ACCEPTABLE, overlapping.statusCode());
+            assertEquals(1, TestHttpClient.parseJsonToListOfTask(TestHttpClient.getTasks()).size());
+        }
+    }
+
+    @Test
+    @DisplayName("Каждая доска должна хранить свои задачи отдельно.")
+    void boardsShouldBeIsolated() throws IOException, InterruptedException {
+        sut.stop();
+        File directory = Files.createTempDirectory("boards").toFile();
+        BoardRegistry boards = new BoardRegistry(directory, Long.MAX_VALUE);
+        sut = new HttpTaskServer(manager, OperationMetrics.DISABLED, AdmissionLimits.DEFAULT, boards);
+        sut.start();
+
+        var created = TestHttpClient.post("/boards/1/tasks", initRandomTask(Duration.ofMinutes(10),
+                LocalDateTime.now()));
+        var firstBoard = TestHttpClient.get("/boards/1/tasks");
+        var secondBoard = TestHttpClient.get("/boards/2/tasks");
+
+        assertEquals(HTTP_CREATED, created.statusCode());
+        assertEquals(1, TestHttpClient.parseJsonToListOfTask(firstBoard).size());
+        assertEquals(0, TestHttpClient.parseJsonToListOfTask(secondBoard).size());
+        assertTrue(manager.getTasks().isEmpty());
+        assertEquals(1, FileBackedTaskManager.loadFromFile(boards.getFile(1)).getTasks().size());
+        assertEquals(HTTP_NOT_FOUND, TestHttpClient.get("/boards/abc/tasks").statusCode());
+        assertEquals(HTTP_NOT_FOUND, TestHttpClient.get("/boards/1/metrics").statusCode());
+        assertEquals(HTTP_NOT_FOUND, TestHttpClient.get("/boards/1/tasks/1/x").statusCode());
+    }
+
+    @Test
+    @DisplayName("Доска, загруженная заново до уведомления о выгрузке, должна обслуживаться новым менеджером.")
+    void reloadedBoardShouldNotUseHandlersOfEvictedManager() throws Exception {
+        sut.stop();
+        BoardRegistry boards = new BoardRegistry(Files.createTempDirectory("boards").toFile(), 0);
+        CountDownLatch evicted = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        AtomicBoolean first = new AtomicBoolean(true);
+        // Регистрируется раньше слушателя обработчика досок и задерживает его уведомление о первой выгрузке.
+        boards.addEvictionListener(boardId -> {
+            if (first.compareAndSet(true, false)) {
+                evicted.countDown();
+                try {
+                    resume.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        sut = new HttpTaskServer(manager, OperationMetrics.DISABLED, AdmissionLimits.DEFAULT, boards);
+        sut.start();
+        LocalDateTime nine = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+        var before = TestHttpClient.post("/boards/1/tasks", initRandomTask(Duration.ofMinutes(10), nine));
+        assertTrue(evicted.await(5, TimeUnit.SECONDS));
+        var during = TestHttpClient.post("/boards/1/tasks", initRandomTask(Duration.ofMinutes(10),
+                nine.plusHours(1)));
+        resume.countDown();
+        var after = TestHttpClient.get("/boards/1/tasks");
+
+        assertEquals(HTTP_CREATED, before.statusCode());
+        assertEquals(HTTP_CREATED, during.statusCode());
+        assertEquals(2, TestHttpClient.parseJsonToListOfTask(after).size());
+    }
+
+    @Test
+    @DisplayName("Подписчик ленты изменений доски не должен занимать разрешение на чтение.")
+    void boardChangeFeedShouldBypassAdmission() throws IOException, InterruptedException {
+        sut.stop();
+        BoardRegistry boards = new BoardRegistry(Files.createTempDirectory("boards").toFile(), Long.MAX_VALUE);
+        sut = new HttpTaskServer(manager, OperationMetrics.DISABLED,
+                new AdmissionLimits(1, 1, 0, Duration.ofMillis(100), 4096, Duration.ofSeconds(1)), boards);
+        sut.start();
+        try (Socket subscriber = new Socket("localhost", 8080)) {
+            subscriber.setSoTimeout(5000);
+            subscriber.getOutputStream().write(("GET /boards/1/changes HTTP/1.1\r\nHost: localhost\r\n"
+                    + "Accept: text/event-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            subscriber.getOutputStream().flush();
+            String statusLine = new BufferedReader(new InputStreamReader(subscriber.getInputStream(),
+                    StandardCharsets.US_ASCII)).readLine();
+
+            var read = TestHttpClient.get("/boards/1/tasks");
+
+            assertEquals(HTTP_OK, Integer.parseInt(statusLine.split(" ")[1]));
+            assertEquals(HTTP_OK, read.statusCode());
+        }
+    }
+
+    @Test
+    @DisplayName("Должен вернуть самые ранние свободные окна расписания.")
+    void shouldReturnFreeSlots() throws IOException, InterruptedException {
+        LocalDateTime nine = LocalDateTime.of(2024, 1, 1, 9, 0);
+        Task task = initRandomTask(Duration.ofMinutes(10), nine);
+        manager.createTask(task);
+
+        var response = TestHttpClient.get("/prioritized/free?duration=15&from=2024-01-01T09:05&limit=2");
+        var badRequest = TestHttpClient.get("/prioritized/free?duration=15&from=tomorrow");
+
+        assertEquals(HTTP_OK, response.statusCode());
+        FreeSlot[] slots = gson.fromJson(response.body(), FreeSlot[].class);
+        assertEquals(1, slots.length);
+        assertEquals(task.getEndTime().plusNanos(1), slots[0].start());
+        assertEquals(HTTP_BAD_REQUEST, badRequest.statusCode());
+    }
+
+    @Test
+    @DisplayName("Календарь должен отдавать загрузку по дням и задачи дня.")
+    void shouldReturnCalendar() throws IOException, InterruptedException {
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        Task task = initRandomTask(Duration.ofMinutes(90), day.atTime(9, 0));
+        manager.createTask(task);
+
+        var calendar = TestHttpClient.get("/calendar?from=2024-01-01&to=2024-01-03");
+        var tasksOfDay = TestHttpClient.get("/calendar/tasks?date=2024-01-01");
+        var tooLong = TestHttpClient.get("/calendar?from=2024-01-01&to=2026-01-01");
+
+        assertEquals(HTTP_OK, calendar.statusCode());
+        CalendarDay[] days = gson.fromJson(calendar.body(), CalendarDay[].class);
+        assertEquals(List.of(new CalendarDay(day, 1, Duration.ofMinutes(90)),
+                new CalendarDay(day.plusDays(1), 0, Duration.ZERO)), List.of(days));
+        assertEquals(HTTP_OK, tasksOfDay.statusCode());
+        assertEquals(task.getId(), gson.fromJson(tasksOfDay.body(), Task[].class)[0].getId());
+        assertEquals(HTTP_NOT_ACCEPTABLE, tooLong.statusCode());
+    }
+
+    @Test
+    @DisplayName("Поиск должен отдавать найденные задачи по порядку совпадения.")
+    void shouldSearchTasks() throws IOException, InterruptedException {
+        Task task = new Task("Fix login bug", "backend", TaskStatus.NEW, 0, Duration.ofMinutes(10),
+                LocalDateTime.now());
+        manager.createTask(task);
+        manager.createTask(new Task("Backend", "fix login page", TaskStatus.NEW, 0, Duration.ofMinutes(10),
+                LocalDateTime.now().plusHours(1)));
+
+        var response = TestHttpClient.get("/search?q=login+fi&limit=1");
+        var missingQuery = TestHttpClient.get("/search");
+        var negativeLimit = TestHttpClient.get("/search?q=login&limit=-1");
+
+        assertEquals(HTTP_OK, response.statusCode());
+        Task[] found = gson.fromJson(response.body(), Task[].class);
+        assertEquals(1, found.length);
+        assertEquals(task.getId(), found[0].getId());
+        assertEquals(HTTP_BAD_REQUEST, missingQuery.statusCode());
+        assertEquals(HTTP_OK, negativeLimit.statusCode());
+        assertEquals(0, gson.fromJson(negativeLimit.body(), Task[].class).length);
+    }
+
+    @Test
+    @DisplayName("Зависимости должны задавать порядок подзадач эпика и отклонять циклы.")
+    void shouldManageDependencies() throws IOException, InterruptedException {
+        LocalDateTime nine = LocalDateTime.of(2024, 1, 1, 9, 0);
+        Epic epic = new Epic("epic", "description", 0);
+        manager.createEpic(epic);
+        SubTask first = new SubTask("first", "description", 0, TaskStatus.NEW, epic.getId(), Duration.ofMinutes(30),
+                nine.plusHours(1));
+        SubTask second = new SubTask("second", "description", 0, TaskStatus.NEW, epic.getId(),
+                Duration.ofMinutes(15), nine);
+        manager.createSubTask(first);
+        manager.createSubTask(second);
+
+        var created = TestHttpClient.post("/dependencies/" + first.getId() + "?dependsOn=" + second.getId(), null);
+        var cycle = TestHttpClient.post("/dependencies/" + second.getId() + "?dependsOn=" + first.getId(), null);
+        var order = TestHttpClient.get("/epics/" + epic.getId() + "/order");
+        var dependencies = TestHttpClient.get("/dependencies/" + first.getId());
+
+        assertEquals(HTTP_CREATED, created.statusCode());
+        assertEquals(HTTP_NOT_ACCEPTABLE, cycle.statusCode());
+        assertEquals(List.of(second.getId(), first.getId()),
+                List.of(gson.fromJson(order.body(), SubTask[].class)).stream().map(Task::getId).toList());
+        assertEquals("[" + second.getId() + "]", dependencies.body());
+        assertEquals(Duration.ofMinutes(45), manager.getEpic(epic.getId()).getCriticalPath());
+    }
+
+    @Test
+    @DisplayName("Менеджер без зависимостей должен отвечать 501, а не 500.")
+    void shouldReportDependenciesAsNotImplemented() throws IOException, InterruptedException {
+        sut.stop();
+        OffHeapTaskManager offHeap = new OffHeapTaskManager();
+        int taskId = offHeap.createTask(initRandomTask(Duration.ofMinutes(10), LocalDateTime.now()));
+        sut = new HttpTaskServer(offHeap);
+        sut.start();
+
+        var created = TestHttpClient.post("/dependencies/" + taskId + "?dependsOn=" + taskId, null);
+        var dependencies = TestHttpClient.get("/dependencies/" + taskId);
+
+        assertEquals(HTTP_NOT_IMPLEMENTED, created.statusCode());
+        assertEquals(HTTP_NOT_IMPLEMENTED, dependencies.statusCode());
+    }
+
+    @Test
+    @DisplayName("Реплика должна отдавать задачи основного сервера и отклонять изменения.")
+    void replicaShouldServeReadsAndRejectWrites() throws IOException, InterruptedException {
+        sut.stop();
+        File file = Files.createTempDirectory("replica").resolve("primary.csv").toFile();
+        FileBackedTaskManager primary = new FileBackedTaskManager(file);
+        primary.createTask(initRandomTask(Duration.ofMinutes(10), LocalDateTime.now()));
+        try (ReplicaTaskManager replica = new ReplicaTaskManager(file)) {
+            replica.poll();
+            sut = new HttpTaskServer(replica);
+            sut.start();
+
+            var tasks = TestHttpClient.getTasks();
+            var created = TestHttpClient.postTask(initRandomTask(Duration.ofMinutes(10), LocalDateTime.now()));
+
+            assertEquals(HTTP_OK, tasks.statusCode());
+            compareListOfTasks(primary.getTasks(), TestHttpClient.parseJsonToListOfTask(tasks));
+            assertEquals(HTTP_BAD_METHOD, created.statusCode());
+        }
+    }
+
+    @Test
+    @DisplayName("Должен отклонить запрос с телом больше лимита по Content-Length.")
+    void shouldRejectBodyLargerThanLimit() throws IOException, InterruptedException {
+        restartWithLimits(new AdmissionLimits(4, 1, 0, Duration.ofMillis(100), 64, Duration.ofSeconds(1)));
+
+        var response = TestHttpClient.postTask(initRandomTask());
+
+        assertEquals(HTTP_ENTITY_TOO_LARGE, response.statusCode());
+        assertTrue(manager.getTasks().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Должен отклонить тело без Content-Length, как только прочитано больше лимита.")
+    void shouldRejectStreamedBodyLargerThanLimit() throws IOException, InterruptedException {
+        restartWithLimits(new AdmissionLimits(4, 1, 0, Duration.ofMillis(100), 64, Duration.ofSeconds(1)));
+        byte[] body = gson.toJson(initRandomTask()).getBytes(StandardCharsets.UTF_8);
+
+        var response = TestHttpClient.postStream(BasePath.TASK.getRoot(), () -> new ByteArrayInputStream(body));
+
+        assertEquals(HTTP_ENTITY_TOO_LARGE, response.statusCode());
+        assertTrue(manager.getTasks().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Должен ответить 429 с Retry-After, если очередь на запись заполнена, и не трогать чтение.")
+    void shouldRejectWriteWhenQueueIsFull() throws IOException, InterruptedException {
+        restartWithLimits(new AdmissionLimits(4, 1, 0, Duration.ofMillis(100), 4096, Duration.ofSeconds(3)));
+        try (PendingPost blocked = startPost(BasePath.TASK.getRoot(), initRandomTask())) {
+            var rejected = postUntil(AdmissionFilter.HTTP_TOO_MANY_REQUESTS);
+            var read = TestHttpClient.getTasks();
+
+            assertEquals("3", rejected.headers().firstValue("Retry-After").orElseThrow());
+            assertEquals(HTTP_OK, read.statusCode());
+            assertEquals(HTTP_CREATED, blocked.finish());
+        }
+    }
+
+    @Test
+    @DisplayName("Должен ответить 503 с Retry-After, если запрос не дождался очереди.")
+    void shouldRejectWriteWhenQueueTimesOut() throws IOException, InterruptedException {
+        restartWithLimits(new AdmissionLimits(4, 1, 1, Duration.ofMillis(100), 4096, Duration.ofSeconds(1)));
+        try (PendingPost blocked = startPost(BasePath.TASK.getRoot(), initRandomTask())) {
+            var rejected = postUntil(HTTP_UNAVAILABLE);
+
+            assertEquals("1", rejected.headers().firstValue("Retry-After").orElseThrow());
+            assertEquals(HTTP_CREATED, blocked.finish());
+        }
+    }
+
+    private void restartWithLimits(AdmissionLimits limits) throws IOException {
+        sut.stop();
+        sut = new HttpTaskServer(manager, OperationMetrics.DISABLED, limits);
+        sut.start();
+    }
+
+    /*
+     Запрос отправляется вручную: заголовки уходят сразу, а тело только в finish. До этого момента
+     обработчик ждет тело и держит разрешение на запись.
+     */
+    private record PendingPost(Socket socket, byte[] body) implements AutoCloseable {
+        int finish() throws IOException {
+            socket.getOutputStream().write(body);
+            socket.getOutputStream().flush();
+            String statusLine = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.US_ASCII)).readLine();
+            return Integer.parseInt(statusLine.split(" ")[1]);
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    private PendingPost startPost(String path, Task task) throws IOException {
+        byte[] body = gson.toJson(task).getBytes(StandardCharsets.UTF_8);
+        Socket socket = new Socket("localhost", 8080);
+        socket.setSoTimeout(5000);
+        socket.getOutputStream().write(("POST " + path + " HTTP/1.1\r\nHost: localhost\r\nContent-Length: "
+                + body.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        socket.getOutputStream().flush();
+        return new PendingPost(socket, body);
+    }
+
+    // Заблокированный запрос занимает разрешение не сразу, поэтому повторяем запись до ожидаемого отказа.
+    private HttpResponse<String> postUntil(int statusCode) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            var response = TestHttpClient.postTask(initRandomTask());
+            if (response.statusCode() == statusCode || System.nanoTime() > deadline) {
+                assertEquals(statusCode, response.statusCode());
+                return response;
+            }
+        }
+    }
 }
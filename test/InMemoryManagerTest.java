@@ -1,7 +1,29 @@
+import exception.NotFoundException;
+import exception.ValidationException;
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.AutoScheduler;
+import service.ChangeFeed;
 import service.InMemoryHistoryManager;
 import service.InMemoryManager;
+import service.Snapshot;
+import util.testdata.RandomTask;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DisplayName("Тесты менеджера задач в памяти.")
 public class InMemoryManagerTest extends TaskManagerTest<InMemoryManager> {
@@ -10,4 +32,248 @@ public class InMemoryManagerTest extends TaskManagerTest<InMemoryManager> {
         //sut -> system under test
         sut = new InMemoryManager(new InMemoryHistoryManager());
     }
+
+    @Test
+    @DisplayName("Импорт должен сохранять все задачи и пересчитывать время эпиков.")
+    public void importTasksShouldSaveAllTasksAndUpdateEpics() {
+        Epic epic = getRandomEpic();
+        Task task = RandomTask.initRandomTask(duration, startTime);
+        SubTask subTask = RandomTask.initRandomSubTask(epic.getId(), duration, startTime.plusHours(1));
+
+        List<Integer> actualIds = sut.importTasks(List.of(task, subTask));
+
+        assertEquals(List.of(task.getId(), subTask.getId()), actualIds);
+        assertEquals(2, sut.getPrioritizedTasks().size());
+        assertEquals(List.of(subTask.getId()), sut.getEpic(epic.getId()).getSubTaskIds());
+        assertEquals(subTask.getStartTime(), sut.getEpic(epic.getId()).getStartTime());
+    }
+
+    @Test
+    @DisplayName("Пересечение должно определяться с точностью до наносекунды.")
+    public void overlapShouldCompareNanosWithinSameSecond() {
+        Task saved = getRandomTask(duration, LocalDateTime.of(2024, 1, 1, 10, 0));
+        Task touching = RandomTask.initRandomTask(duration, saved.getEndTime());
+        Task following = RandomTask.initRandomTask(duration, saved.getEndTime().plusNanos(1));
+
+        assertThrows(ValidationException.class, () -> sut.createTask(touching));
+        sut.createTask(following);
+
+        assertEquals(List.of(saved, following), sut.getPrioritizedTasks());
+    }
+
+    @Test
+    @DisplayName("Импорт должен сообщать обо всех пересечениях и ничего не сохранять.")
+    public void importTasksShouldReportAllConflictsAndSaveNothing() {
+        Task saved = getRandomTask(duration, startTime);
+        Task first = RandomTask.initRandomTask(duration, startTime.plusMinutes(5));
+        Task second = RandomTask.initRandomTask(duration, startTime.plusHours(1));
+        Task third = RandomTask.initRandomTask(duration, startTime.plusHours(1).plusMinutes(5));
+
+        ValidationException actual = assertThrows(ValidationException.class,
+                () -> sut.importTasks(List.of(first, second, third)));
+
+        assertTrue(actual.getMessage().contains(saved.getId() + " and " + first.getId()));
+        assertTrue(actual.getMessage().contains(second.getId() + " and " + third.getId()));
+        assertEquals(1, sut.getTasks().size());
+    }
+
+    @Test
+    @DisplayName("Импорт с множеством пересечений должен перечислять только первые из них.")
+    public void importTasksShouldCapReportedConflicts() {
+        List<Task> overlapping = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            overlapping.add(RandomTask.initRandomTask(duration, startTime));
+        }
+
+        ValidationException actual = assertThrows(ValidationException.class, () -> sut.importTasks(overlapping));
+
+        assertEquals(10, actual.getMessage().split(", ").length);
+        assertTrue(actual.getMessage().endsWith(" and 180 more"));
+        assertEquals(0, sut.getTasks().size());
+    }
+
+    @Test
+    @DisplayName("Импорт задачи без времени начала должен выбрасывать исключение.")
+    public void importTasksWithNullStartTimeShouldThrowException() {
+        Task task = RandomTask.initRandomTask(duration, null);
+
+        assertThrows(ValidationException.class, () -> sut.importTasks(List.of(task)));
+    }
+
+    @Test
+    @DisplayName("Снимок не должен меняться после последующих изменений менеджера.")
+    public void snapshotShouldNotChangeAfterLaterUpdates() {
+        Task first = getRandomTask(duration, startTime);
+        Snapshot snapshot = sut.getSnapshot();
+
+        Task second = getRandomTask(duration, startTime.plusHours(1));
+        sut.deleteTask(first.getId());
+
+        assertEquals(List.of(first), snapshot.getTasks());
+        assertEquals(List.of(first), snapshot.getPrioritizedTasks());
+        assertEquals(List.of(second), sut.getTasks());
+        assertTrue(sut.getSnapshot().version() > snapshot.version());
+    }
+
+    @Test
+    @DisplayName("Снимок должен согласованно содержать подзадачу и ее эпик.")
+    public void snapshotShouldContainSubTaskWithItsEpic() {
+        Epic epic = getRandomEpic();
+        SubTask subTask = getRandomSubTask(epic.getId(), duration, startTime);
+
+        Snapshot snapshot = sut.getSnapshot();
+
+        assertEquals(epic, snapshot.epics().get(subTask.getEpicId()));
+        assertEquals(List.of(subTask), snapshot.getSubTasks());
+        assertEquals(sut.getChangeFeed().getLastSequence(), snapshot.version());
+    }
+
+    @Test
+    @DisplayName("Эпик в снимке не должен меняться после добавления подзадачи.")
+    public void snapshotEpicShouldNotChangeAfterNewSubTask() {
+        Epic epic = getRandomEpic();
+        Snapshot snapshot = sut.getSnapshot();
+
+        SubTask subTask = getRandomSubTask(epic.getId(), duration, startTime);
+
+        assertEquals(List.of(), snapshot.epics().get(epic.getId()).getSubTaskIds());
+        assertEquals(List.of(subTask.getId()), sut.getSnapshot().epics().get(epic.getId()).getSubTaskIds());
+        assertTrue(sut.getSnapshot().getVersion(TaskType.EPIC) > snapshot.getVersion(TaskType.EPIC));
+    }
+
+    @Test
+    @DisplayName("Поиск должен отдавать задачи из снимка и после изменений сверх емкости ленты.")
+    public void searchShouldReturnSnapshotTasksAfterManyChanges() {
+        Epic epic = getRandomEpic();
+        sut.search("anything", 10);
+        for (int i = 0; i < ChangeFeed.DEFAULT_CAPACITY; i++) {
+            sut.updateEpic(new Epic("Release " + i, "description", epic.getId()));
+        }
+
+        List<Task> actual = sut.search("release " + (ChangeFeed.DEFAULT_CAPACITY - 1), 10);
+
+        assertEquals(1, actual.size());
+        assertSame(sut.getSnapshot().epics().get(epic.getId()), actual.getFirst());
+        assertTrue(sut.search("release 0 ", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Списки задач должны быть неизменяемыми.")
+    public void listsShouldBeUnmodifiable() {
+        getRandomTask(duration, startTime);
+
+        assertThrows(UnsupportedOperationException.class, () -> sut.getTasks().clear());
+    }
+
+    @Test
+    @DisplayName("Автопланировщик должен ставить задачи в самые ранние подходящие окна.")
+    public void autoScheduleShouldPackTasksIntoEarliestGaps() {
+        LocalDateTime nine = LocalDateTime.of(2024, 1, 1, 9, 0);
+        Task first = getRandomTask(duration, nine);
+        Task second = getRandomTask(duration, nine.plusMinutes(30));
+        Task fifteen = unscheduled(Duration.ofMinutes(15));
+        Task ten = unscheduled(Duration.ofMinutes(10));
+        Task hour = unscheduled(Duration.ofHours(1));
+
+        List<Integer> ids = sut.autoSchedule(List.of(new AutoScheduler.Request(fifteen),
+                new AutoScheduler.Request(ten), new AutoScheduler.Request(hour)), nine);
+
+        assertEquals(List.of(fifteen.getId(), ten.getId(), hour.getId()), ids);
+        assertEquals(first.getEndTime().plusNanos(1), fifteen.getStartTime());
+        assertEquals(second.getEndTime().plusNanos(1), ten.getStartTime());
+        assertEquals(ten.getEndTime().plusNanos(1), hour.getStartTime());
+        assertEquals(5, sut.getPrioritizedTasks().size());
+    }
+
+    @Test
+    @DisplayName("Задача с более ранним сроком должна получать более раннее окно.")
+    public void autoScheduleShouldPlaceEarlierDeadlineFirst() {
+        LocalDateTime nine = LocalDateTime.of(2024, 1, 1, 9, 0);
+        Task relaxed = unscheduled(duration);
+        Task urgent = unscheduled(duration);
+        Task important = unscheduled(duration);
+
+        sut.autoSchedule(List.of(new AutoScheduler.Request(relaxed),
+                new AutoScheduler.Request(urgent, 0, nine.plusMinutes(10)),
+                new AutoScheduler.Request(important, 5, null)), nine);
+
+        assertEquals(nine, urgent.getStartTime());
+        assertTrue(important.getStartTime().isBefore(relaxed.getStartTime()));
+    }
+
+    @Test
+    @DisplayName("Если задача не успевает к сроку, пачка не должна сохраняться.")
+    public void autoScheduleShouldRejectBatchWhenDeadlineCannotBeMet() {
+        LocalDateTime nine = LocalDateTime.of(2024, 1, 1, 9, 0);
+        getRandomTask(duration, nine);
+        Task free = unscheduled(duration);
+        Task late = unscheduled(duration);
+
+        assertThrows(ValidationException.class, () -> sut.autoSchedule(List.of(new AutoScheduler.Request(free),
+                new AutoScheduler.Request(late, 0, nine.plusMinutes(5))), nine));
+
+        assertEquals(1, sut.getTasks().size());
+        assertTrue(!free.hasStartTime() && !late.hasStartTime());
+    }
+
+    @Test
+    @DisplayName("Критический путь эпика должен следовать за зависимостями и длительностью подзадач.")
+    public void criticalPathShouldFollowDependenciesAndDurations() {
+        Epic epic = getRandomEpic();
+        SubTask design = getRandomSubTask(epic.getId(), Duration.ofMinutes(30), startTime);
+        SubTask build = getRandomSubTask(epic.getId(), Duration.ofMinutes(60), startTime.plusHours(1));
+        SubTask review = getRandomSubTask(epic.getId(), Duration.ofMinutes(20), startTime.plusHours(3));
+        assertEquals(Duration.ofMinutes(60), sut.getEpic(epic.getId()).getCriticalPath());
+
+        sut.addDependency(review.getId(), build.getId());
+        sut.addDependency(build.getId(), design.getId());
+
+        assertEquals(Duration.ofMinutes(110), sut.getEpic(epic.getId()).getCriticalPath());
+        assertEquals(List.of(design.getId(), build.getId(), review.getId()),
+                sut.getSubtasksOfEpicInOrder(epic.getId()).stream().map(Task::getId).toList());
+        sut.updateSubTask(new SubTask("build", "description", build.getId(), TaskStatus.NEW, epic.getId(),
+                Duration.ofMinutes(90), startTime.plusHours(1)));
+        assertEquals(Duration.ofMinutes(140), sut.getEpic(epic.getId()).getCriticalPath());
+        sut.deleteSubTask(build.getId());
+        assertEquals(Duration.ofMinutes(30), sut.getEpic(epic.getId()).getCriticalPath());
+        assertTrue(sut.getDependencies(review.getId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Зависимость, замыкающая цикл, должна отклоняться без изменений.")
+    public void dependencyCycleShouldBeRejected() {
+        Task first = getRandomTask(duration, startTime);
+        Task second = getRandomTask(duration, startTime.plusHours(1));
+        Task third = getRandomTask(duration, startTime.plusHours(2));
+        sut.addDependency(second.getId(), first.getId());
+        sut.addDependency(third.getId(), second.getId());
+
+        assertThrows(ValidationException.class, () -> sut.addDependency(first.getId(), third.getId()));
+        assertThrows(ValidationException.class, () -> sut.addDependency(first.getId(), first.getId()));
+        assertThrows(NotFoundException.class, () -> sut.addDependency(first.getId(), 1_000));
+        assertTrue(sut.getDependencies(first.getId()).isEmpty());
+        sut.removeDependency(third.getId(), second.getId());
+        sut.addDependency(first.getId(), third.getId());
+        assertEquals(List.of(third.getId()), sut.getDependencies(first.getId()));
+    }
+
+    @Test
+    @DisplayName("Если у подзадачи нет эпика, задачи пачки не должны получить время начала.")
+    public void autoScheduleShouldRestoreStartTimesWhenEpicIsMissing() {
+        LocalDateTime nine = LocalDateTime.of(2024, 1, 1, 9, 0);
+        Task task = unscheduled(duration);
+        SubTask orphan = RandomTask.initRandomSubTask(-1, duration, null);
+
+        assertThrows(NotFoundException.class, () -> sut.autoSchedule(List.of(new AutoScheduler.Request(task),
+                new AutoScheduler.Request(orphan)), nine));
+
+        assertTrue(!task.hasStartTime() && !orphan.hasStartTime());
+        assertEquals(0, sut.getTasks().size());
+    }
+
+    private static Task unscheduled(Duration duration) {
+        Task task = RandomTask.initRandomTask(duration, null);
+        assertTrue(!task.hasStartTime());
+        return task;
+    }
 }
@@ -0,0 +1,59 @@
+import metrics.OperationMetrics;
+import model.Epic;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.Managers;
+import service.TaskManager;
+import util.testdata.RandomTask;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Тесты менеджера задач с замером операций.")
+public class InstrumentedTaskManagerTest extends TaskManagerTest<TaskManager> {
+    private OperationMetrics metrics;
+
+    @BeforeEach
+    public void setUp() {
+        metrics = new OperationMetrics();
+        sut = Managers.getInstrumented(metrics);
+    }
+
+    @Test
+    @DisplayName("Каждая операция менеджера должна попадать в свой таймер.")
+    public void operationsShouldBeTimed() {
+        getRandomTask(duration, startTime);
+        getRandomTask(duration, startTime.plusHours(1));
+        sut.getTasks();
+
+        assertEquals(2, metrics.timer("task_manager_operation_seconds", "operation=\"createTask\"").getCount());
+        assertEquals(1, metrics.timer("task_manager_operation_seconds", "operation=\"getTasks\"").getCount());
+        assertEquals(2, metrics.timer("task_manager_validation_seconds", "mode=\"single\"").getCount());
+    }
+
+    @Test
+    @DisplayName("Пересчет эпика и обновление истории должны замеряться внутри менеджера.")
+    public void epicRecalculationAndHistoryShouldBeTimed() {
+        Epic epic = getRandomEpic();
+        getRandomSubTask(epic.getId(), duration, startTime);
+        sut.getEpic(epic.getId());
+
+        assertEquals(1, metrics.timer("task_manager_epic_recalculation_seconds", "part=\"time\"").getCount());
+        assertEquals(1, metrics.timer("task_manager_epic_recalculation_seconds", "part=\"status\"").getCount());
+        assertEquals(1, metrics.timer("history_manager_operation_seconds", "operation=\"add\"").getCount());
+        String scrape = metrics.scrape();
+        assertTrue(scrape.contains("# TYPE task_manager_operation_seconds summary"));
+        assertTrue(scrape.contains("task_manager_operation_seconds_count{operation=\"createSubTask\"} 1"));
+    }
+
+    @Test
+    @DisplayName("Выключенные метрики не должны ничего считать.")
+    public void disabledMetricsShouldNotRecord() {
+        TaskManager manager = Managers.getInstrumented(OperationMetrics.DISABLED);
+        manager.createTask(RandomTask.initRandomTask());
+
+        assertEquals(0, OperationMetrics.DISABLED.timer("task_manager_operation_seconds", "operation=\"createTask\"")
+                .getCount());
+    }
+}
@@ -0,0 +1,62 @@
+import exception.NotFoundException;
+import exception.NotSupportedException;
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.OffHeapTaskManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static util.check.TaskComparator.compareTasks;
+
+@DisplayName("Тесты менеджера задач с хранением вне кучи.")
+public class OffHeapTaskManagerTest extends TaskManagerTest<OffHeapTaskManager> {
+    @BeforeEach
+    public void setUp() {
+        sut = new OffHeapTaskManager();
+    }
+
+    @Test
+    @DisplayName("Многократное обновление задачи не должно терять имя и описание.")
+    public void repeatedUpdatesShouldKeepLatestNameAndDescription() {
+        Task task = getRandomTask(duration, startTime);
+        Task expected = null;
+        for (int i = 0; i < 10_000; i++) {
+            expected = new Task("name" + i, "описание " + i, task.getId(), task.getStatus());
+            expected.setDuration(duration);
+            expected.setStartTime(startTime);
+            sut.updateTask(expected);
+        }
+
+        compareTasks(expected, sut.getTask(task.getId()));
+    }
+
+    @Test
+    @DisplayName("Зависимости, которых нет у менеджера, должны отклоняться как неподдерживаемые.")
+    public void dependenciesShouldNotBeSupported() {
+        Task first = getRandomTask(duration, startTime);
+        Task second = getRandomTask(duration, startTime.plusHours(1));
+
+        assertThrows(NotSupportedException.class, () -> sut.addDependency(second.getId(), first.getId()));
+        assertThrows(NotSupportedException.class, () -> sut.getDependencies(second.getId()));
+    }
+
+    @Test
+    @DisplayName("Обновление подзадачи с несуществующим эпиком должно бросать исключение и не менять подзадачу.")
+    public void updateSubTaskWithMissingEpicShouldThrowNotFound() {
+        Epic epic = getRandomEpic();
+        SubTask saved = getRandomSubTask(epic.getId(), duration, startTime);
+        SubTask moved = new SubTask("name", "description", saved.getId(), TaskStatus.DONE, epic.getId() + 100,
+                duration, startTime);
+
+        assertThrows(NotFoundException.class, () -> sut.updateSubTask(moved));
+        compareTasks(saved, sut.getSubTask(saved.getId()));
+        assertEquals(List.of(saved.getId()), sut.getEpic(epic.getId()).getSubTaskIds());
+    }
+}
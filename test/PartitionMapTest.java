@@ -0,0 +1,83 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import server.Partition;
+import server.PartitionMap;
+import service.BoardRegistry;
+import service.FileBackedTaskManager;
+import util.testdata.RandomTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Распределение досок по разделам.")
+class PartitionMapTest {
+    private List<Partition> partitions;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        partitions = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            File directory = Files.createTempDirectory("partition").toFile();
+            partitions.add(new Partition(i, URI.create("http://localhost:" + (8081 + i)), directory));
+        }
+    }
+
+    @Test
+    @DisplayName("Доски должны распределяться по разделам примерно поровну.")
+    void boardsShouldBeSpreadEvenly() {
+        PartitionMap partitionMap = new PartitionMap(partitions);
+        int[] counts = new int[partitions.size()];
+
+        for (int boardId = 0; boardId < 10_000; boardId++) {
+            counts[partitionMap.getOwner(boardId).index()]++;
+        }
+
+        for (int count : counts) {
+            assertTrue(count > 2_000 && count < 3_000, "count=" + count);
+        }
+    }
+
+    @Test
+    @DisplayName("Владелец перенесенной доски должен определяться по каталогу с ее файлом.")
+    void movedBoardOwnerShouldBeFoundByFile() {
+        int boardId = 42;
+        Partition home = new PartitionMap(partitions).getHome(boardId);
+        Partition other = partitions.get((home.index() + 1) % partitions.size());
+        FileBackedTaskManager manager = new FileBackedTaskManager(
+                new File(other.directory(), BoardRegistry.getFileName(boardId)));
+        manager.createTask(RandomTask.initRandomTask(Duration.ofMinutes(10), LocalDateTime.of(2024, 1, 1, 9, 0)));
+
+        PartitionMap partitionMap = new PartitionMap(partitions);
+
+        assertEquals(other, partitionMap.getOwner(boardId));
+        assertEquals(home, partitionMap.getHome(boardId));
+        assertEquals(Map.of(boardId, other), partitionMap.getMovedBoards());
+    }
+
+    @Test
+    @DisplayName("Возврат доски в свой диапазон должен убирать ее из перенесенных.")
+    void boardReturnedHomeShouldNotBeMoved() {
+        PartitionMap partitionMap = new PartitionMap(partitions);
+        Partition home = partitionMap.getHome(7);
+        Partition other = partitions.get((home.index() + 1) % partitions.size());
+
+        partitionMap.assign(7, other);
+        assertNotEquals(home, partitionMap.getOwner(7));
+        partitionMap.assign(7, home);
+
+        assertEquals(home, partitionMap.getOwner(7));
+        assertTrue(partitionMap.getMovedBoards().isEmpty());
+    }
+}
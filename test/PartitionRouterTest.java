@@ -0,0 +1,174 @@
+import controller.AdmissionLimits;
+import metrics.OperationMetrics;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import server.HttpTaskServer;
+import server.Partition;
+import server.PartitionMap;
+import server.PartitionRouter;
+import service.BoardRegistry;
+import service.Managers;
+import util.client.TestHttpClient;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.net.HttpURLConnection.HTTP_BAD_GATEWAY;
+import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
+import static java.net.HttpURLConnection.HTTP_CONFLICT;
+import static java.net.HttpURLConnection.HTTP_CREATED;
+import static java.net.HttpURLConnection.HTTP_NO_CONTENT;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static util.testdata.RandomTask.initRandomTask;
+
+/*
+ Разделы запускаются в том же процессе на своих портах: маршрутизатору важны только адрес и каталог раздела.
+ */
+@DisplayName("Маршрутизатор разделов.")
+class PartitionRouterTest {
+    private static final int FIRST_PARTITION_PORT = 8081;
+    private final LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 9, 0);
+    private final List<HttpTaskServer> servers = new ArrayList<>();
+    private final List<BoardRegistry> registries = new ArrayList<>();
+    private List<Partition> partitions;
+    private PartitionRouter router;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        partitions = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            File directory = Files.createTempDirectory("partition").toFile();
+            int port = FIRST_PARTITION_PORT + i;
+            BoardRegistry registry = new BoardRegistry(directory, Long.MAX_VALUE);
+            HttpTaskServer server = new HttpTaskServer(port, Managers.getDefault(), OperationMetrics.DISABLED,
+                    AdmissionLimits.DEFAULT, registry);
+            server.start();
+            servers.add(server);
+            registries.add(registry);
+            partitions.add(new Partition(i, URI.create("http://localhost:" + port), directory));
+        }
+        router = new PartitionRouter(8080, new PartitionMap(partitions), new OperationMetrics());
+        router.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        router.stop();
+        servers.forEach(HttpTaskServer::stop);
+    }
+
+    @Test
+    @DisplayName("Запрос к доске должен обслуживаться разделом, который ей владеет.")
+    void requestShouldBeServedByOwner() throws IOException, InterruptedException {
+        for (Partition partition : partitions) {
+            int boardId = findBoardOf(partition);
+            Task task = initRandomTask(Duration.ofMinutes(10), startTime);
+
+            assertEquals(HTTP_CREATED, TestHttpClient.post("/boards/" + boardId + "/tasks", task).statusCode());
+            HttpResponse<String> tasks = TestHttpClient.get("/boards/" + boardId + "/tasks");
+
+            assertEquals(HTTP_OK, tasks.statusCode());
+            assertEquals(1, TestHttpClient.parseJsonToListOfTask(tasks).size());
+            assertEquals(List.of(boardId), List.copyOf(registries.get(partition.index()).getResidentBoards()));
+        }
+    }
+
+    @Test
+    @DisplayName("Перенесенная доска должна переезжать вместе с файлом и обслуживаться новым разделом.")
+    void movedBoardShouldBeServedByTarget() throws IOException, InterruptedException {
+        Partition source = partitions.get(0);
+        Partition target = partitions.get(1);
+        int boardId = findBoardOf(source);
+        TestHttpClient.post("/boards/" + boardId + "/tasks", initRandomTask(Duration.ofMinutes(10), startTime));
+
+        String movePath = PartitionRouter.MOVE_PATH + "?board=" + boardId + "&to=" + target.index();
+        HttpResponse<String> moved = TestHttpClient.postStream(movePath, InputStream::nullInputStream);
+
+        assertEquals(HTTP_NO_CONTENT, moved.statusCode());
+        assertFalse(new File(source.directory(), BoardRegistry.getFileName(boardId)).exists());
+        assertTrue(new File(target.directory(), BoardRegistry.getFileName(boardId)).exists());
+        assertTrue(registries.get(source.index()).getResidentBoards().isEmpty());
+        HttpResponse<String> tasks = TestHttpClient.get("/boards/" + boardId + "/tasks");
+        assertEquals(1, TestHttpClient.parseJsonToListOfTask(tasks).size());
+        assertEquals(List.of(boardId), List.copyOf(registries.get(target.index()).getResidentBoards()));
+        assertEquals(target, new PartitionMap(partitions).getOwner(boardId));
+    }
+
+    @Test
+    @DisplayName("Перенос доски с открытой подпиской на изменения должен сразу отклоняться.")
+    void moveShouldBeRefusedWhileEventStreamIsOpen() throws IOException, InterruptedException {
+        int boardId = findBoardOf(partitions.get(0));
+        try (Socket subscriber = new Socket("localhost", 8080)) {
+            subscriber.setSoTimeout(5000);
+            subscriber.getOutputStream().write(("GET /boards/" + boardId + "/changes HTTP/1.1\r\n"
+                    + "Host: localhost\r\nAccept: text/event-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            subscriber.getOutputStream().flush();
+            String statusLine = new BufferedReader(new InputStreamReader(subscriber.getInputStream(),
+                    StandardCharsets.US_ASCII)).readLine();
+
+            long start = System.nanoTime();
+            HttpResponse<String> moved = TestHttpClient.postStream(PartitionRouter.MOVE_PATH + "?board=" + boardId
+                    + "&to=1", InputStream::nullInputStream);
+
+            assertEquals(HTTP_OK, Integer.parseInt(statusLine.split(" ")[1]));
+            assertEquals(HTTP_CONFLICT, moved.statusCode());
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+            assertEquals(HTTP_OK, TestHttpClient.get("/boards/" + boardId + "/tasks").statusCode());
+        }
+    }
+
+    @Test
+    @DisplayName("Перенос в неизвестный раздел должен возвращать 400.")
+    void moveToUnknownPartitionShouldBeRejected() throws IOException, InterruptedException {
+        HttpResponse<String> moved = TestHttpClient.postStream(PartitionRouter.MOVE_PATH + "?board=1&to=5",
+                InputStream::nullInputStream);
+
+        assertEquals(HTTP_BAD_REQUEST, moved.statusCode());
+    }
+
+    @Test
+    @DisplayName("Метрики маршрутизатора должны считать запросы и ошибки по разделам.")
+    void metricsShouldBeCollectedPerPartition() throws IOException, InterruptedException {
+        int firstBoard = findBoardOf(partitions.get(0));
+        int secondBoard = findBoardOf(partitions.get(1));
+        TestHttpClient.get("/boards/" + firstBoard + "/tasks");
+        TestHttpClient.get("/boards/" + firstBoard + "/tasks");
+        servers.get(1).stop();
+
+        assertEquals(HTTP_BAD_GATEWAY, TestHttpClient.get("/boards/" + secondBoard + "/tasks").statusCode());
+        String metrics = TestHttpClient.get("/metrics").body();
+
+        assertTrue(metrics.contains("router_partition_request_seconds_count{partition=\"0\"} 2"), metrics);
+        assertTrue(metrics.contains("router_partition_request_seconds_count{partition=\"1\"} 1"), metrics);
+        assertTrue(metrics.contains("router_partition_errors_total{partition=\"1\"} 1"), metrics);
+        assertTrue(metrics.contains("router_partition_in_flight{partition=\"0\"} 0.0"), metrics);
+    }
+
+    private int findBoardOf(Partition partition) {
+        PartitionMap partitionMap = router.getPartitionMap();
+        int boardId = 1;
+        while (!partitionMap.getOwner(boardId).equals(partition)) {
+            boardId++;
+        }
+        return boardId;
+    }
+}
@@ -0,0 +1,102 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.PersistentSortedMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Неизменяемое отсортированное отображение.")
+class PersistentSortedMapTest {
+
+    @Test
+    @DisplayName("Случайные вставки и удаления должны совпадать с TreeMap.")
+    void randomOperationsShouldMatchTreeMap() {
+        Random random = new Random(42);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        PersistentSortedMap<Integer, Integer> actual = PersistentSortedMap.empty();
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                actual = actual.remove(key);
+            } else {
+                expected.put(key, i);
+                actual = actual.put(key, i);
+            }
+        }
+
+        assertEquals(expected.size(), actual.size());
+        assertEquals(new ArrayList<>(expected.values()), actual.values());
+        for (int key = 0; key < 2_000; key++) {
+            assertEquals(expected.get(key), actual.get(key));
+        }
+    }
+
+    @Test
+    @DisplayName("Изменение не должно менять предыдущую версию.")
+    void previousVersionShouldStayUnchanged() {
+        PersistentSortedMap<Integer, String> first = PersistentSortedMap.<Integer, String>empty()
+                .put(1, "a")
+                .put(2, "b");
+
+        PersistentSortedMap<Integer, String> second = first.put(3, "c").remove(1).put(2, "B");
+
+        assertEquals(List.of("a", "b"), first.values());
+        assertEquals(List.of("B", "c"), second.values());
+        assertNull(second.get(1));
+    }
+
+    @Test
+    @DisplayName("Удаление отсутствующего ключа должно возвращать ту же версию.")
+    void removingMissingKeyShouldReturnSameVersion() {
+        PersistentSortedMap<Integer, String> map = PersistentSortedMap.<Integer, String>empty().put(1, "a");
+
+        assertSame(map, map.remove(2));
+        assertSame(map, map.put(1, map.get(1)));
+    }
+
+    @Test
+    @DisplayName("Список значений должен отдавать элементы по индексу в порядке ключей.")
+    void valuesShouldSupportIndexAccess() {
+        PersistentSortedMap<Integer, Integer> map = PersistentSortedMap.empty();
+        for (int key = 99; key >= 0; key--) {
+            map = map.put(key, key * 10);
+        }
+        List<Integer> values = map.values();
+
+        assertEquals(0, values.get(0));
+        assertEquals(500, values.get(50));
+        assertEquals(990, values.get(99));
+        assertThrows(IndexOutOfBoundsException.class, () -> values.get(100));
+        assertThrows(UnsupportedOperationException.class, () -> values.add(1));
+    }
+
+    @Test
+    @DisplayName("Поиск по нижней границе и обход после ключа должны совпадать с TreeMap.")
+    void floorAndTailShouldMatchTreeMap() {
+        Random random = new Random(7);
+        PersistentSortedMap<Integer, Integer> map = PersistentSortedMap.empty();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 500; i++) {
+            int key = random.nextInt(2_000) * 2;
+            map = map.put(key, i);
+            expected.put(key, i);
+        }
+
+        for (int key = -1; key < 4_002; key += 7) {
+            Map.Entry<Integer, Integer> floor = map.floorEntry(key);
+            assertEquals(expected.floorEntry(key), floor);
+            List<Integer> tail = new ArrayList<>();
+            map.entryIteratorAfter(key).forEachRemaining(entry -> tail.add(entry.getKey()));
+            assertEquals(List.copyOf(expected.tailMap(key, false).keySet()), tail);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+import exception.ReadOnlyException;
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.AutoScheduler;
+import service.FileBackedTaskManager;
+import service.ReplicaTaskManager;
+import util.testdata.RandomTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static util.check.TaskComparator.compareListOfTasks;
+
+@DisplayName("Реплика для чтения.")
+class ReplicaTaskManagerTest {
+    private final LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 9, 0);
+    private final Duration duration = Duration.ofMinutes(10);
+    private FileBackedTaskManager primary;
+    private ReplicaTaskManager replica;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        File file = Files.createTempDirectory("replica").resolve("primary.csv").toFile();
+        primary = new FileBackedTaskManager(file);
+        replica = new ReplicaTaskManager(file);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replica.close();
+    }
+
+    @Test
+    @DisplayName("Реплика должна получать задачи основного менеджера с теми же id и временем эпиков.")
+    void replicaShouldMirrorPrimary() {
+        primary.createTask(RandomTask.initRandomTask(duration, startTime));
+        int epicId = primary.createEpic(RandomTask.initRandomEpic());
+        primary.createSubTask(RandomTask.initRandomSubTask(epicId, duration, startTime.plusHours(1)));
+
+        assertEquals(3, replica.poll());
+
+        compareListOfTasks(primary.getTasks(), replica.getTasks());
+        compareListOfTasks(primary.getSubTasks(), replica.getSubTasks());
+        compareListOfTasks(primary.getPrioritizedTasks(), replica.getPrioritizedTasks());
+        Epic epic = replica.getEpics().getFirst();
+        assertEquals(epicId, epic.getId());
+        assertEquals(startTime.plusHours(1), epic.getStartTime());
+        assertEquals(List.of(primary.getSubTasks().getFirst().getId()), epic.getSubTaskIds());
+    }
+
+    @Test
+    @DisplayName("Повторный опрос должен применять только изменившиеся и удаленные задачи.")
+    void pollShouldApplyOnlyDifference() {
+        int firstId = primary.createTask(RandomTask.initRandomTask(duration, startTime));
+        int secondId = primary.createTask(RandomTask.initRandomTask(duration, startTime.plusHours(1)));
+        primary.createTask(RandomTask.initRandomTask(duration, startTime.plusHours(2)));
+        replica.poll();
+        long version = replica.getVersion(TaskType.TASK);
+
+        primary.updateTask(new Task("renamed", "description", TaskStatus.DONE, firstId, duration, startTime));
+        primary.deleteTask(secondId);
+
+        assertEquals(2, replica.poll());
+        assertEquals(0, replica.poll());
+        assertEquals(2, replica.getTasks().size());
+        assertEquals("renamed", replica.getTasks().getFirst().getName());
+        assertEquals(TaskStatus.DONE, replica.getTasks().getFirst().getStatus());
+        assertTrue(replica.getVersion(TaskType.TASK) > version);
+        assertEquals(Duration.ZERO, replica.getLag());
+    }
+
+    @Test
+    @DisplayName("Задачи, обменявшиеся временем начала, должны остаться в расписании реплики.")
+    void swappedStartTimesShouldKeepSchedule() {
+        int firstId = primary.createTask(RandomTask.initRandomTask(duration, startTime));
+        int secondId = primary.createTask(RandomTask.initRandomTask(duration, startTime.plusHours(1)));
+        replica.poll();
+
+        primary.runBatch(() -> {
+            primary.updateTask(new Task("first", "description", TaskStatus.NEW, firstId, duration,
+                    startTime.plusHours(2)));
+            primary.updateTask(new Task("second", "description", TaskStatus.NEW, secondId, duration, startTime));
+            primary.updateTask(new Task("first", "description", TaskStatus.NEW, firstId, duration,
+                    startTime.plusHours(1)));
+        });
+        replica.poll();
+
+        assertEquals(List.of(secondId, firstId), replica.getPrioritizedTasks().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Удаление эпика на основном менеджере должно удалять его подзадачи на реплике.")
+    void deletedEpicShouldRemoveSubTasks() {
+        int epicId = primary.createEpic(RandomTask.initRandomEpic());
+        primary.createSubTask(RandomTask.initRandomSubTask(epicId, duration, startTime));
+        replica.poll();
+
+        primary.deleteEpic(epicId);
+        replica.poll();
+
+        assertTrue(replica.getEpics().isEmpty());
+        assertTrue(replica.getSubTasks().isEmpty());
+        assertTrue(replica.getPrioritizedTasks().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Реплика должна повторять зависимости основного менеджера и критический путь эпика.")
+    void replicaShouldMirrorDependencies() {
+        int epicId = primary.createEpic(RandomTask.initRandomEpic());
+        int firstId = primary.createSubTask(RandomTask.initRandomSubTask(epicId, duration, startTime));
+        int secondId = primary.createSubTask(RandomTask.initRandomSubTask(epicId, duration, startTime.plusHours(1)));
+        replica.poll();
+
+        primary.addDependency(secondId, firstId);
+
+        assertEquals(1, replica.poll());
+        assertEquals(List.of(firstId), replica.getDependencies(secondId));
+        assertEquals(Duration.ofMinutes(20), replica.getEpic(epicId).getCriticalPath());
+
+        primary.removeDependency(secondId, firstId);
+
+        assertEquals(1, replica.poll());
+        assertTrue(replica.getDependencies(secondId).isEmpty());
+        assertEquals(duration, replica.getEpic(epicId).getCriticalPath());
+    }
+
+    @Test
+    @DisplayName("Изменяющие операции на реплике должны отклоняться.")
+    void mutationsShouldBeRejected() {
+        Task task = RandomTask.initRandomTask(duration, startTime);
+
+        assertThrows(ReadOnlyException.class, () -> replica.createTask(task));
+        assertThrows(ReadOnlyException.class, () -> replica.deleteTasks());
+        assertThrows(ReadOnlyException.class, () -> replica.updateEpic(RandomTask.initRandomEpic()));
+        assertThrows(ReadOnlyException.class, () -> replica.addDependency(2, 1));
+        assertThrows(ReadOnlyException.class, () -> replica.removeDependency(2, 1));
+    }
+
+    @Test
+    @DisplayName("Автопланирование на реплике должно отклоняться, не меняя время задач.")
+    void autoScheduleShouldBeRejectedWithoutChangingTasks() {
+        Task task = RandomTask.initRandomTask(duration, null);
+
+        assertThrows(ReadOnlyException.class,
+                () -> replica.autoSchedule(List.of(new AutoScheduler.Request(task)), startTime));
+        assertTrue(!task.hasStartTime());
+    }
+}
@@ -0,0 +1,133 @@
+import exception.ValidationException;
+import metrics.OperationMetrics;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.FileBackedTaskManager;
+import service.SingleWriterTaskManager;
+import service.TaskManager;
+import util.testdata.RandomTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Тесты менеджера задач с однопоточным писателем.")
+public class SingleWriterTaskManagerTest extends TaskManagerTest<SingleWriterTaskManager> {
+    private OperationMetrics metrics;
+    private File file;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = File.createTempFile("testData" + RandomTask.random.nextInt(), "csv");
+        metrics = new OperationMetrics();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        manager.setMetrics(metrics);
+        sut = new SingleWriterTaskManager(manager);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        sut.close();
+    }
+
+    @Test
+    @DisplayName("Пачка команд должна сохраняться в файл один раз.")
+    public void batchShouldBeSavedOnce() throws InterruptedException {
+        CountDownLatch release = blockWriter();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Task task = RandomTask.initRandomTask(duration, startTime.plusHours(i));
+            results.add(sut.submit(manager -> manager.createTask(task)));
+        }
+
+        release.countDown();
+        results.forEach(CompletableFuture::join);
+
+        assertEquals(50, sut.getTasks().size());
+        assertEquals(1, metrics.timer("file_save_seconds", "").getCount());
+        assertEquals(50, FileBackedTaskManager.loadFromFile(file).getTasks().size());
+    }
+
+    @Test
+    @DisplayName("Ошибка одной команды не должна отменять остальные команды пачки.")
+    public void failedCommandShouldNotFailBatch() throws InterruptedException {
+        CountDownLatch release = blockWriter();
+        Task first = RandomTask.initRandomTask(duration, startTime);
+        Task overlapping = RandomTask.initRandomTask(duration, startTime.plusMinutes(5));
+        Task last = RandomTask.initRandomTask(duration, startTime.plusHours(1));
+        CompletableFuture<Integer> firstResult = sut.submit(manager -> manager.createTask(first));
+        CompletableFuture<Integer> overlappingResult = sut.submit(manager -> manager.createTask(overlapping));
+        CompletableFuture<Integer> lastResult = sut.submit(manager -> manager.createTask(last));
+
+        release.countDown();
+        int firstId = firstResult.join();
+        int lastId = lastResult.join();
+
+        assertEquals(first.getId(), firstId);
+        assertEquals(last.getId(), lastId);
+        CompletionException actual = assertThrows(CompletionException.class, overlappingResult::join);
+        assertInstanceOf(ValidationException.class, actual.getCause());
+        assertEquals(2, sut.getTasks().size());
+    }
+
+    @Test
+    @DisplayName("Параллельные записи из разных потоков должны получить уникальные id.")
+    public void concurrentWritesShouldGetUniqueIds() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            Task task = RandomTask.initRandomTask(duration, startTime.plusHours(i));
+            results.add(executor.submit(() -> sut.createTask(task)));
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (Future<Integer> result : results) {
+            ids.add(result.get());
+        }
+        executor.shutdown();
+
+        assertEquals(400, ids.size());
+        assertEquals(400, sut.getTasks().size());
+    }
+
+    @Test
+    @DisplayName("После закрытия команды должны отклоняться.")
+    public void closedWriterShouldRejectCommands() {
+        sut.close();
+
+        assertThrows(RejectedExecutionException.class, () -> sut.submit(TaskManager::getNextId));
+    }
+
+    // Писатель занят первой командой до release, остальные команды копятся в буфере и уходят одной пачкой.
+    private CountDownLatch blockWriter() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        sut.submit(manager -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        started.await();
+        return release;
+    }
+}
@@ -1,19 +1,25 @@
 import exception.NotFoundException;
 import exception.ValidationException;
+import model.CalendarDay;
 import model.Epic;
+import model.FreeSlot;
 import model.SubTask;
 import model.Task;
 import model.TaskStatus;
+import model.TaskType;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import service.SyncDelta;
 import service.TaskManager;
 import util.testdata.RandomTask;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -91,7 +97,8 @@ abstract class TaskManagerTest<T extends TaskManager> {
         Epic epic = getRandomEpic();
         SubTask subTask = getRandomSubTask(epic.getId());
         tasks.add(task);
-        tasks.add(epic);
+        // Эпик перечитывается: подзадача меняет в менеджере его копию.
+        tasks.add(sut.getEpics().stream().filter(stored -> stored.getId() == epic.getId()).findFirst().orElseThrow());
         tasks.add(subTask);
         return tasks;
     }
@@ -1022,7 +1029,8 @@ abstract class TaskManagerTest<T extends TaskManager> {
         SubTask second = getRandomSubTask(epic.getId(), duration, startTime.plus(Duration.ofMinutes(20)));
         Duration expectedDuration = first.getDuration().plus(second.getDuration());
 
-        assertEquals(expectedDuration, epic.getDuration(), "Duration should be sum of child durations");
+        assertEquals(expectedDuration, sut.getEpic(epic.getId()).getDuration(),
+                "Duration should be sum of child durations");
     }
 
     @Test
@@ -1052,7 +1060,7 @@ abstract class TaskManagerTest<T extends TaskManager> {
         getRandomSubTask(epic.getId(), Duration.ZERO, expectedStartTime);
         getRandomSubTask(epic.getId(), duration, startTime);
 
-        LocalDateTime actualStartTime = epic.getStartTime();
+        LocalDateTime actualStartTime = sut.getEpic(epic.getId()).getStartTime();
 
         assertEquals(expectedStartTime, actualStartTime, "Should be start time of first child");
     }
@@ -1066,7 +1074,7 @@ abstract class TaskManagerTest<T extends TaskManager> {
         getRandomSubTask(epic.getId(), Duration.ZERO, expectedEndTime);
         getRandomSubTask(epic.getId(), duration, startTime);
 
-        LocalDateTime actualEndTime = epic.getEndTime();
+        LocalDateTime actualEndTime = sut.getEpic(epic.getId()).getEndTime();
 
         assertEquals(expectedEndTime, actualEndTime, "Should be end time of last child");
     }
@@ -1094,4 +1102,221 @@ abstract class TaskManagerTest<T extends TaskManager> {
 
         assertEquals(0, actualTasks.size());
     }
+
+    @Test
+    @DisplayName("Создание подзадачи должно увеличивать версии подзадач и эпиков, но не задач.")
+    public void createSubTaskShouldIncreaseSubTaskAndEpicVersions() {
+        Epic epic = getRandomEpic();
+        long taskVersion = sut.getVersion(TaskType.TASK);
+        long subTaskVersion = sut.getVersion(TaskType.SUBTASK);
+        long epicVersion = sut.getVersion(TaskType.EPIC);
+
+        getRandomSubTask(epic.getId(), duration, startTime);
+
+        assertEquals(taskVersion, sut.getVersion(TaskType.TASK));
+        assertTrue(sut.getVersion(TaskType.SUBTASK) > subTaskVersion);
+        assertTrue(sut.getVersion(TaskType.EPIC) > epicVersion);
+    }
+
+    @Test
+    @DisplayName("Удаление задачи должно увеличивать версию задач.")
+    public void deleteTaskShouldIncreaseTaskVersion() {
+        Task task = getRandomTask();
+        long version = sut.getVersion(TaskType.TASK);
+
+        sut.deleteTask(task.getId());
+
+        assertTrue(sut.getVersion(TaskType.TASK) > version);
+    }
+
+    @Test
+    @DisplayName("Чтение задач не должно менять версии.")
+    public void readingShouldNotChangeVersions() {
+        Task task = getRandomTask();
+        long version = sut.getVersion(TaskType.TASK);
+
+        sut.getTask(task.getId());
+        sut.getTasks();
+        sut.getPrioritizedTasks();
+
+        assertEquals(version, sut.getVersion(TaskType.TASK));
+    }
+
+    @Test
+    @DisplayName("Дельта должна содержать только задачи, измененные после указанной версии.")
+    public void changesSinceShouldContainOnlyModifiedTasks() {
+        Task unchanged = getRandomTask(duration, startTime);
+        Task changed = getRandomTask(duration, startTime.plusHours(1));
+        long since = sut.getChangeFeed().getLastSequence();
+
+        changed.setName("changed");
+        sut.updateTask(changed);
+        SyncDelta delta = sut.getChangesSince(since);
+
+        assertEquals(sut.getChangeFeed().getLastSequence(), delta.version());
+        assertEquals(1, delta.tasks().size());
+        assertEquals(changed.getId(), delta.tasks().getFirst().getId());
+        assertEquals("changed", delta.tasks().getFirst().getName());
+        assertTrue(delta.deleted().isEmpty());
+        assertTrue(delta.tasks().stream().noneMatch(task -> task.getId() == unchanged.getId()));
+    }
+
+    @Test
+    @DisplayName("Дельта должна содержать удаленные задачи и пересчитанный эпик.")
+    public void changesSinceShouldContainDeletedTasksAndRecalculatedEpic() {
+        Epic epic = getRandomEpic();
+        SubTask subTask = getRandomSubTask(epic.getId(), duration, startTime);
+        long since = sut.getChangeFeed().getLastSequence();
+
+        sut.deleteSubTask(subTask.getId());
+        SyncDelta delta = sut.getChangesSince(since);
+
+        assertTrue(delta.subTasks().isEmpty());
+        assertEquals(1, delta.deleted().size());
+        assertEquals(subTask.getId(), delta.deleted().getFirst().id());
+        assertEquals(TaskType.SUBTASK, delta.deleted().getFirst().type());
+        assertEquals(1, delta.epics().size());
+        assertEquals(epic.getId(), delta.epics().getFirst().getId());
+    }
+
+    @Test
+    @DisplayName("В пустом расписании свободное окно должно начинаться с notBefore.")
+    public void freeSlotInEmptyScheduleShouldStartAtNotBefore() {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+        assertEquals(Optional.of(from), sut.findFreeSlot(duration, from, null));
+    }
+
+    @Test
+    @DisplayName("Свободное окно должно пропускать слишком короткие промежутки и подходить для создания задачи.")
+    public void freeSlotShouldSkipShortGapsAndAcceptNewTask() {
+        LocalDateTime nine = LocalDateTime.of(2024, 1, 1, 9, 0);
+        getRandomTask(duration, nine);
+        Task second = getRandomTask(duration, nine.plusMinutes(20));
+        getRandomTask(duration, nine.plusHours(1));
+        Duration fifteenMinutes = Duration.ofMinutes(15);
+
+        LocalDateTime slot = sut.findFreeSlot(fifteenMinutes, nine.plusMinutes(5), null).orElseThrow();
+
+        assertTrue(slot.isAfter(second.getEndTime()));
+        assertTrue(slot.isBefore(second.getEndTime().plusSeconds(1)));
+        Task task = RandomTask.initRandomTask(fifteenMinutes, slot);
+        sut.createTask(task);
+        assertEquals(4, sut.getPrioritizedTasks().size());
+    }
+
+    @Test
+    @DisplayName("Свободные окна должны идти по порядку и не выходить за notAfter.")
+    public void freeSlotsShouldBeOrderedAndBoundedByNotAfter() {
+        LocalDateTime nine = LocalDateTime.of(2024, 1, 1, 9, 0);
+        getRandomTask(duration, nine);
+        getRandomTask(duration, nine.plusMinutes(20));
+        getRandomTask(duration, nine.plusHours(1));
+        Duration fiveMinutes = Duration.ofMinutes(5);
+
+        List<FreeSlot> slots = sut.findFreeSlots(fiveMinutes, nine.minusHours(1), nine.plusHours(1).plusMinutes(5),
+                10);
+
+        assertEquals(3, slots.size());
+        assertEquals(new FreeSlot(nine.minusHours(1), nine.minusNanos(1)), slots.getFirst());
+        assertEquals(nine.plusMinutes(10).plusNanos(1), slots.get(1).start());
+        assertEquals(nine.plusHours(1).minusNanos(1), slots.get(2).end());
+        assertEquals(1, sut.findFreeSlots(fiveMinutes, nine.minusHours(1), null, 1).size());
+        assertEquals(Optional.empty(), sut.findFreeSlot(Duration.ofMinutes(30), nine, nine.plusHours(1)));
+    }
+
+    @Test
+    @DisplayName("Календарь должен делить задачу через полночь между днями и показывать пустые дни.")
+    public void calendarShouldSplitTasksAtMidnightAndFillEmptyDays() {
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        getRandomTask(Duration.ofMinutes(30), day.atTime(9, 0));
+        Task overnight = getRandomTask(Duration.ofHours(2), day.atTime(23, 0));
+        getRandomTask(duration, day.plusDays(3).atTime(12, 0));
+
+        List<CalendarDay> calendar = sut.getCalendar(day, day.plusDays(3));
+
+        assertEquals(List.of(new CalendarDay(day, 2, Duration.ofMinutes(90)),
+                new CalendarDay(day.plusDays(1), 1, Duration.ofHours(1)),
+                new CalendarDay(day.plusDays(2), 0, Duration.ZERO)), calendar);
+        assertEquals(List.of(overnight.getId()), sut.getTasksOfDay(day.plusDays(1)).stream().map(Task::getId).toList());
+        assertEquals(2, sut.getTasksOfDay(day).size());
+        assertTrue(sut.getTasksOfDay(day.plusDays(2)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Календарь должен учитывать изменение и удаление задач.")
+    public void calendarShouldFollowUpdatesAndDeletes() {
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        Task task = getRandomTask(duration, day.atTime(9, 0));
+        Epic epic = getRandomEpic();
+        SubTask subTask = getRandomSubTask(epic.getId(), duration, day.atTime(10, 0));
+
+        sut.updateTask(new Task("moved", "description", TaskStatus.NEW, task.getId(), Duration.ofMinutes(20),
+                day.plusDays(1).atTime(9, 0)));
+        sut.deleteSubTask(subTask.getId());
+
+        assertEquals(List.of(new CalendarDay(day, 0, Duration.ZERO),
+                new CalendarDay(day.plusDays(1), 1, Duration.ofMinutes(20))), sut.getCalendar(day, day.plusDays(2)));
+        sut.deleteTasks();
+        assertEquals(new CalendarDay(day.plusDays(1), 0, Duration.ZERO),
+                sut.getCalendar(day.plusDays(1), day.plusDays(2)).getFirst());
+    }
+
+    @Test
+    @DisplayName("Календарь с концом раньше начала должен отклоняться.")
+    public void calendarShouldRejectReversedRange() {
+        LocalDate day = LocalDate.of(2024, 1, 1);
+
+        assertTrue(sut.getCalendar(day, day).isEmpty());
+        assertThrows(ValidationException.class, () -> sut.getCalendar(day, day.minusDays(1)));
+    }
+
+    @Test
+    @DisplayName("Поиск должен находить задачи со всеми словами и ставить совпадение в названии выше.")
+    public void searchShouldMatchAllWordsAndRankNameHigher() {
+        Task inName = new Task("Fix login bug", "backend", TaskStatus.NEW, 0, duration, startTime);
+        Task inDescription = new Task("Backend", "fix the login page", TaskStatus.NEW, 0, duration,
+                startTime.plusHours(1));
+        sut.createTask(inName);
+        sut.createTask(inDescription);
+        Epic epic = getRandomEpic();
+        sut.updateEpic(new Epic("Login redesign", "ui", epic.getId()));
+
+        List<Integer> actual = sut.search("LOGIN fix", 10).stream().map(Task::getId).toList();
+
+        assertEquals(List.of(inName.getId(), inDescription.getId()), actual);
+        assertEquals(List.of(epic.getId()), sut.search("redesign", 10).stream().map(Task::getId).toList());
+        assertTrue(sut.search("login payment", 10).isEmpty());
+        assertEquals(1, sut.search("login", 1).size());
+    }
+
+    @Test
+    @DisplayName("Последнее слово запроса без пробела после него должно искаться как начало слова.")
+    public void searchShouldMatchPrefixOfLastWord() {
+        Task task = getRandomTask(duration, startTime);
+        sut.updateTask(new Task("Deploy release", "Выкатить сборку", TaskStatus.NEW, task.getId(), duration,
+                startTime));
+
+        assertEquals(1, sut.search("depl", 10).size());
+        assertEquals(1, sut.search("release выкат", 10).size());
+        assertTrue(sut.search("depl ", 10).isEmpty());
+        assertTrue(sut.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Поиск должен учитывать изменение и удаление задач.")
+    public void searchShouldFollowUpdatesAndDeletes() {
+        Task task = getRandomTask(duration, startTime);
+        sut.search("anything", 10);
+        sut.updateTask(new Task("Quarterly report", "finance", TaskStatus.NEW, task.getId(), duration, startTime));
+        Epic epic = getRandomEpic();
+        SubTask subTask = getRandomSubTask(epic.getId(), duration, startTime.plusHours(1));
+        sut.updateSubTask(new SubTask("Report draft", "", subTask.getId(), TaskStatus.NEW, epic.getId(), duration,
+                startTime.plusHours(1)));
+
+        assertEquals(2, sut.search("report", 10).size());
+        sut.deleteTask(task.getId());
+        sut.deleteEpic(epic.getId());
+        assertTrue(sut.search("report", 10).isEmpty());
+    }
 }
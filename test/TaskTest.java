@@ -0,0 +1,68 @@
+import model.Epic;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Хранение времени задачи.")
+class TaskTest {
+    @Test
+    @DisplayName("Время и длительность должны сохраняться с точностью до наносекунды.")
+    void timesShouldRoundTripWithNanos() {
+        LocalDateTime startTime = LocalDateTime.of(2024, 2, 29, 23, 59, 59, 999_999_999);
+        Duration duration = Duration.ofSeconds(3_600, 1);
+        Task task = new Task("name", "description", TaskStatus.NEW, 1, duration, startTime);
+
+        assertEquals(startTime, task.getStartTime());
+        assertEquals(duration, task.getDuration());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 1, 0, 0), task.getEndTime());
+        assertEquals(0, task.getEndNano());
+    }
+
+    @Test
+    @DisplayName("Время до 1970 года должно сохраняться без потерь.")
+    void timesBeforeEpochShouldRoundTrip() {
+        LocalDateTime startTime = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 500);
+        Task task = new Task("name", "description", TaskStatus.NEW, 1, Duration.ofNanos(999_999_500), startTime);
+
+        assertEquals(startTime, task.getStartTime());
+        assertEquals(LocalDateTime.of(1970, 1, 1, 0, 0), task.getEndTime());
+    }
+
+    @Test
+    @DisplayName("Без начала или длительности у задачи не должно быть конца.")
+    void missingTimesShouldGiveNoEndTime() {
+        Task task = new Task("name", "description", TaskStatus.NEW, 1, null, LocalDateTime.of(2024, 1, 1, 10, 0));
+
+        assertNull(task.getDuration());
+        assertNull(task.getEndTime());
+
+        task.setDuration(Duration.ofMinutes(30));
+        task.setStartTime(null);
+
+        assertFalse(task.hasStartTime());
+        assertNull(task.getEndTime());
+    }
+
+    @Test
+    @DisplayName("Конец эпика должен задаваться отдельно от начала и длительности.")
+    void epicEndTimeShouldBeSetDirectly() {
+        Epic epic = new Epic("name", "description", 1);
+        LocalDateTime endTime = LocalDateTime.of(2024, 1, 1, 10, 0, 0, 1);
+
+        epic.setStartTime(LocalDateTime.of(2024, 1, 1, 9, 0));
+        epic.setDuration(Duration.ofMinutes(15));
+        epic.setEndTime(endTime);
+
+        assertEquals(endTime, epic.getEndTime());
+        assertTrue(epic.hasStartTime());
+    }
+}
@@ -0,0 +1,99 @@
+package benchmark;
+
+import model.FreeSlot;
+import model.Task;
+import model.TaskStatus;
+import service.AutoScheduler;
+import service.InMemoryManager;
+import service.Managers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Run manually: java -cp <classes> benchmark.AutoSchedulerBenchmark [countOfScheduledTasks] [countOfRequests]
+public class AutoSchedulerBenchmark {
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final LocalDateTime START_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    public static void main(String[] args) throws Exception {
+        int countOfScheduledTasks = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int countOfRequests = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        List<Task> schedule = schedule(countOfScheduledTasks);
+        List<FreeSlot> gaps = newManager(schedule).findFreeSlots(Duration.ZERO, START_TIME, null,
+                Integer.MAX_VALUE);
+
+        long linearNanos = measure(() -> planLinear(gaps, requests(countOfRequests)));
+        long treeNanos = measure(() -> {
+            List<AutoScheduler.Request> requests = requests(countOfRequests);
+            AutoScheduler.plan(gaps, requests);
+            return requests.getLast().task().getStartTime().getNano();
+        });
+        long setupNanos = measure(() -> newManager(schedule).getTasks().size() + requests(countOfRequests).size());
+        long commitNanos = measure(() -> newManager(schedule).autoSchedule(requests(countOfRequests), START_TIME)
+                .getLast()) - setupNanos;
+
+        System.out.printf("scheduled=%d requests=%d gaps=%d linear=%.0f tasks/s tree=%.0f tasks/s "
+                        + "plan+commit=%.0f tasks/s speedup=%.1fx%n",
+                countOfScheduledTasks, countOfRequests, gaps.size(), countOfRequests * 1e9 / linearNanos,
+                countOfRequests * 1e9 / treeNanos, countOfRequests * 1e9 / commitNanos,
+                (double) linearNanos / treeNanos);
+    }
+
+    // Первое подходящее окно перебором: так планировщик работал бы без дерева отрезков.
+    private static long planLinear(List<FreeSlot> gaps, List<AutoScheduler.Request> requests) {
+        List<LocalDateTime> starts = new ArrayList<>(gaps.stream().map(FreeSlot::start).toList());
+        long checksum = 0;
+        for (AutoScheduler.Request request : requests) {
+            Duration duration = request.task().getDuration();
+            for (int gap = 0; gap < gaps.size(); gap++) {
+                LocalDateTime end = starts.get(gap).plus(duration);
+                if (gaps.get(gap).end() == null || !end.isAfter(gaps.get(gap).end())) {
+                    checksum += gap;
+                    starts.set(gap, end.plusNanos(1));
+                    break;
+                }
+            }
+        }
+        return checksum;
+    }
+
+    // Задачи с окнами от минуты до полутора часов между ними.
+    private static List<Task> schedule(int countOfTasks) {
+        Random random = new Random(42);
+        List<Task> tasks = new ArrayList<>(countOfTasks);
+        LocalDateTime startTime = START_TIME;
+        for (int i = 0; i < countOfTasks; i++) {
+            startTime = startTime.plusMinutes(1 + random.nextInt(90));
+            Duration duration = Duration.ofMinutes(5 + random.nextInt(55));
+            tasks.add(new Task("task" + i, "description", TaskStatus.NEW, 0, duration, startTime));
+            startTime = startTime.plus(duration);
+        }
+        return tasks;
+    }
+
+    private static List<AutoScheduler.Request> requests(int countOfRequests) {
+        Random random = new Random(7);
+        List<AutoScheduler.Request> requests = new ArrayList<>(countOfRequests);
+        for (int i = 0; i < countOfRequests; i++) {
+            Task task = new Task("request" + i, "description", TaskStatus.NEW, 0,
+                    Duration.ofMinutes(5 + random.nextInt(55)), null);
+            requests.add(new AutoScheduler.Request(task, random.nextInt(3), null));
+        }
+        return requests;
+    }
+
+    private static InMemoryManager newManager(List<Task> schedule) {
+        InMemoryManager manager = new InMemoryManager(Managers.getDefaultHistory());
+        manager.importTasks(schedule.stream().map(task -> new Task(task.getName(), task.getDescription(),
+                TaskStatus.NEW, 0, task.getDuration(), task.getStartTime())).toList());
+        return manager;
+    }
+
+    private static long measure(Bench.Round round) throws Exception {
+        return Bench.measure(WARMUP_ROUNDS, MEASURED_ROUNDS, round);
+    }
+}
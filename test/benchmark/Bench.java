@@ -0,0 +1,28 @@
+package benchmark;
+
+// Общий замер ручных бенчмарков: прогрев, затем среднее время одного раунда в наносекундах.
+final class Bench {
+    private Bench() {
+    }
+
+    interface Round {
+        // Результат раунда нужен, чтобы JIT не выбросил вычисления как неиспользуемые.
+        long run() throws Exception;
+    }
+
+    static long measure(int warmupRounds, int measuredRounds, Round round) throws Exception {
+        long blackhole = 0;
+        for (int i = 0; i < warmupRounds; i++) {
+            blackhole += round.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < measuredRounds; i++) {
+            blackhole += round.run();
+        }
+        long elapsed = (System.nanoTime() - start) / measuredRounds;
+        if (blackhole == 42) {
+            System.out.println();
+        }
+        return elapsed;
+    }
+}
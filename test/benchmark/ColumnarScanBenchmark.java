@@ -0,0 +1,72 @@
+package benchmark;
+
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import service.ColumnarTaskStore;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+// Run manually: java -cp <classes> benchmark.ColumnarScanBenchmark [countOfTasks]
+public class ColumnarScanBenchmark {
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+    private static final int SUBTASKS_PER_EPIC = 10;
+
+    public static void main(String[] args) throws Exception {
+        int countOfTasks = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Map<Integer, Task> objects = new HashMap<>();
+        ColumnarTaskStore columns = new ColumnarTaskStore();
+        fill(countOfTasks, objects, columns);
+
+        long objectNanos = measure(() -> scanObjects(objects));
+        long columnarNanos = measure(() -> scanColumns(columns));
+
+        System.out.printf("tasks=%d object-per-task=%.3f ms columnar=%.3f ms speedup=%.1fx%n",
+                countOfTasks, objectNanos / 1e6, columnarNanos / 1e6, (double) objectNanos / columnarNanos);
+    }
+
+    private static void fill(int countOfTasks, Map<Integer, Task> objects, ColumnarTaskStore columns) {
+        TaskStatus[] statuses = TaskStatus.values();
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 0, 0);
+        int epicId = 0;
+        for (int id = 1; id <= countOfTasks; id++) {
+            Task task;
+            if (id % (SUBTASKS_PER_EPIC + 1) == 1) {
+                epicId = id;
+                task = new Epic("epic" + id, "description", id);
+            } else {
+                task = new SubTask("subTask" + id, "description", id, statuses[id % statuses.length], epicId,
+                        Duration.ofMinutes(15), startTime.plusMinutes(20L * id));
+            }
+            objects.put(id, task);
+            columns.put(task);
+        }
+    }
+
+    private static long scanObjects(Map<Integer, Task> objects) {
+        Map<TaskStatus, Long> statusCounts = new EnumMap<>(TaskStatus.class);
+        Map<Integer, Duration> durationByEpic = new HashMap<>();
+        for (Task task : objects.values()) {
+            if (task.getTaskType() == TaskType.SUBTASK) {
+                statusCounts.merge(task.getStatus(), 1L, Long::sum);
+                durationByEpic.merge(((SubTask) task).getEpicId(), task.getDuration(), Duration::plus);
+            }
+        }
+        return statusCounts.size() + durationByEpic.size();
+    }
+
+    private static long scanColumns(ColumnarTaskStore columns) {
+        return columns.countByStatus(TaskType.SUBTASK).size() + columns.scheduledDurationByEpic().size();
+    }
+
+    private static long measure(Bench.Round round) throws Exception {
+        return Bench.measure(WARMUP_ROUNDS, MEASURED_ROUNDS, round);
+    }
+}
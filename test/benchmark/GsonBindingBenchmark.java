@@ -0,0 +1,85 @@
+package benchmark;
+
+import adapter.DurationAdapter;
+import adapter.LocalDateTimeAdapter;
+import adapter.TaskAdapterFactory;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import model.SubTask;
+import model.TaskStatus;
+import server.HttpTaskServer;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Run manually: java -cp <classes> benchmark.GsonBindingBenchmark [countOfTasks]
+public class GsonBindingBenchmark {
+    private static final int WARMUP_ROUNDS = 30;
+    private static final int MEASURED_ROUNDS = 100;
+    private static final Type REFLECTIVE_LIST = TypeToken.getParameterized(List.class, ReflectiveSubTask.class)
+            .getType();
+
+    public static void main(String[] args) throws Exception {
+        int countOfTasks = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        List<SubTask> subTasks = new ArrayList<>(countOfTasks);
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int id = 1; id <= countOfTasks; id++) {
+            subTasks.add(new SubTask("subTask" + id, "description " + id, id, TaskStatus.IN_PROGRESS, 1,
+                    Duration.ofMinutes(15), startTime.plusMinutes(20L * id)));
+        }
+        Gson streaming = HttpTaskServer.getGson();
+        Gson reflective = new GsonBuilder()
+                .serializeNulls()
+                .registerTypeAdapter(Duration.class, new DurationAdapter())
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .create();
+
+        List<ReflectiveSubTask> views = subTasks.stream().map(ReflectiveSubTask::new).toList();
+
+        long streamingNanos = measure(() -> {
+            String json = streaming.toJson(subTasks, TaskAdapterFactory.SUBTASK_LIST);
+            List<SubTask> parsed = streaming.fromJson(json, TaskAdapterFactory.SUBTASK_LIST);
+            return json.length() + parsed.size();
+        });
+        long reflectiveNanos = measure(() -> {
+            String json = reflective.toJson(views, REFLECTIVE_LIST);
+            List<ReflectiveSubTask> parsed = reflective.fromJson(json, REFLECTIVE_LIST);
+            return json.length() + parsed.size();
+        });
+
+        System.out.printf("tasks=%d reflective=%.3f ms streaming=%.3f ms speedup=%.1fx%n", countOfTasks,
+                reflectiveNanos / 1e6, streamingNanos / 1e6, (double) reflectiveNanos / streamingNanos);
+    }
+
+    // Время одного цикла сериализации и десериализации списка.
+    private static long measure(Bench.Round round) throws Exception {
+        return Bench.measure(WARMUP_ROUNDS, MEASURED_ROUNDS, round);
+    }
+
+    // Та же json-схема, что у SubTask, но с полями java.time: так модель привязывалась рефлексией.
+    private static class ReflectiveSubTask {
+        private final int epicId;
+        private final String name;
+        private final String description;
+        private final TaskStatus status;
+        private final int id;
+        private final Duration duration;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+
+        private ReflectiveSubTask(SubTask subTask) {
+            this.epicId = subTask.getEpicId();
+            this.name = subTask.getName();
+            this.description = subTask.getDescription();
+            this.status = subTask.getStatus();
+            this.id = subTask.getId();
+            this.duration = subTask.getDuration();
+            this.startTime = subTask.getStartTime();
+            this.endTime = subTask.getEndTime();
+        }
+    }
+}
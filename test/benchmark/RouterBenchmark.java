@@ -0,0 +1,68 @@
+package benchmark;
+
+import controller.HttpMethod;
+import controller.Router;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Run manually: java -cp <classes> benchmark.RouterBenchmark [countOfRequests]
+public class RouterBenchmark {
+    private static final int WARMUP_ROUNDS = 30;
+    private static final int MEASURED_ROUNDS = 100;
+    private static final String[] METHODS = {"GET", "GET", "GET", "POST", "DELETE", "GET"};
+    private static final String[] PATHS = {"/tasks", "/tasks/17", "/epics/4/subtasks", "/subtasks", "/epics/123456",
+            "/prioritized"};
+
+    public static void main(String[] args) throws Exception {
+        int countOfRequests = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Router<Integer> router = new Router<Integer>()
+                .route(HttpMethod.GET, "/tasks", 1)
+                .route(HttpMethod.GET, "/tasks/{id}", 2)
+                .route(HttpMethod.POST, "/tasks", 3)
+                .route(HttpMethod.DELETE, "/tasks/{id}", 4)
+                .route(HttpMethod.GET, "/subtasks", 5)
+                .route(HttpMethod.POST, "/subtasks", 6)
+                .route(HttpMethod.GET, "/epics", 7)
+                .route(HttpMethod.GET, "/epics/{id}", 8)
+                .route(HttpMethod.GET, "/epics/{id}/subtasks", 9)
+                .route(HttpMethod.DELETE, "/epics/{id}", 10)
+                .route(HttpMethod.GET, "/prioritized", 11);
+
+        long splitNanos = measure(() -> routeBySplitting(countOfRequests));
+        long trieNanos = measure(() -> routeByTrie(router, countOfRequests));
+
+        System.out.printf("requests=%d split=%.1f ns/request trie=%.1f ns/request speedup=%.1fx%n", countOfRequests,
+                (double) splitNanos / countOfRequests, (double) trieNanos / countOfRequests,
+                (double) splitNanos / trieNanos);
+    }
+
+    private static long routeByTrie(Router<Integer> router, int countOfRequests) {
+        long checksum = 0;
+        for (int i = 0; i < countOfRequests; i++) {
+            int request = i % PATHS.length;
+            Router.Match<Integer> match = router.match(HttpMethod.of(METHODS[request]), PATHS[request]);
+            checksum += match.endpoint() + match.id();
+        }
+        return checksum;
+    }
+
+    // Разбор пути так, как его делали обработчики до маршрутизатора.
+    private static long routeBySplitting(int countOfRequests) {
+        long checksum = 0;
+        for (int i = 0; i < countOfRequests; i++) {
+            int request = i % PATHS.length;
+            HttpMethod method = HttpMethod.valueOf(METHODS[request]);
+            List<String> path = Arrays.stream(PATHS[request].trim().split("/"))
+                    .filter(text -> !text.isBlank())
+                    .toList();
+            int id = path.size() > 1 ? Integer.parseInt(path.get(1)) : 0;
+            checksum += method.ordinal() + path.size() + id;
+        }
+        return checksum;
+    }
+
+    private static long measure(Bench.Round round) throws Exception {
+        return Bench.measure(WARMUP_ROUNDS, MEASURED_ROUNDS, round);
+    }
+}
@@ -0,0 +1,81 @@
+package benchmark;
+
+import model.Task;
+import model.TaskStatus;
+import service.FileBackedTaskManager;
+import service.SingleWriterTaskManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Run manually: java -cp <classes> benchmark.SingleWriterBenchmark [countOfTasks] [countOfThreads]
+public class SingleWriterBenchmark {
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int countOfTasks = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int countOfThreads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        long lockedNanos = measure(() -> writeLocked(countOfTasks, countOfThreads));
+        long singleWriterNanos = measure(() -> writeSingleWriter(countOfTasks, countOfThreads));
+
+        System.out.printf("tasks=%d threads=%d locked=%.0f ops/s single-writer=%.0f ops/s speedup=%.1fx%n",
+                countOfTasks, countOfThreads, countOfTasks * 1e9 / lockedNanos,
+                countOfTasks * 1e9 / singleWriterNanos, (double) lockedNanos / singleWriterNanos);
+    }
+
+    // Так пишут HTTP обработчики без однопоточного писателя: каждая запись под блокировкой и со своим сохранением.
+    private static long writeLocked(int countOfTasks, int countOfThreads) throws Exception {
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile());
+        return write(countOfTasks, countOfThreads, task -> {
+            synchronized (manager) {
+                return manager.createTask(task);
+            }
+        });
+    }
+
+    private static long writeSingleWriter(int countOfTasks, int countOfThreads) throws Exception {
+        try (SingleWriterTaskManager manager = new SingleWriterTaskManager(new FileBackedTaskManager(tempFile()))) {
+            return write(countOfTasks, countOfThreads, manager::createTask);
+        }
+    }
+
+    private static long write(int countOfTasks, int countOfThreads, Write write) throws Exception {
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 0, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(countOfThreads);
+        List<Future<Integer>> results = new ArrayList<>(countOfTasks);
+        for (int i = 0; i < countOfTasks; i++) {
+            Task task = new Task("task" + i, "description", TaskStatus.NEW, 0, Duration.ofMinutes(15),
+                    startTime.plusMinutes(20L * i));
+            results.add(executor.submit(() -> write.apply(task)));
+        }
+        long checksum = 0;
+        for (Future<Integer> result : results) {
+            checksum += result.get();
+        }
+        executor.shutdown();
+        return checksum;
+    }
+
+    private static File tempFile() throws IOException {
+        File file = File.createTempFile("single-writer-benchmark", ".csv");
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static long measure(Bench.Round round) throws Exception {
+        return Bench.measure(WARMUP_ROUNDS, MEASURED_ROUNDS, round);
+    }
+
+    private interface Write {
+        int apply(Task task);
+    }
+}
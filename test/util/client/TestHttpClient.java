@@ -9,11 +9,14 @@ import server.BasePath;
 import server.HttpTaskServer;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public class TestHttpClient {
     public static final String HOST = "http://localhost:8080";
@@ -33,6 +36,57 @@ public class TestHttpClient {
         }
     }
 
+    public static HttpResponse<String> getIfNoneMatch(String path, String etag)
+            throws IOException, InterruptedException {
+        URI uri = URI.create(HOST + path);
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpRequest requestBuilder = HttpRequest
+                    .newBuilder()
+                    .header("content-type", "application/json")
+                    .header("If-None-Match", etag)
+                    .uri(uri)
+                    .GET()
+                    .build();
+            HttpResponse.BodyHandler<String> handler = HttpResponse.BodyHandlers.ofString();
+            return client.send(requestBuilder, handler);
+        }
+    }
+
+    public static HttpResponse<byte[]> getWithEncoding(String path, String acceptEncoding)
+            throws IOException, InterruptedException {
+        URI uri = URI.create(HOST + path);
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpRequest requestBuilder = HttpRequest
+                    .newBuilder()
+                    .header("content-type", "application/json")
+                    .header("Accept-Encoding", acceptEncoding)
+                    .uri(uri)
+                    .GET()
+                    .build();
+            HttpResponse.BodyHandler<byte[]> handler = HttpResponse.BodyHandlers.ofByteArray();
+            return client.send(requestBuilder, handler);
+        }
+    }
+
+    public static List<String> readEventStream(String path, int eventCount) throws IOException, InterruptedException {
+        URI uri = URI.create(HOST + path);
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpRequest requestBuilder = HttpRequest
+                    .newBuilder()
+                    .header("Accept", "text/event-stream")
+                    .uri(uri)
+                    .GET()
+                    .build();
+            HttpResponse<Stream<String>> response = client.send(requestBuilder, HttpResponse.BodyHandlers.ofLines());
+            try (Stream<String> lines = response.body()) {
+                return lines.filter(line -> line.startsWith("data: "))
+                        .map(line -> line.substring("data: ".length()))
+                        .limit(eventCount)
+                        .toList();
+            }
+        }
+    }
+
     public static HttpResponse<String> getTasks() throws IOException, InterruptedException {
         return get(BasePath.TASK.getRoot());
     }
@@ -83,6 +137,22 @@ public class TestHttpClient {
         }
     }
 
+    // Тело без Content-Length уходит частями (chunked), пока поток не закончится.
+    public static HttpResponse<String> postStream(String path, Supplier<InputStream> body)
+            throws IOException, InterruptedException {
+        URI uri = URI.create(HOST + path);
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpRequest requestBuilder = HttpRequest
+                    .newBuilder()
+                    .header("content-type", "application/json")
+                    .uri(uri)
+                    .POST(HttpRequest.BodyPublishers.ofInputStream(body))
+                    .build();
+            HttpResponse.BodyHandler<String> handler = HttpResponse.BodyHandlers.ofString();
+            return client.send(requestBuilder, handler);
+        }
+    }
+
     public static HttpResponse<String> postTask(Task task) throws IOException, InterruptedException {
         return post(BasePath.TASK.getRoot(), task);
     }